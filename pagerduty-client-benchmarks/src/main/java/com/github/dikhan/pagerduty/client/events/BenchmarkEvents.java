@@ -0,0 +1,60 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEventPayload;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import org.json.JSONObject;
+
+/**
+ * Events shared by the benchmarks, so every suite measures the same shapes.
+ */
+final class BenchmarkEvents {
+
+    static final String ROUTING_KEY = "R0UT1NGK3YR0UT1NGK3YR0UT1NGK3Y12";
+
+    private BenchmarkEvents() {
+    }
+
+    static Payload payload(JSONObject customDetails) {
+        return Payload.Builder.newBuilder()
+                .setSummary("Disk usage above 90% on web-042")
+                .setSource("web-042.prod.example.com")
+                .setSeverity(Severity.ERROR)
+                .setComponent("disk")
+                .setGroup("web")
+                .setEventClass("capacity")
+                .setCustomDetails(customDetails)
+                .build();
+    }
+
+    static TriggerIncident trigger(JSONObject customDetails) {
+        return TriggerIncident.TriggerIncidentBuilder.newBuilder(ROUTING_KEY, payload(customDetails))
+                .setDedupKey("web-042/disk")
+                .setClient("benchmarks")
+                .build();
+    }
+
+    static ChangeEvent changeEvent() {
+        return ChangeEvent.ChangeEventBuilder.newBuilder(ROUTING_KEY, ChangeEventPayload.Builder.newBuilder()
+                .setSummary("Deployed release 1.2.3")
+                .setSource("ci")
+                .build())
+                .build();
+    }
+
+    /**
+     * @param approximateBytes rough size of the custom details once serialized
+     * @return custom details made of flat string entries
+     */
+    static JSONObject customDetails(int approximateBytes) {
+        JSONObject customDetails = new JSONObject();
+        // "keyNNNN":"value-...", roughly 64 bytes per entry
+        int entries = Math.max(1, approximateBytes / 64);
+        for (int i = 0; i < entries; i++) {
+            customDetails.put("key" + i, "value-" + i + "-0123456789012345678901234567890123456789");
+        }
+        return customDetails;
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the domain objects through their builders.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventConstructionBenchmark {
+
+    private final JSONObject customDetails = BenchmarkEvents.customDetails(512);
+    // Timestamps a few milliseconds apart, as events detected one after the other would have
+    private final OffsetDateTime[] timestamps = new OffsetDateTime[1024];
+    private int next;
+
+    public EventConstructionBenchmark() {
+        OffsetDateTime start = OffsetDateTime.of(2021, 3, 4, 5, 6, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = start.plusNanos(i * 7_000_000L);
+        }
+    }
+
+    @Benchmark
+    public Payload payload() {
+        return BenchmarkEvents.payload(customDetails);
+    }
+
+    @Benchmark
+    public Payload timestampedPayload() {
+        return Payload.Builder.newBuilder()
+                .setSummary("Disk usage above 90% on web-042")
+                .setSource("web-042.prod.example.com")
+                .setSeverity(Severity.ERROR)
+                .setTimestamp(timestamps[next++ & (timestamps.length - 1)])
+                .setCustomDetails(customDetails)
+                .build();
+    }
+
+    @Benchmark
+    public TriggerIncident triggerIncident() {
+        return BenchmarkEvents.trigger(customDetails);
+    }
+
+    @Benchmark
+    public ChangeEvent changeEvent() {
+        return BenchmarkEvents.changeEvent();
+    }
+}
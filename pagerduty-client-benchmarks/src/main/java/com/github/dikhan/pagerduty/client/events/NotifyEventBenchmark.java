@@ -0,0 +1,95 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end sends through {@link HttpApiServiceImpl} against an in-process HTTP stub answering like PagerDuty, so
+ * the client overhead is measured without the network latency of the real service.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class NotifyEventBenchmark {
+
+    private static final byte[] ACCEPTED = ("{\"status\":\"success\",\"message\":\"Event processed\","
+            + "\"dedup_key\":\"web-042/disk\"}").getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpApiServiceImpl apiService;
+    private TriggerIncident event;
+
+    @Setup(Level.Trial)
+    public void startStub() throws IOException {
+        // Otherwise Nagle's algorithm on the stub adds a delayed ACK to every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+        server.createContext("/", exchange -> {
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                byte[] discard = new byte[8192];
+                while (requestBody.read(discard) != -1) {
+                    // The body is drained so the connection can be kept alive
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(202, ACCEPTED.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(ACCEPTED);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        String api = "http://127.0.0.1:" + server.getAddress().getPort();
+        apiService = new HttpApiServiceImpl(api + "/v2/enqueue", api + "/v2/change/enqueue", null, null,
+                RetryPolicy.none(), HttpClientConfig.defaultConfig());
+        event = BenchmarkEvents.trigger(BenchmarkEvents.customDetails(1024));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopStub() throws IOException {
+        apiService.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public EventResult notifyEvent() throws NotifyEventException {
+        return apiService.notifyEvent(event);
+    }
+
+    @Benchmark
+    public EventResult notifyEventAsync() {
+        return apiService.notifyEventAsync(event).join();
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the PagerDuty responses, compared with the org.json tree the client used to build for every response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseParsingBenchmark {
+
+    private final byte[] accepted = ("{\"status\":\"success\",\"message\":\"Event processed\","
+            + "\"dedup_key\":\"srv01/HTTP\"}").getBytes(StandardCharsets.UTF_8);
+    private final byte[] invalid = ("{\"status\":\"invalid event\",\"message\":\"Event object is invalid\","
+            + "\"errors\":[\"Length of 'routing_key' is incorrect (should be 32 characters)\"]}").getBytes(StandardCharsets.UTF_8);
+
+    @Benchmark
+    public String acceptedStreaming() {
+        return EventResponse.parse(accepted).getDedupKey();
+    }
+
+    @Benchmark
+    public String acceptedJsonTree() {
+        JSONObject response = new JSONObject(new String(accepted, StandardCharsets.UTF_8));
+        return response.getString("status") + response.getString("message") + response.getString("dedup_key");
+    }
+
+    @Benchmark
+    public String invalidStreaming() {
+        return EventResponse.parse(invalid).getErrors();
+    }
+
+    @Benchmark
+    public String invalidJsonTree() {
+        JSONObject response = new JSONObject(new String(invalid, StandardCharsets.UTF_8));
+        return response.getString("status") + response.getJSONArray("errors").toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a trigger event with small, medium and large (100 KB) custom details. Run with
+ * {@code -prof gc} to see the allocation per event as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"128", "4096", "102400"})
+    private int customDetailsBytes;
+
+    private final JacksonObjectMapper objectMapper = new JacksonObjectMapper();
+    private TriggerIncident event;
+
+    @Setup
+    public void setUp() {
+        event = BenchmarkEvents.trigger(BenchmarkEvents.customDetails(customDetailsBytes));
+    }
+
+    @Benchmark
+    public String writeValueAsString() {
+        return objectMapper.writeValue(event);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    /**
+     * What the client does per request: the event written into a pooled buffer then handed back.
+     */
+    @Benchmark
+    public long pooledRequestEntity() {
+        PooledJsonEntity entity = PooledJsonEntity.of(event, objectMapper);
+        long length = entity.getContentLength();
+        entity.release();
+        return length;
+    }
+}
@@ -0,0 +1,363 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collapses alert storms, e.g. hundreds of hosts triggering as a shared dependency fails, into summary triggers.
+ * Triggers are grouped by routing key, payload group and payload component. Below the threshold of the
+ * {@link AggregationConfig} within its sliding window, triggers are sent as usual. The threshold counts distinct
+ * incidents, told apart by their dedup key or, for triggers without one, by their source, so a single monitor
+ * re-triggering the same incident is not taken for a storm. From the threshold on, the triggers
+ * of the group are collected for a window and sent as a single summary trigger, whose custom details hold the number
+ * of triggers collapsed and their sources, with the highest severity among them. Summaries of a group share a dedup
+ * key, so a long storm updates a single incident.
+ * <p>
+ * Collapsed triggers complete with the result of their summary. With the blocking API they return straight away with
+ * a {@link EventResult#isPending() pending} result of status "aggregated" instead, the summary being sent in the
+ * background, and its failure is only logged. Other events are not aggregated. The
+ * resolves of the collapsed triggers do not resolve the summary incident, which has to be resolved in PagerDuty.
+ */
+public class AggregatingApiService implements ApiService {
+
+    private static final Logger log = LoggerFactory.getLogger(AggregatingApiService.class);
+
+    // Longest dedup key accepted by PagerDuty
+    private static final int MAX_DEDUP_KEY_LENGTH = 255;
+
+    private final ApiService apiService;
+    private final long windowNanos;
+    private final int threshold;
+    private final int maxListedSources;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<GroupKey, Group> groups;
+
+    /**
+     * @param apiService        Service actually sending the events.
+     * @param aggregationConfig Window and threshold of the aggregation.
+     */
+    public AggregatingApiService(ApiService apiService, AggregationConfig aggregationConfig) {
+        Objects.requireNonNull(apiService, "apiService must not be null, it is a mandatory param");
+        Objects.requireNonNull(aggregationConfig, "aggregationConfig must not be null, it is a mandatory param");
+        this.apiService = apiService;
+        this.windowNanos = aggregationConfig.getWindow().toNanos();
+        this.threshold = aggregationConfig.getThreshold();
+        this.maxListedSources = aggregationConfig.getMaxListedSources();
+        int maxGroups = aggregationConfig.getMaxGroups();
+        this.groups = new LinkedHashMap<GroupKey, Group>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<GroupKey, Group> eldest) {
+                // A batch of an evicted group is still sent by its scheduled task
+                return size() > maxGroups;
+            }
+        };
+    }
+
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+        Batch batch = aggregate(event);
+        if (batch == null) {
+            return apiService.notifyEvent(event);
+        }
+        return EventResult.pendingEvent("aggregated", "Event aggregated into a summary incident", batch.dedupKey);
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+        Batch batch = aggregate(event);
+        if (batch == null) {
+            return apiService.notifyEventAsync(event);
+        }
+        // A copy, so callers of the collapsed triggers cannot interfere with each other
+        return batch.result.thenApply(eventResult -> eventResult);
+    }
+
+    /**
+     * @return the batch the event was added to, or null if it has to be sent on its own
+     */
+    private Batch aggregate(PagerDutyEvent event) {
+        if (!(event instanceof TriggerIncident) || ((TriggerIncident) event).getPayload() == null) {
+            return null;
+        }
+        TriggerIncident trigger = (TriggerIncident) event;
+        GroupKey key = GroupKey.of(trigger);
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Group group = groups.computeIfAbsent(key, groupKey -> new Group());
+            int incidentsInWindow = group.record(incidentOf(trigger), now);
+            if (group.batch == null) {
+                if (incidentsInWindow < threshold) {
+                    return null;
+                }
+                Batch batch = new Batch(key);
+                group.batch = batch;
+                log.debug("{} incidents triggered within the window for {}, aggregating the next triggers", incidentsInWindow, key.dedupKey);
+                batch.flushTask = SharedScheduler.schedule(() -> {
+                    if (detach(batch)) {
+                        // Sending may block, e.g. on the spool or a full dispatch queue, so not on the scheduler thread
+                        SharedScheduler.execute(() -> send(batch));
+                    }
+                }, windowNanos, TimeUnit.NANOSECONDS);
+            }
+            group.batch.add(trigger.getPayload());
+            return group.batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return what tells the incident of the trigger apart from the other incidents of its group
+     */
+    private static String incidentOf(TriggerIncident trigger) {
+        return trigger.getDedupKey() != null ? "dedup_key:" + trigger.getDedupKey() : "source:" + trigger.getPayload().getSource();
+    }
+
+    /**
+     * Sends the summaries of the triggers collected so far without waiting for the end of their window, e.g. before
+     * shutting down.
+     *
+     * @return the pending results of the summaries sent, mapped to the summaries
+     */
+    public Map<CompletableFuture<EventResult>, PagerDutyEvent> sendPending() {
+        List<Batch> batches = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Group group : groups.values()) {
+                if (group.batch != null) {
+                    batches.add(group.batch);
+                    group.batch = null;
+                }
+            }
+            for (Batch batch : batches) {
+                batch.sent = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        Map<CompletableFuture<EventResult>, PagerDutyEvent> summaries = new IdentityHashMap<>();
+        for (Batch batch : batches) {
+            batch.flushTask.cancel(false);
+            summaries.put(batch.result, send(batch));
+        }
+        return summaries;
+    }
+
+    /**
+     * @return whether the batch was still to be sent, it can no longer be added to once detached
+     */
+    private boolean detach(Batch batch) {
+        lock.lock();
+        try {
+            if (batch.sent) {
+                return false;
+            }
+            batch.sent = true;
+            Group group = groups.get(batch.key);
+            if (group != null && group.batch == batch) {
+                group.batch = null;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private TriggerIncident send(Batch batch) {
+        TriggerIncident summary = batch.summary();
+        CompletableFuture<EventResult> eventResult;
+        try {
+            eventResult = apiService.notifyEventAsync(summary);
+        } catch (RuntimeException e) {
+            eventResult = new CompletableFuture<>();
+            eventResult.completeExceptionally(new NotifyEventException(e));
+        }
+        eventResult.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                log.warn("Unable to send the summary of {} aggregated triggers for {}", batch.triggers, batch.dedupKey, throwable);
+                batch.result.completeExceptionally(throwable);
+            } else {
+                batch.result.complete(result);
+            }
+        });
+        return summary;
+    }
+
+    /**
+     * Sends the summaries of the triggers collected so far, then closes the decorated service.
+     */
+    @Override
+    public void close() throws IOException {
+        sendPending();
+        apiService.close();
+    }
+
+    private final class Group {
+        // Time of the last trigger of each incident of the group, oldest first, at most threshold of them
+        private final LinkedHashMap<String, Long> incidentNanos = new LinkedHashMap<>();
+        private Batch batch;
+
+        /**
+         * @return number of distinct incidents of the group triggered within the window, including the new one
+         */
+        private int record(String incident, long nowNanos) {
+            incidentNanos.remove(incident);
+            Iterator<Long> oldest = incidentNanos.values().iterator();
+            while (oldest.hasNext()) {
+                long triggerNanos = oldest.next();
+                if (nowNanos - triggerNanos < windowNanos && incidentNanos.size() < threshold) {
+                    break;
+                }
+                oldest.remove();
+            }
+            incidentNanos.put(incident, nowNanos);
+            return incidentNanos.size();
+        }
+    }
+
+    private final class Batch {
+        private final GroupKey key;
+        private final String dedupKey;
+        private final Set<String> sources = new LinkedHashSet<>();
+        private final CompletableFuture<EventResult> result = new CompletableFuture<>();
+        private int triggers;
+        private Severity severity;
+        private String firstTimestamp;
+        // Guarded by the lock, set once the batch is no longer added to
+        private boolean sent;
+        private ScheduledFuture<?> flushTask;
+
+        private Batch(GroupKey key) {
+            this.key = key;
+            this.dedupKey = key.dedupKey;
+        }
+
+        private void add(Payload payload) {
+            triggers++;
+            sources.add(payload.getSource());
+            if (severity == null || (payload.getSeverity() != null && payload.getSeverity().compareTo(severity) < 0)) {
+                severity = payload.getSeverity();
+            }
+            if (firstTimestamp == null) {
+                firstTimestamp = payload.getTimestamp();
+            }
+        }
+
+        private TriggerIncident summary() {
+            List<String> listedSources = new ArrayList<>(maxListedSources);
+            for (String source : sources) {
+                if (listedSources.size() == maxListedSources) {
+                    break;
+                }
+                listedSources.add(source);
+            }
+            JSONObject customDetails = new JSONObject();
+            customDetails.put("aggregated_events", triggers);
+            customDetails.put("sources", new JSONArray(listedSources));
+            if (sources.size() > listedSources.size()) {
+                customDetails.put("omitted_sources", sources.size() - listedSources.size());
+            }
+
+            String description = key.description();
+            Payload payload = Payload.Builder.newBuilder()
+                    .setSummary(triggers + " alerts from " + sources.size() + " sources" + (description.isEmpty() ? "" : " in " + description))
+                    .setSource(sources.size() == 1 ? sources.iterator().next() : (description.isEmpty() ? sources.size() + " sources" : description))
+                    .setSeverity(severity != null ? severity : Severity.CRITICAL)
+                    .setTimestamp(parseTimestamp(firstTimestamp))
+                    .setGroup(key.group)
+                    .setComponent(key.component)
+                    .setCustomDetails(customDetails)
+                    .build();
+            return TriggerIncident.TriggerIncidentBuilder.newBuilder(key.routingKey, payload)
+                    .setDedupKey(dedupKey)
+                    .build();
+        }
+    }
+
+    private static OffsetDateTime parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static final class GroupKey {
+        private final String routingKey;
+        private final String group;
+        private final String component;
+        private final String dedupKey;
+
+        private GroupKey(String routingKey, String group, String component) {
+            this.routingKey = routingKey;
+            this.group = group;
+            this.component = component;
+            String dedupKey = "alert-storm" + (description().isEmpty() ? "" : ":" + description());
+            this.dedupKey = dedupKey.length() <= MAX_DEDUP_KEY_LENGTH ? dedupKey
+                    : "alert-storm:" + Integer.toHexString(Objects.hash(group, component));
+        }
+
+        private static GroupKey of(TriggerIncident trigger) {
+            return new GroupKey(trigger.getRoutingKey(), trigger.getPayload().getGroup(), trigger.getPayload().getComponent());
+        }
+
+        /**
+         * @return group and component separated by a slash, those set only
+         */
+        private String description() {
+            if (group != null && component != null) {
+                return group + "/" + component;
+            }
+            return group != null ? group : (component != null ? component : "");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            GroupKey that = (GroupKey) o;
+
+            return Objects.equals(routingKey, that.routingKey) && Objects.equals(group, that.group)
+                    && Objects.equals(component, that.component);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(routingKey, group, component);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings of the {@link AggregatingApiService}. Triggers are grouped by routing key, payload group and payload
+ * component, and once a group gets triggers of {@code threshold} distinct incidents within {@code window} that trigger
+ * and the following ones are collapsed into a summary trigger sent every {@code window} for as long as the burst lasts.
+ */
+public class AggregationConfig {
+
+    private static final Duration DEFAULT_WINDOW = Duration.ofSeconds(30);
+    private static final int DEFAULT_THRESHOLD = 10;
+    private static final int DEFAULT_MAX_LISTED_SOURCES = 100;
+    private static final int DEFAULT_MAX_GROUPS = 10_000;
+
+    private final Duration window;
+    private final int threshold;
+    private final int maxListedSources;
+    private final int maxGroups;
+
+    private AggregationConfig(Builder builder) {
+        this.window = builder.getWindow();
+        this.threshold = builder.getThreshold();
+        this.maxListedSources = builder.getMaxListedSources();
+        this.maxGroups = builder.getMaxGroups();
+    }
+
+    public static AggregationConfig defaultConfig() {
+        return Builder.newBuilder().build();
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public int getMaxListedSources() {
+        return maxListedSources;
+    }
+
+    public int getMaxGroups() {
+        return maxGroups;
+    }
+
+    public static class Builder {
+        private Duration window = DEFAULT_WINDOW;
+        private int threshold = DEFAULT_THRESHOLD;
+        private int maxListedSources = DEFAULT_MAX_LISTED_SOURCES;
+        private int maxGroups = DEFAULT_MAX_GROUPS;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        /**
+         * @param window Sliding window the triggers of a group are counted over, and how long the triggers of a
+         *               burst are collected before their summary is sent.
+         * @return AggregationConfig Builder to be able to keep populating the instance
+         */
+        public Builder setWindow(Duration window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * @param threshold Number of distinct incidents, told apart by dedup key or else by source, triggered in a group
+         *                  within the window from which triggers are aggregated.
+         * @return AggregationConfig Builder to be able to keep populating the instance
+         */
+        public Builder setThreshold(int threshold) {
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * @param maxListedSources Maximum number of sources listed in the custom details of a summary trigger.
+         * @return AggregationConfig Builder to be able to keep populating the instance
+         */
+        public Builder setMaxListedSources(int maxListedSources) {
+            this.maxListedSources = maxListedSources;
+            return this;
+        }
+
+        /**
+         * @param maxGroups Maximum number of groups tracked, the least recently triggered being forgotten first.
+         * @return AggregationConfig Builder to be able to keep populating the instance
+         */
+        public Builder setMaxGroups(int maxGroups) {
+            this.maxGroups = maxGroups;
+            return this;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public int getMaxListedSources() {
+            return maxListedSources;
+        }
+
+        public int getMaxGroups() {
+            return maxGroups;
+        }
+
+        /**
+         * Make sure the window and sizes are valid, then create the configuration.
+         */
+        public AggregationConfig build() {
+            Objects.requireNonNull(window, "window cannot be null.");
+            if (window.isNegative() || window.isZero()) {
+                throw new IllegalArgumentException("window must be greater than zero.");
+            }
+            if (threshold < 2) {
+                throw new IllegalArgumentException("threshold must be at least 2.");
+            }
+            if (maxListedSources <= 0) {
+                throw new IllegalArgumentException("maxListedSources must be greater than zero.");
+            }
+            if (maxGroups <= 0) {
+                throw new IllegalArgumentException("maxGroups must be greater than zero.");
+            }
+
+            return new AggregationConfig(this);
+        }
+    }
+}
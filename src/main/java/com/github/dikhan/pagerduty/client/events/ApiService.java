@@ -4,8 +4,40 @@ import com.github.dikhan.pagerduty.client.events.domain.EventResult;
 import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
 import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
 
-public interface ApiService {
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+public interface ApiService extends Closeable {
 
     EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException;
 
+    /**
+     * Sends the event without blocking the caller on the HTTP round-trip. Implementations able to do non-blocking I/O
+     * should override this method; the default falls back to {@link #notifyEvent(PagerDutyEvent)} on the calling
+     * thread and returns an already completed future.
+     *
+     * @param event to be sent to PagerDuty
+     * @return future completed with the result of the event, or exceptionally with a {@link NotifyEventException}
+     */
+    default CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+        CompletableFuture<EventResult> eventResult = new CompletableFuture<>();
+        try {
+            eventResult.complete(notifyEvent(event));
+        } catch (NotifyEventException e) {
+            eventResult.completeExceptionally(e);
+        }
+        return eventResult;
+    }
+
+    /**
+     * Releases the connections and threads held by the service, and by the services it decorates. Events still in
+     * flight may fail once closed. Closing more than once has no further effect. The default holds nothing to release.
+     *
+     * @throws IOException if a resource could not be released
+     */
+    @Override
+    default void close() throws IOException {
+    }
+
 }
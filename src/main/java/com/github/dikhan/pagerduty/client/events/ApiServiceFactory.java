@@ -1,6 +1,6 @@
 package com.github.dikhan.pagerduty.client.events;
 
-import org.apache.commons.lang3.StringUtils;
+import java.time.Duration;
 
 /**
  * This class is in charge of producing implementations of ApiService. The default impl can be retrieved
@@ -9,11 +9,22 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class ApiServiceFactory {
 
+    private static final String JDK_HTTP_API_SERVICE = "com.github.dikhan.pagerduty.client.events.JdkHttpApiService";
+
     private final String eventApi;
     private final String changeEventApi;
     private final String proxyHost;
     private final Integer proxyPort;
     private final Boolean doRetries;
+    private HttpClientConfig httpClientConfig = HttpClientConfig.defaultConfig();
+    private RetryPolicy retryPolicy;
+    private Double rateLimitEventsPerSecond;
+    private int rateLimitBurst;
+    private Duration rateLimitMaxWait;
+    private CircuitBreakerConfig circuitBreakerConfig;
+    private ClientMetrics metrics = ClientMetrics.noop();
+    private boolean jdkHttpClient;
+    private boolean virtualThreads;
 
     public ApiServiceFactory(String eventApi, String changeEventApi) {
         this(eventApi, changeEventApi, null, null, false);
@@ -31,11 +42,106 @@ public class ApiServiceFactory {
         this.doRetries = doRetries;
     }
 
+    /**
+     * @param httpClientConfig connection pool and timeout settings of the HTTP client owned by the produced ApiService
+     * @return this factory to be able to keep configuring it
+     */
+    public ApiServiceFactory withHttpClientConfig(HttpClientConfig httpClientConfig) {
+        this.httpClientConfig = httpClientConfig;
+        return this;
+    }
+
+    /**
+     * @param retryPolicy policy deciding which failed attempts are retried, takes precedence over doRetries
+     * @return this factory to be able to keep configuring it
+     */
+    public ApiServiceFactory withRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * @param eventsPerSecond sustained rate of events allowed for each routing key
+     * @param burst           number of events of a routing key that can be sent back to back after being idle
+     * @param maxWait         longest an event may wait for its turn before being rejected, null to wait as needed
+     * @return this factory to be able to keep configuring it
+     */
+    public ApiServiceFactory withRateLimit(double eventsPerSecond, int burst, Duration maxWait) {
+        this.rateLimitEventsPerSecond = eventsPerSecond;
+        this.rateLimitBurst = burst;
+        this.rateLimitMaxWait = maxWait;
+        return this;
+    }
+
+    /**
+     * @param circuitBreakerConfig thresholds of the circuit breaker failing fast while PagerDuty is unreachable
+     * @return this factory to be able to keep configuring it
+     */
+    public ApiServiceFactory withCircuitBreaker(CircuitBreakerConfig circuitBreakerConfig) {
+        this.circuitBreakerConfig = circuitBreakerConfig;
+        return this;
+    }
+
+    /**
+     * @param metrics recorder of the latency and outcome of every request sent by the produced ApiService
+     * @return this factory to be able to keep configuring it
+     */
+    public ApiServiceFactory withMetrics(ClientMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * @param jdkHttpClient whether to send the events with the HttpClient of Java 11, multiplexing them over HTTP/2,
+     *                      see {@link JdkHttpApiService}
+     * @return this factory to be able to keep configuring it
+     */
+    public ApiServiceFactory withJdkHttpClient(boolean jdkHttpClient) {
+        this.jdkHttpClient = jdkHttpClient;
+        return this;
+    }
+
+    /**
+     * @param virtualThreads whether asynchronous sends run as blocking sends on virtual threads, see
+     *                       {@link VirtualThreadApiService}
+     * @return this factory to be able to keep configuring it
+     */
+    public ApiServiceFactory withVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
     public ApiService getDefault() {
-        if (!StringUtils.isEmpty(proxyHost) && proxyPort!= null) {
-            return new HttpApiServiceImpl(eventApi, changeEventApi, proxyHost, proxyPort, doRetries);
+        RetryPolicy policy = retryPolicy;
+        if (policy == null) {
+            policy = Boolean.TRUE.equals(doRetries) ? RetryPolicy.doRetriesPolicy() : RetryPolicy.none();
+        }
+        ApiService apiService = jdkHttpClient ? jdkHttpApiService(policy)
+                : new HttpApiServiceImpl(eventApi, changeEventApi, proxyHost, proxyPort, policy, httpClientConfig, metrics);
+        if (virtualThreads) {
+            apiService = new VirtualThreadApiService(apiService);
+        }
+        if (circuitBreakerConfig != null) {
+            apiService = new CircuitBreakerApiService(apiService, circuitBreakerConfig);
+        }
+        // Outermost, so the time events spend waiting for their turn does not count as slow calls
+        if (rateLimitEventsPerSecond != null) {
+            apiService = new RateLimitedApiService(apiService, rateLimitEventsPerSecond, rateLimitBurst, rateLimitMaxWait);
+        }
+        return apiService;
+    }
+
+    /**
+     * Instantiated reflectively, as the class is only built and usable on Java 11 or later.
+     */
+    private ApiService jdkHttpApiService(RetryPolicy policy) {
+        try {
+            return (ApiService) Class.forName(JDK_HTTP_API_SERVICE)
+                    .getConstructor(String.class, String.class, String.class, Integer.class, RetryPolicy.class, HttpClientConfig.class, ClientMetrics.class)
+                    .newInstance(eventApi, changeEventApi, proxyHost, proxyPort, policy, httpClientConfig, metrics);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("The JDK HttpClient requires Java 11 or later", e);
         }
-        return new HttpApiServiceImpl(eventApi, changeEventApi, false);
     }
 
 }
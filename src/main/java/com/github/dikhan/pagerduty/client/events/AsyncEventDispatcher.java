@@ -0,0 +1,575 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.EventAction;
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.exceptions.EventRejectedException;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decouples the producers of events from the network latency of PagerDuty. Events are put in a bounded in-memory
+ * queue which is drained by a small pool of sender threads sharing the pooled connections of the {@link ApiService}.
+ * When the queue is full the configured {@link OverflowPolicy} decides whether the producer waits or which event is
+ * dropped.
+ * <p>
+ * The queue is ordered by {@link #rank(PagerDutyEvent) importance}: acknowledges and resolves first, then the
+ * triggers from critical down to info, then the change events. Events of the same incident are still sent in the order
+ * they were queued, and events waiting in lower priorities are sent once too many events overtook them, see
+ * {@link PriorityEventQueue}.
+ * <p>
+ * Sender threads hand the events over to {@link ApiService#notifyEventAsync(PagerDutyEvent)}, so events backing off
+ * before a retry do not hold a sender thread. The number of events taken from the queue but not completed yet is
+ * bounded by the queue capacity as well.
+ * <p>
+ * Events of the same incident, identified by its routing key and dedup key, are sent one after the other: an event is
+ * only handed over once the previous event of its incident completed, retries included, so a resolve never overtakes
+ * its trigger. Events of different incidents are sent concurrently.
+ * <p>
+ * Events of an incident still waiting in the queue can be superseded by a new event of the incident as per the
+ * {@link CoalescingPolicy}, shortening the backlog left by an outage.
+ * <p>
+ * The dispatcher is an {@link ApiService} itself, so it can be decorated like any other one, e.g. by the
+ * {@link SpoolingApiService} to persist the events before they are queued.
+ * <p>
+ * Once {@link #close() closed} the dispatcher rejects new events and fails those still queued, callers wanting them
+ * delivered first wait for their futures, as {@link PagerDutyEventsClient#shutdown(java.time.Duration)} does.
+ */
+public class AsyncEventDispatcher implements ApiService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncEventDispatcher.class);
+
+    // Upper bound of events a sender thread takes from the queue in one go, so the lock is not acquired per event
+    private static final int MAX_DRAIN_BATCH = 16;
+    // Events sent ahead of lower priority ones before the event queued the longest is sent, whatever its priority
+    private static final int MAX_OVERTAKES = 32;
+    private static final int PRIORITIES = 6;
+
+    private final ApiService apiService;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final CoalescingPolicy coalescingPolicy;
+    private final int senderThreads;
+    private final ClientMetrics metrics;
+
+    private final PriorityEventQueue<QueuedEvent> queue = new PriorityEventQueue<>(PRIORITIES, MAX_OVERTAKES);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Semaphore inFlight;
+    private final List<Thread> senders;
+    // Events taken from the queue and not completed yet of each incident, in the order they were taken: only the first
+    // one is being sent, the others wait for it to complete
+    private final Map<IncidentKey, ArrayDeque<QueuedEvent>> sendingIncidents = new HashMap<>();
+    private final ReentrantLock sendingLock = new ReentrantLock();
+    private boolean closed;
+
+    public AsyncEventDispatcher(ApiService apiService, int queueCapacity, int senderThreads, OverflowPolicy overflowPolicy) {
+        this(apiService, queueCapacity, senderThreads, overflowPolicy, ClientMetrics.noop());
+    }
+
+    public AsyncEventDispatcher(ApiService apiService, int queueCapacity, int senderThreads, OverflowPolicy overflowPolicy,
+                                ClientMetrics metrics) {
+        this(apiService, queueCapacity, senderThreads, overflowPolicy, metrics, CoalescingPolicy.NONE);
+    }
+
+    public AsyncEventDispatcher(ApiService apiService, int queueCapacity, int senderThreads, OverflowPolicy overflowPolicy,
+                                ClientMetrics metrics, CoalescingPolicy coalescingPolicy) {
+        Objects.requireNonNull(apiService, "apiService must not be null, it is a mandatory param");
+        Objects.requireNonNull(overflowPolicy, "overflowPolicy must not be null, it is a mandatory param");
+        Objects.requireNonNull(metrics, "metrics must not be null, it is a mandatory param");
+        Objects.requireNonNull(coalescingPolicy, "coalescingPolicy must not be null, it is a mandatory param");
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be greater than zero.");
+        }
+        if (senderThreads <= 0) {
+            throw new IllegalArgumentException("senderThreads must be greater than zero.");
+        }
+        this.apiService = apiService;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.coalescingPolicy = coalescingPolicy;
+        this.senderThreads = senderThreads;
+        this.metrics = metrics;
+        this.inFlight = new Semaphore(queueCapacity);
+        this.senders = new ArrayList<>(senderThreads);
+
+        for (int i = 0; i < senderThreads; i++) {
+            Thread sender = new Thread(this::drainQueue, "pagerduty-dispatcher-" + i);
+            sender.setDaemon(true);
+            senders.add(sender);
+            sender.start();
+        }
+    }
+
+    /**
+     * Queues the event to be sent by one of the sender threads.
+     *
+     * @param event to be sent to PagerDuty
+     * @return future completed once the event, or the event superseding it, has been sent, or exceptionally with a
+     * {@link NotifyEventException} if
+     * it could not be sent, was dropped from the queue or the dispatcher is closed. Events dropped from the queue, or
+     * superseded by an event which then failed, fail with an {@link EventRejectedException}
+     */
+    public CompletableFuture<EventResult> dispatch(PagerDutyEvent event) {
+        return dispatch(event, true);
+    }
+
+    /**
+     * @param waitForRoom whether to wait for room in a full queue as per the {@link OverflowPolicy#BLOCK} policy, or
+     *                    to fail the event straight away
+     */
+    private CompletableFuture<EventResult> dispatch(PagerDutyEvent event, boolean waitForRoom) {
+        QueuedEvent queuedEvent = new QueuedEvent(event);
+        QueuedEvent droppedEvent;
+        List<QueuedEvent> supersededEvents = Collections.emptyList();
+        int queueDepth;
+        lock.lock();
+        try {
+            if (!closed && !waitForRoom && overflowPolicy == OverflowPolicy.BLOCK && queue.size() >= queueCapacity) {
+                // Not dropped for good, the caller hands the event over again later
+                queuedEvent.future.completeExceptionally(new NotifyEventException("Dispatch queue is full, the event was not queued"));
+                return queuedEvent.future;
+            }
+            if (!closed) {
+                // Ahead of makeRoomFor, superseded events free up room for the new one
+                supersededEvents = coalesce(queuedEvent);
+            }
+            droppedEvent = closed ? null : makeRoomFor(queuedEvent);
+            // Also checked after makeRoomFor, as the dispatcher may be closed while waiting for room
+            if (closed) {
+                queuedEvent.future.completeExceptionally(new NotifyEventException("Dispatcher is closed, the event was not queued"));
+                return queuedEvent.future;
+            }
+            if (droppedEvent != queuedEvent) {
+                queue.add(queuedEvent, queuedEvent.rank, queuedEvent.incident);
+                notEmpty.signal();
+            }
+            queueDepth = queue.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queuedEvent.future.completeExceptionally(new NotifyEventException(e));
+            return queuedEvent.future;
+        } finally {
+            lock.unlock();
+        }
+
+        metrics.queueDepth(queueDepth);
+        for (QueuedEvent supersededEvent : supersededEvents) {
+            queuedEvent.future.whenComplete((result, throwable) -> {
+                if (throwable != null || !EventResults.isFinal(result)) {
+                    // The superseded event itself is not to be sent again, whatever happens to the one superseding it
+                    supersededEvent.future.completeExceptionally(new EventRejectedException(
+                            "Event was superseded by a later event of its incident, which was not delivered", throwable));
+                } else {
+                    supersededEvent.future.complete(result);
+                }
+            });
+        }
+        if (droppedEvent != null) {
+            log.debug("Dispatch queue is full, dropping event {}", droppedEvent.event);
+            droppedEvent.future.completeExceptionally(
+                    new EventRejectedException("Dispatch queue is full, the event was dropped as per " + overflowPolicy + " policy"));
+        }
+        return queuedEvent.future;
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+        return dispatch(event);
+    }
+
+    /**
+     * @return the dispatcher as an {@link ApiService} which never waits for room in the queue: with the
+     * {@link OverflowPolicy#BLOCK} policy, events finding the queue full fail with a {@link NotifyEventException}
+     * instead. Meant for callers which must not block, such as the redelivery of the {@link SpoolingApiService}.
+     * Closing it has no effect, the dispatcher itself is closed.
+     */
+    ApiService withoutWaitingForRoom() {
+        return new ApiService() {
+            @Override
+            public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+                return HttpApiServiceImpl.await(dispatch(event, false));
+            }
+
+            @Override
+            public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+                return dispatch(event, false);
+            }
+        };
+    }
+
+    /**
+     * Queues the event and waits for it to be sent.
+     */
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+        try {
+            return dispatch(event).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NotifyEventException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof NotifyEventException ? (NotifyEventException) cause : new NotifyEventException(cause);
+        }
+    }
+
+    /**
+     * Queues the event without waiting for it to be sent. Convenience for the blocking API of the client, whose
+     * callers only need to know whether the event was queued.
+     *
+     * @param event to be sent to PagerDuty
+     * @return {@link EventResult#isPending() pending} result reporting the event as queued, not as accepted by PagerDuty
+     * @throws NotifyEventException if the event was rejected because the queue is full
+     */
+    public EventResult enqueue(PagerDutyEvent event) throws NotifyEventException {
+        return queuedResult(event, dispatch(event));
+    }
+
+    /**
+     * @param event        just queued
+     * @param pendingResult future of the queued event
+     * @return {@link EventResult#isPending() pending} result reporting the event as queued
+     * @throws NotifyEventException if the event has already been rejected
+     */
+    static EventResult queuedResult(PagerDutyEvent event, CompletableFuture<EventResult> pendingResult) throws NotifyEventException {
+        if (pendingResult.isCompletedExceptionally()) {
+            try {
+                pendingResult.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof NotifyEventException ? (NotifyEventException) cause : new NotifyEventException(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NotifyEventException(e);
+            }
+        }
+        return EventResult.pendingEvent("queued", "Event queued for delivery", IncidentKey.dedupKey(event));
+    }
+
+    /**
+     * @return number of events waiting for a sender thread
+     */
+    public int queueSize() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the sender threads and fails the events still queued with a {@link NotifyEventException}. Events already
+     * handed over to the {@link ApiService} are left to complete before it is closed in turn.
+     */
+    @Override
+    public void close() throws IOException {
+        List<QueuedEvent> undelivered;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            undelivered = queue.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread sender : senders) {
+            sender.interrupt();
+        }
+        for (QueuedEvent queuedEvent : undelivered) {
+            queuedEvent.future.completeExceptionally(new NotifyEventException("Dispatcher was closed before the event was sent"));
+        }
+        apiService.close();
+    }
+
+    /**
+     * Must be called holding the lock. Removes from the queue the events of the incident superseded by the new event
+     * as per the coalescing policy, and returns them.
+     */
+    private List<QueuedEvent> coalesce(QueuedEvent queuedEvent) {
+        if (coalescingPolicy == CoalescingPolicy.NONE || queuedEvent.incident == null) {
+            return Collections.emptyList();
+        }
+        List<QueuedEvent> queued = queue.queued(queuedEvent.incident);
+        if (queued.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<QueuedEvent> superseded;
+        EventAction action = queuedEvent.action();
+        if (action == EventAction.RESOLVE && coalescingPolicy == CoalescingPolicy.COLLAPSE_RESOLVED) {
+            superseded = queued;
+        } else if (action == EventAction.TRIGGER && queued.get(queued.size() - 1).action() == EventAction.TRIGGER) {
+            superseded = queued.subList(queued.size() - 1, queued.size());
+        } else {
+            return Collections.emptyList();
+        }
+        for (QueuedEvent supersededEvent : superseded) {
+            queue.remove(supersededEvent, queuedEvent.incident);
+        }
+        log.debug("Coalescing {} queued events of dedup key {} into {}", superseded.size(), queuedEvent.incident.getDedupKey(), queuedEvent.event);
+        return superseded;
+    }
+
+    /**
+     * Must be called holding the lock. Returns the event dropped to make room for the new one (which may be the new
+     * event itself), or null if nothing had to be dropped.
+     */
+    private QueuedEvent makeRoomFor(QueuedEvent queuedEvent) throws InterruptedException {
+        if (queue.size() < queueCapacity) {
+            return null;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                while (queue.size() >= queueCapacity && !closed) {
+                    notFull.await();
+                }
+                return null;
+            case DROP_OLDEST:
+                return queue.pollOldest();
+            case DROP_LOWEST_SEVERITY:
+                return removeLowestSeverity(queuedEvent);
+            default:
+                throw new IllegalStateException("Unknown overflow policy " + overflowPolicy);
+        }
+    }
+
+    private QueuedEvent removeLowestSeverity(QueuedEvent queuedEvent) {
+        QueuedEvent lowest = queue.lowest(candidate -> candidate.rank);
+        if (lowest == null || queuedEvent.rank < lowest.rank) {
+            return queuedEvent;
+        }
+        queue.remove(lowest);
+        return lowest;
+    }
+
+    private void drainQueue() {
+        List<QueuedEvent> batch = new ArrayList<>(MAX_DRAIN_BATCH);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                takeBatch(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        inFlight.acquire();
+                    } catch (InterruptedException e) {
+                        abandon(batch.subList(i, batch.size()));
+                        throw e;
+                    }
+                    send(batch.get(i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private void takeBatch(List<QueuedEvent> batch) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (queue.isEmpty()) {
+                notEmpty.await();
+            }
+            // Leave work for the other sender threads rather than taking the whole backlog
+            int batchSize = Math.min(MAX_DRAIN_BATCH, Math.max(1, queue.size() / senderThreads));
+            while (batch.size() < batchSize && !queue.isEmpty()) {
+                QueuedEvent queuedEvent = queue.poll();
+                if (queuedEvent.incident != null) {
+                    // Registered while holding the queue lock, so the events of an incident are registered in the
+                    // order they were taken whichever sender thread takes them
+                    sendingLock.lock();
+                    try {
+                        sendingIncidents.computeIfAbsent(queuedEvent.incident, incident -> new ArrayDeque<>()).addLast(queuedEvent);
+                    } finally {
+                        sendingLock.unlock();
+                    }
+                }
+                batch.add(queuedEvent);
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends the event, unless an earlier event of its incident is still being sent, in which case it is sent once
+     * that one completed.
+     */
+    private void send(QueuedEvent queuedEvent) {
+        if (queuedEvent.incident != null) {
+            sendingLock.lock();
+            try {
+                queuedEvent.permitted = true;
+                if (sendingIncidents.get(queuedEvent.incident).peekFirst() != queuedEvent) {
+                    return;
+                }
+            } finally {
+                sendingLock.unlock();
+            }
+        }
+        sendInOrder(queuedEvent);
+    }
+
+    /**
+     * Sends the event, then the events of its incident waiting for it one after the other.
+     */
+    private void sendInOrder(QueuedEvent queuedEvent) {
+        QueuedEvent next = queuedEvent;
+        while (next != null) {
+            QueuedEvent current = next;
+            CompletableFuture<EventResult> eventResult;
+            try {
+                eventResult = apiService.notifyEventAsync(current.event);
+            } catch (RuntimeException e) {
+                eventResult = new CompletableFuture<>();
+                eventResult.completeExceptionally(new NotifyEventException(e));
+            }
+            if (current.incident == null) {
+                eventResult.whenComplete((result, throwable) -> complete(current, result, throwable));
+                return;
+            }
+            if (eventResult.isDone()) {
+                // Completed straight away, e.g. rejected by an open circuit: the next event of the incident is sent
+                // from this loop rather than recursively, however many of them are waiting
+                eventResult.whenComplete((result, throwable) -> complete(current, result, throwable));
+                next = done(current);
+            } else {
+                eventResult.whenComplete((result, throwable) -> {
+                    complete(current, result, throwable);
+                    QueuedEvent following = done(current);
+                    if (following != null) {
+                        sendInOrder(following);
+                    }
+                });
+                return;
+            }
+        }
+    }
+
+    /**
+     * Forgets the event of an incident which completed or will never be sent.
+     *
+     * @return the next event of the incident if it can be sent now, else null
+     */
+    private QueuedEvent done(QueuedEvent queuedEvent) {
+        sendingLock.lock();
+        try {
+            ArrayDeque<QueuedEvent> taken = sendingIncidents.get(queuedEvent.incident);
+            boolean wasSending = taken.peekFirst() == queuedEvent;
+            taken.removeFirstOccurrence(queuedEvent);
+            QueuedEvent next = taken.peekFirst();
+            if (next == null) {
+                sendingIncidents.remove(queuedEvent.incident);
+                return null;
+            }
+            // Not permitted yet, the sender thread which took it sends it once it got its permit
+            return wasSending && next.permitted ? next : null;
+        } finally {
+            sendingLock.unlock();
+        }
+    }
+
+    /**
+     * Fails the events taken from the queue by a sender thread interrupted before sending them.
+     */
+    private void abandon(List<QueuedEvent> unsent) {
+        for (QueuedEvent queuedEvent : unsent) {
+            queuedEvent.future.completeExceptionally(new NotifyEventException("Dispatcher was closed before the event was sent"));
+            if (queuedEvent.incident != null) {
+                QueuedEvent next = done(queuedEvent);
+                if (next != null) {
+                    sendInOrder(next);
+                }
+            }
+        }
+    }
+
+    private void complete(QueuedEvent queuedEvent, EventResult result, Throwable throwable) {
+        inFlight.release();
+        if (throwable != null) {
+            queuedEvent.future.completeExceptionally(throwable);
+        } else {
+            log.debug("Event result {} for {}", result, queuedEvent.event);
+            queuedEvent.future.complete(result);
+        }
+    }
+
+    /**
+     * Importance of the event, from 0 to {@code PRIORITIES - 1}: the higher the rank the sooner the event is sent, and
+     * when the queue overflows with the {@link OverflowPolicy#DROP_LOWEST_SEVERITY} policy the lower the rank the
+     * sooner it is dropped.
+     */
+    static int rank(PagerDutyEvent event) {
+        if (event instanceof ChangeEvent || event instanceof TemplatedEvent && ((TemplatedEvent) event).isChangeEvent()
+                || event instanceof SpooledEvent && ((SpooledEvent) event).isChangeEvent()) {
+            return 0;
+        }
+        Severity severity = null;
+        if (event instanceof TriggerIncident) {
+            severity = ((TriggerIncident) event).getPayload().getSeverity();
+        } else if (event instanceof TemplatedEvent) {
+            severity = ((TemplatedEvent) event).getSeverity();
+        } else if (event instanceof SpooledEvent) {
+            severity = ((SpooledEvent) event).getSeverity();
+        }
+        if (severity != null) {
+            switch (severity) {
+                case INFO:
+                    return 1;
+                case WARNING:
+                    return 2;
+                case ERROR:
+                    return 3;
+                case CRITICAL:
+                    return 4;
+            }
+        }
+        return 5;
+    }
+
+    private static class QueuedEvent {
+        private final PagerDutyEvent event;
+        private final int rank;
+        private final IncidentKey incident;
+        private final CompletableFuture<EventResult> future = new CompletableFuture<>();
+        // Whether the sender thread which took the event got a permit for it, guarded by the sending lock
+        private boolean permitted;
+
+        private QueuedEvent(PagerDutyEvent event) {
+            this.event = event;
+            this.rank = rank(event);
+            this.incident = IncidentKey.of(event);
+        }
+
+        /**
+         * @return action of the event, null for change events
+         */
+        private EventAction action() {
+            return IncidentKey.action(event);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stops calling PagerDuty while it (or the proxy in between) is failing, so callers fail fast instead of each one
+ * waiting for a timeout.
+ * <ul>
+ * <li>{@link State#CLOSED}: calls go through and their outcome is recorded. A call failed if it threw or PagerDuty
+ * replied with a server error, and it was slow if its attempts took longer than the slow call duration: the waits
+ * before the retries of the HTTP services are not counted, so a rate limited event eventually sent is not a slow
+ * call. Events the client rejected itself, e.g. oversized ones, are not recorded at all, PagerDuty not being at
+ * fault. Once the failure rate or the slow call rate reaches its threshold the circuit opens.</li>
+ * <li>{@link State#OPEN}: calls are rejected without reaching PagerDuty, either with a {@link NotifyEventException} or
+ * by handing the event over to the fallback service. After the configured wait the circuit becomes half open.</li>
+ * <li>{@link State#HALF_OPEN}: a limited number of trial calls go through while the rest are rejected. Once all of
+ * them completed the circuit closes again, or opens for another wait if the rates are still over the thresholds.</li>
+ * </ul>
+ */
+public class CircuitBreakerApiService implements ApiService {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerApiService.class);
+
+    private static final long REJECTED = -1;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final ApiService apiService;
+    private final ApiService fallback;
+    private final CircuitBreakerConfig config;
+    private final long slowCallNanos;
+    private final long waitInOpenStateNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    // Incremented on every transition, so outcomes of calls permitted in a previous state are ignored
+    private long generation;
+    private long openedAtNanos;
+    private int trialPermits;
+    // Outcomes of the last calls while closed, or of the trial calls while half open
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int nextSlot;
+    private int calls;
+    private int failures;
+    private int slows;
+
+    public CircuitBreakerApiService(ApiService apiService, CircuitBreakerConfig config) {
+        this(apiService, config, null);
+    }
+
+    /**
+     * @param apiService Service actually sending the events.
+     * @param config     Thresholds and timings of the circuit breaker.
+     * @param fallback   Service receiving the events while the circuit is open, null to fail fast instead.
+     */
+    public CircuitBreakerApiService(ApiService apiService, CircuitBreakerConfig config, ApiService fallback) {
+        Objects.requireNonNull(apiService, "apiService must not be null, it is a mandatory param");
+        Objects.requireNonNull(config, "config must not be null, it is a mandatory param");
+        this.apiService = apiService;
+        this.fallback = fallback;
+        this.config = config;
+        this.slowCallNanos = config.getSlowCallDuration().toNanos();
+        this.waitInOpenStateNanos = config.getWaitDurationInOpenState().toNanos();
+        this.failedCalls = new boolean[config.getSlidingWindowSize()];
+        this.slowCalls = new boolean[config.getSlidingWindowSize()];
+    }
+
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+        long callGeneration = tryAcquirePermission();
+        if (callGeneration == REJECTED) {
+            if (fallback != null) {
+                return fallback.notifyEvent(event);
+            }
+            throw callNotPermitted();
+        }
+
+        long startNanos = System.nanoTime();
+        AtomicLong backoffNanos = new AtomicLong();
+        boolean failed = true;
+        boolean rejected = false;
+        try {
+            EventResult eventResult = apiService instanceof RetryingApiService
+                    ? ((RetryingApiService) apiService).notifyEvent(event, backoffNanos) : apiService.notifyEvent(event);
+            failed = EventResults.isServerError(eventResult);
+            return eventResult;
+        } catch (NotifyEventException e) {
+            rejected = EventResults.isRejected(e);
+            throw e;
+        } finally {
+            if (rejected) {
+                onCallRejected(callGeneration);
+            } else {
+                onCallCompleted(callGeneration, System.nanoTime() - startNanos - backoffNanos.get(), failed);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+        long callGeneration = tryAcquirePermission();
+        if (callGeneration == REJECTED) {
+            if (fallback != null) {
+                return fallback.notifyEventAsync(event);
+            }
+            CompletableFuture<EventResult> eventResult = new CompletableFuture<>();
+            eventResult.completeExceptionally(callNotPermitted());
+            return eventResult;
+        }
+
+        long startNanos = System.nanoTime();
+        AtomicLong backoffNanos = new AtomicLong();
+        CompletableFuture<EventResult> eventResult;
+        try {
+            eventResult = apiService instanceof RetryingApiService
+                    ? ((RetryingApiService) apiService).notifyEventAsync(event, backoffNanos) : apiService.notifyEventAsync(event);
+        } catch (RuntimeException e) {
+            onCallCompleted(callGeneration, System.nanoTime() - startNanos, true);
+            throw e;
+        }
+        return eventResult.whenComplete((result, throwable) -> {
+            if (EventResults.isRejected(throwable)) {
+                onCallRejected(callGeneration);
+            } else {
+                onCallCompleted(callGeneration, System.nanoTime() - startNanos - backoffNanos.get(),
+                        throwable != null || EventResults.isServerError(result));
+            }
+        });
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long tryAcquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAtNanos < waitInOpenStateNanos) {
+                    return REJECTED;
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialPermits == 0) {
+                    return REJECTED;
+                }
+                trialPermits--;
+            }
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param durationNanos time spent sending the event, the waits before its retries excluded
+     */
+    private void onCallCompleted(long callGeneration, long durationNanos, boolean failed) {
+        boolean slow = durationNanos > slowCallNanos;
+        lock.lock();
+        try {
+            if (callGeneration != generation) {
+                return;
+            }
+            record(failed, slow);
+            if (state == State.HALF_OPEN) {
+                if (calls == config.getPermittedCallsInHalfOpenState()) {
+                    transitionTo(isOverThresholds() ? State.OPEN : State.CLOSED);
+                }
+            } else if (calls >= config.getMinimumNumberOfCalls() && isOverThresholds()) {
+                transitionTo(State.OPEN);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The client gave up on the event without PagerDuty being at fault, e.g. it was oversized, so the call is not
+     * recorded. A trial call gives its permit back.
+     */
+    private void onCallRejected(long callGeneration) {
+        lock.lock();
+        try {
+            if (callGeneration == generation && state == State.HALF_OPEN) {
+                trialPermits++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if (state == State.CLOSED) {
+            if (calls == failedCalls.length) {
+                // The window is full, the oldest outcome makes room for the new one
+                failures -= failedCalls[nextSlot] ? 1 : 0;
+                slows -= slowCalls[nextSlot] ? 1 : 0;
+            } else {
+                calls++;
+            }
+            failedCalls[nextSlot] = failed;
+            slowCalls[nextSlot] = slow;
+            nextSlot = (nextSlot + 1) % failedCalls.length;
+        } else {
+            calls++;
+        }
+        failures += failed ? 1 : 0;
+        slows += slow ? 1 : 0;
+    }
+
+    private boolean isOverThresholds() {
+        return failures * 100 >= config.getFailureRateThreshold() * calls
+                || slows * 100 >= config.getSlowCallRateThreshold() * calls;
+    }
+
+    private void transitionTo(State newState) {
+        log.info("Circuit breaker transitioning from {} to {} ({}/{} failed, {}/{} slow calls)",
+                state, newState, failures, calls, slows, calls);
+        state = newState;
+        generation++;
+        calls = 0;
+        failures = 0;
+        slows = 0;
+        nextSlot = 0;
+        Arrays.fill(failedCalls, false);
+        Arrays.fill(slowCalls, false);
+        if (newState == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+        } else if (newState == State.HALF_OPEN) {
+            trialPermits = config.getPermittedCallsInHalfOpenState();
+        }
+    }
+
+    private static NotifyEventException callNotPermitted() {
+        return new NotifyEventException("Circuit breaker is open, the event was not sent to PagerDuty");
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            apiService.close();
+        } finally {
+            if (fallback != null) {
+                fallback.close();
+            }
+        }
+    }
+}
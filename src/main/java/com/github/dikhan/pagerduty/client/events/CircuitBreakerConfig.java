@@ -0,0 +1,227 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Thresholds and timings of the {@link CircuitBreakerApiService}. The outcome of the last {@code slidingWindowSize}
+ * calls is tracked, and the circuit opens once at least {@code minimumNumberOfCalls} have been made and either the
+ * rate of failed calls or the rate of slow calls reaches its threshold.
+ */
+public class CircuitBreakerConfig {
+
+    private static final int DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+    private static final int DEFAULT_SLOW_CALL_RATE_THRESHOLD = 80;
+    private static final Duration DEFAULT_SLOW_CALL_DURATION = Duration.ofSeconds(10);
+    private static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+    private static final int DEFAULT_MINIMUM_NUMBER_OF_CALLS = 10;
+    private static final Duration DEFAULT_WAIT_DURATION_IN_OPEN_STATE = Duration.ofSeconds(30);
+    private static final int DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE = 3;
+
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final Duration slowCallDuration;
+    private final int slidingWindowSize;
+    private final int minimumNumberOfCalls;
+    private final Duration waitDurationInOpenState;
+    private final int permittedCallsInHalfOpenState;
+
+    private CircuitBreakerConfig(Builder builder) {
+        this.failureRateThreshold = builder.getFailureRateThreshold();
+        this.slowCallRateThreshold = builder.getSlowCallRateThreshold();
+        this.slowCallDuration = builder.getSlowCallDuration();
+        this.slidingWindowSize = builder.getSlidingWindowSize();
+        this.minimumNumberOfCalls = builder.getMinimumNumberOfCalls();
+        this.waitDurationInOpenState = builder.getWaitDurationInOpenState();
+        this.permittedCallsInHalfOpenState = builder.getPermittedCallsInHalfOpenState();
+    }
+
+    public static CircuitBreakerConfig defaultConfig() {
+        return Builder.newBuilder().build();
+    }
+
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public int getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public Duration getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public Duration getWaitDurationInOpenState() {
+        return waitDurationInOpenState;
+    }
+
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+
+    public static class Builder {
+        private int failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+        private int slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+        private Duration slowCallDuration = DEFAULT_SLOW_CALL_DURATION;
+        private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
+        private int minimumNumberOfCalls = DEFAULT_MINIMUM_NUMBER_OF_CALLS;
+        private Duration waitDurationInOpenState = DEFAULT_WAIT_DURATION_IN_OPEN_STATE;
+        private int permittedCallsInHalfOpenState = DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        /**
+         * @param failureRateThreshold Percentage of failed calls from which the circuit opens.
+         * @return CircuitBreakerConfig Builder to be able to keep populating the instance
+         */
+        public Builder setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallRateThreshold Percentage of slow calls from which the circuit opens.
+         * @return CircuitBreakerConfig Builder to be able to keep populating the instance
+         */
+        public Builder setSlowCallRateThreshold(int slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallDuration Calls taking longer than this, retries included, are considered slow.
+         * @return CircuitBreakerConfig Builder to be able to keep populating the instance
+         */
+        public Builder setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+            return this;
+        }
+
+        /**
+         * @param slidingWindowSize Number of most recent calls the rates are computed on.
+         * @return CircuitBreakerConfig Builder to be able to keep populating the instance
+         */
+        public Builder setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+            return this;
+        }
+
+        /**
+         * @param minimumNumberOfCalls Number of calls to be made before the rates are taken into account.
+         * @return CircuitBreakerConfig Builder to be able to keep populating the instance
+         */
+        public Builder setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+            return this;
+        }
+
+        /**
+         * @param waitDurationInOpenState How long the circuit stays open before letting trial calls through.
+         * @return CircuitBreakerConfig Builder to be able to keep populating the instance
+         */
+        public Builder setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+            return this;
+        }
+
+        /**
+         * @param permittedCallsInHalfOpenState Number of trial calls deciding whether the circuit closes again.
+         * @return CircuitBreakerConfig Builder to be able to keep populating the instance
+         */
+        public Builder setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+            return this;
+        }
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public int getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public int getPermittedCallsInHalfOpenState() {
+            return permittedCallsInHalfOpenState;
+        }
+
+        /**
+         * Make sure the thresholds and timings are valid, then create the configuration.
+         */
+        public CircuitBreakerConfig build() {
+            if (failureRateThreshold <= 0 || failureRateThreshold > 100) {
+                throw new IllegalArgumentException("failureRateThreshold must be between 1 and 100.");
+            }
+            if (slowCallRateThreshold <= 0 || slowCallRateThreshold > 100) {
+                throw new IllegalArgumentException("slowCallRateThreshold must be between 1 and 100.");
+            }
+            if (slidingWindowSize <= 0) {
+                throw new IllegalArgumentException("slidingWindowSize must be greater than zero.");
+            }
+            if (minimumNumberOfCalls <= 0 || minimumNumberOfCalls > slidingWindowSize) {
+                throw new IllegalArgumentException("minimumNumberOfCalls must be between 1 and the slidingWindowSize.");
+            }
+            if (permittedCallsInHalfOpenState <= 0) {
+                throw new IllegalArgumentException("permittedCallsInHalfOpenState must be greater than zero.");
+            }
+            Objects.requireNonNull(slowCallDuration, "slowCallDuration cannot be null.");
+            Objects.requireNonNull(waitDurationInOpenState, "waitDurationInOpenState cannot be null.");
+
+            return new CircuitBreakerConfig(this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        CircuitBreakerConfig that = (CircuitBreakerConfig) o;
+
+        return failureRateThreshold == that.failureRateThreshold && slowCallRateThreshold == that.slowCallRateThreshold
+                && slidingWindowSize == that.slidingWindowSize && minimumNumberOfCalls == that.minimumNumberOfCalls
+                && permittedCallsInHalfOpenState == that.permittedCallsInHalfOpenState
+                && Objects.equals(slowCallDuration, that.slowCallDuration)
+                && Objects.equals(waitDurationInOpenState, that.waitDurationInOpenState);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(failureRateThreshold, slowCallRateThreshold, slowCallDuration, slidingWindowSize,
+                minimumNumberOfCalls, waitDurationInOpenState, permittedCallsInHalfOpenState);
+    }
+}
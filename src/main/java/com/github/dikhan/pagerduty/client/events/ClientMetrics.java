@@ -0,0 +1,66 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.time.Duration;
+
+/**
+ * Hook into the send path of the client, to bridge its latencies and outcomes to a metrics system. Every method has
+ * an empty default so implementations only override what they record, and the {@link #noop()} instance is used when
+ * no metrics are configured.
+ * <p>
+ * Methods are called on the threads sending the events, including the HTTP client I/O threads, so implementations
+ * must be thread safe and must not block.
+ */
+public interface ClientMetrics {
+
+    /**
+     * A request got a response from PagerDuty, whatever its status code.
+     *
+     * @param endpoint     URL the event was posted to
+     * @param statusCode   HTTP status code of the response
+     * @param latencyNanos time from sending the request until the response was read, in nanoseconds
+     * @param bytesSent    size of the request body
+     */
+    default void requestCompleted(String endpoint, int statusCode, long latencyNanos, long bytesSent) {
+    }
+
+    /**
+     * A request did not get a response, e.g. the connection was refused or timed out.
+     *
+     * @param endpoint     URL the event was posted to
+     * @param error        reason of the failure
+     * @param latencyNanos time from sending the request until it failed, in nanoseconds
+     */
+    default void requestFailed(String endpoint, Throwable error, long latencyNanos) {
+    }
+
+    /**
+     * A failed attempt is going to be retried.
+     *
+     * @param endpoint   URL the event is posted to
+     * @param retryCount number of the retry being scheduled, starting at 1
+     * @param delay      wait before the retry
+     */
+    default void retryScheduled(String endpoint, int retryCount, Duration delay) {
+    }
+
+    /**
+     * @param queueDepth number of events waiting in the {@link AsyncEventDispatcher} queue after an event was queued
+     */
+    default void queueDepth(int queueDepth) {
+    }
+
+    /**
+     * @return metrics recording nothing
+     */
+    static ClientMetrics noop() {
+        return NoopClientMetrics.INSTANCE;
+    }
+
+    final class NoopClientMetrics implements ClientMetrics {
+
+        private static final NoopClientMetrics INSTANCE = new NoopClientMetrics();
+
+        private NoopClientMetrics() {
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.dikhan.pagerduty.client.events;
+
+/**
+ * Which events of an incident still waiting in the {@link AsyncEventDispatcher} queue are superseded by a new event of
+ * the same incident, identified by its routing key and dedup key, and therefore not sent. A superseded event completes
+ * with the result of the event superseding it.
+ * <p>
+ * Only events waiting in the queue are coalesced, events already being sent are never taken back.
+ */
+public enum CoalescingPolicy {
+
+    /**
+     * Every event is sent.
+     */
+    NONE,
+
+    /**
+     * A trigger supersedes the trigger queued right before it for the same incident, so re-triggers piling up during
+     * an outage are sent as a single trigger carrying the latest payload.
+     */
+    COLLAPSE_TRIGGERS,
+
+    /**
+     * As {@link #COLLAPSE_TRIGGERS}, and a resolve also supersedes all the events of its incident queued before it:
+     * an incident triggered and resolved while PagerDuty was unreachable is only resolved, it never pages anyone.
+     * Resolving an incident PagerDuty does not know about has no effect, so an incident triggered earlier is still
+     * resolved.
+     */
+    COLLAPSE_RESOLVED
+}
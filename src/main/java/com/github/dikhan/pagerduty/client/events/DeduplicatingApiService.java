@@ -0,0 +1,174 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventAction;
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Suppresses incident events repeating the last action sent for the same incident, identified by its routing key and
+ * dedup key, within a time window. Monitors re-firing the same trigger on every evaluation then only cost one request
+ * per window, while PagerDuty would have deduplicated the others anyway.
+ * <p>
+ * A suppressed event gets the result of the event it repeats. An event with a different action, e.g. a resolve after
+ * a trigger, or a trigger with a different severity, e.g. a warning escalating to critical, always goes through and
+ * starts a new window, so suppression never changes the state of the incident.
+ * Events that could not be delivered are forgotten straight away so the next repetition is sent. Events without a
+ * dedup key and change events are never suppressed. The number of incidents remembered is bounded, the least recently
+ * sent being forgotten first.
+ */
+public class DeduplicatingApiService implements ApiService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeduplicatingApiService.class);
+
+    private final ApiService apiService;
+    private final long windowNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<IncidentKey, SentEvent> sentEvents;
+
+    /**
+     * @param apiService Service actually sending the events.
+     * @param window     How long repetitions of an event are suppressed for.
+     * @param maxEntries Maximum number of incidents remembered.
+     */
+    public DeduplicatingApiService(ApiService apiService, Duration window, int maxEntries) {
+        Objects.requireNonNull(apiService, "apiService must not be null, it is a mandatory param");
+        Objects.requireNonNull(window, "window must not be null, it is a mandatory param");
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than zero.");
+        }
+        this.apiService = apiService;
+        this.windowNanos = window.toNanos();
+        this.sentEvents = new LinkedHashMap<IncidentKey, SentEvent>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IncidentKey, SentEvent> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+        IncidentKey key = IncidentKey.of(event);
+        if (key == null) {
+            return apiService.notifyEvent(event);
+        }
+        SentEvent sentEvent = new SentEvent(IncidentKey.action(event), IncidentKey.severity(event));
+        SentEvent repeated = register(key, sentEvent);
+        if (repeated != null) {
+            return await(repeated.result);
+        }
+
+        try {
+            EventResult eventResult = apiService.notifyEvent(event);
+            onCompleted(key, sentEvent, eventResult, null);
+            return eventResult;
+        } catch (NotifyEventException | RuntimeException e) {
+            onCompleted(key, sentEvent, null, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+        IncidentKey key = IncidentKey.of(event);
+        if (key == null) {
+            return apiService.notifyEventAsync(event);
+        }
+        SentEvent sentEvent = new SentEvent(IncidentKey.action(event), IncidentKey.severity(event));
+        SentEvent repeated = register(key, sentEvent);
+        if (repeated != null) {
+            // A copy, so callers of the suppressed events cannot interfere with each other
+            return repeated.result.thenApply(eventResult -> eventResult);
+        }
+
+        CompletableFuture<EventResult> eventResult;
+        try {
+            eventResult = apiService.notifyEventAsync(event);
+        } catch (RuntimeException e) {
+            onCompleted(key, sentEvent, null, e);
+            throw e;
+        }
+        return eventResult.whenComplete((result, throwable) -> onCompleted(key, sentEvent, result, throwable));
+    }
+
+    /**
+     * @return the event repeated by the new one if it has to be suppressed, else null once the new event has been
+     * registered as the last one sent for the incident
+     */
+    private SentEvent register(IncidentKey key, SentEvent sentEvent) {
+        lock.lock();
+        try {
+            SentEvent lastSent = sentEvents.get(key);
+            if (lastSent != null && lastSent.action == sentEvent.action && lastSent.severity == sentEvent.severity
+                    && sentEvent.sentAtNanos - lastSent.sentAtNanos < windowNanos) {
+                log.debug("Suppressing {} event repeated for dedup key {}", sentEvent.action, key.getDedupKey());
+                return lastSent;
+            }
+            // Removed first, so the incident moves to the end of the eviction order
+            sentEvents.remove(key);
+            sentEvents.put(key, sentEvent);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onCompleted(IncidentKey key, SentEvent sentEvent, EventResult eventResult, Throwable throwable) {
+        if (throwable != null || !EventResults.isFinal(eventResult)) {
+            lock.lock();
+            try {
+                sentEvents.remove(key, sentEvent);
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (throwable != null) {
+            sentEvent.result.completeExceptionally(throwable);
+        } else {
+            sentEvent.result.complete(eventResult);
+        }
+    }
+
+    private static EventResult await(CompletableFuture<EventResult> eventResult) throws NotifyEventException {
+        try {
+            return eventResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NotifyEventException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof NotifyEventException ? (NotifyEventException) cause : new NotifyEventException(cause);
+        }
+    }
+
+    private static final class SentEvent {
+        private final EventAction action;
+        // Of triggers, null for other events
+        private final Severity severity;
+        private final long sentAtNanos = System.nanoTime();
+        private final CompletableFuture<EventResult> result = new CompletableFuture<>();
+
+        private SentEvent(EventAction action, Severity severity) {
+            this.action = action;
+            this.severity = severity;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        apiService.close();
+    }
+}
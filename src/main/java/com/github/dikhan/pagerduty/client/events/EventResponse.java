@@ -0,0 +1,106 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * The few fields of a PagerDuty response body the client cares about. The body is read with a streaming parser that
+ * only keeps the top level status, message, dedup_key and errors fields and skips everything else, no tree of the
+ * whole document is built.
+ */
+final class EventResponse {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private String status;
+    private String message;
+    private String dedupKey;
+    private String errors;
+
+    private EventResponse() {
+    }
+
+    /**
+     * @param body raw response body, empty bodies have no fields
+     * @return the known fields found in the body
+     * @throws UncheckedIOException if the body is not valid JSON
+     */
+    static EventResponse parse(byte[] body) {
+        EventResponse response = new EventResponse();
+        if (body.length == 0) {
+            return response;
+        }
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return response;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "status":
+                        response.status = scalar(parser, value);
+                        break;
+                    case "message":
+                        response.message = scalar(parser, value);
+                        break;
+                    case "dedup_key":
+                        response.dedupKey = scalar(parser, value);
+                        break;
+                    case "errors":
+                        response.errors = structure(parser, value);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to parse PagerDuty response", e);
+        }
+        return response;
+    }
+
+    private static String scalar(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return value == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    /**
+     * Copies the value as compact JSON, the way the errors were reported before.
+     */
+    private static String structure(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return writer.toString();
+    }
+
+    String getStatus() {
+        return status;
+    }
+
+    String getMessage() {
+        return message;
+    }
+
+    String getDedupKey() {
+        return dedupKey;
+    }
+
+    String getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.exceptions.EventRejectedException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Classification of the event results built by {@link HttpApiServiceImpl}, whose status is the HTTP status code for
+ * responses other than success and bad request ones, and of the failures of the services.
+ */
+final class EventResults {
+
+    private static final int RATE_LIMIT_STATUS_CODE = 429;
+
+    private EventResults() {
+    }
+
+    /**
+     * @return true if PagerDuty failed to process the event on its side
+     */
+    static boolean isServerError(EventResult eventResult) {
+        int statusCode = statusCode(eventResult);
+        return statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * @return true if PagerDuty gave a final answer about the event, i.e. sending it again would not make a difference
+     */
+    static boolean isFinal(EventResult eventResult) {
+        if (eventResult == null || eventResult.isPending()) {
+            return false;
+        }
+        int statusCode = statusCode(eventResult);
+        return statusCode != RATE_LIMIT_STATUS_CODE && statusCode < HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * @return true if PagerDuty accepted the event
+     */
+    static boolean isAccepted(EventResult eventResult) {
+        return eventResult != null && !eventResult.isPending() && eventResult.getErrors() == null && statusCode(eventResult) < HttpStatus.SC_BAD_REQUEST;
+    }
+
+    /**
+     * @return true if the client gave up on the event for good, see {@link EventRejectedException}
+     */
+    static boolean isRejected(Throwable throwable) {
+        Throwable error = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return error instanceof EventRejectedException;
+    }
+
+    private static int statusCode(EventResult eventResult) {
+        String status = eventResult != null ? eventResult.getStatus() : null;
+        return StringUtils.isNumeric(status) ? Integer.parseInt(status) : 0;
+    }
+}
@@ -0,0 +1,310 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEventPayload;
+import com.github.dikhan.pagerduty.client.events.domain.ImageContext;
+import com.github.dikhan.pagerduty.client.events.domain.LinkContext;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the events sent within the maximum event size of the {@link HttpClientConfig}, applying its
+ * {@link OversizedEventPolicy} to the events over it. The size of an event is the length of the JSON written for its
+ * request, so events within the limit cost a comparison. Oversized events are measured by writing their JSON into a
+ * counting stream, without buffering it, and written once more when shrunk.
+ */
+final class EventSizeLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSizeLimiter.class);
+
+    // Member of the shrunk custom details telling how many members were left out
+    static final String OMITTED_DETAILS = "omitted_details";
+    private static final String ELLIPSIS = "...";
+    // String members of the custom details are left out rather than shortened below this size
+    private static final int MIN_SHORTENED_SIZE = 64;
+    // Attempts at shrinking the custom details, the size of the shortened strings being estimated
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JacksonObjectMapper objectMapper;
+    private final int maxEventSize;
+    private final OversizedEventPolicy oversizedEventPolicy;
+
+    EventSizeLimiter(HttpClientConfig httpClientConfig, JacksonObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.maxEventSize = httpClientConfig.getMaxEventSize();
+        this.oversizedEventPolicy = httpClientConfig.getOversizedEventPolicy();
+    }
+
+    /**
+     * @param encodedSize length of the JSON of the event
+     * @return whether the event has to go through {@link #fit(PagerDutyEvent, long)} before being sent
+     */
+    boolean exceeds(long encodedSize) {
+        return encodedSize > maxEventSize && oversizedEventPolicy != OversizedEventPolicy.SEND;
+    }
+
+    /**
+     * @param event       over the maximum event size
+     * @param encodedSize length of the JSON of the event
+     * @return the event shrunk to fit the maximum event size
+     * @throws IllegalArgumentException if the event is rejected, or cannot be shrunk enough
+     */
+    PagerDutyEvent fit(PagerDutyEvent event, long encodedSize) {
+        PagerDutyEvent fitted = oversizedEventPolicy == OversizedEventPolicy.TRUNCATE ? truncate(event, encodedSize) : null;
+        if (fitted == null) {
+            throw new IllegalArgumentException("Event of " + encodedSize + " bytes exceeds the maximum event size of "
+                    + maxEventSize + " bytes");
+        }
+        log.warn("Event of {} bytes truncated to fit the maximum event size of {} bytes", encodedSize, maxEventSize);
+        return fitted;
+    }
+
+    private PagerDutyEvent truncate(PagerDutyEvent event, long encodedSize) {
+        if (event instanceof SpooledEvent && ((SpooledEvent) event).getOriginal() != null) {
+            // Its JSON cannot be shrunk, the event it was serialized from can
+            event = ((SpooledEvent) event).getOriginal();
+        }
+        Draft draft;
+        try {
+            if (event instanceof TriggerIncident && ((TriggerIncident) event).getPayload() != null) {
+                TriggerIncident trigger = (TriggerIncident) event;
+                draft = new TriggerDraft(trigger, toJSONObject(trigger.getPayload().getCustomDetails()));
+            } else if (event instanceof ChangeEvent && ((ChangeEvent) event).getPayload() != null) {
+                ChangeEvent changeEvent = (ChangeEvent) event;
+                draft = new ChangeDraft(changeEvent, toJSONObject(changeEvent.getPayload().getCustomDetails()));
+            } else {
+                return null;
+            }
+        } catch (JSONException e) {
+            log.debug("Custom details of the oversized event are not a JSON object", e);
+            return null;
+        }
+
+        // Custom details first, as they usually make up most of an oversized event
+        long size = encodedSize;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && size > maxEventSize && draft.customDetails != null; attempt++) {
+            draft.customDetails = shrink(draft.customDetails, encodedSize(draft.customDetails) - (size - maxEventSize));
+            size = encodedSize(draft.build());
+        }
+        if (size > maxEventSize && draft.images != null) {
+            draft.images = dropLast(draft.images, size - maxEventSize);
+            size = encodedSize(draft.build());
+        }
+        if (size > maxEventSize && draft.links != null) {
+            draft.links = dropLast(draft.links, size - maxEventSize);
+            size = encodedSize(draft.build());
+        }
+        if (size > maxEventSize) {
+            draft.summary = shorten(draft.summary, encodedSize(draft.summary) - (size - maxEventSize));
+            if (draft.summary == null) {
+                return null;
+            }
+            size = encodedSize(draft.build());
+        }
+        return size <= maxEventSize ? draft.build() : null;
+    }
+
+    /**
+     * @return the custom details as a JSON object which can be shrunk, whichever way they were given
+     */
+    @SuppressWarnings("unchecked")
+    private JSONObject toJSONObject(Object customDetails) {
+        if (customDetails == null || customDetails instanceof JSONObject) {
+            return (JSONObject) customDetails;
+        }
+        if (customDetails instanceof Map) {
+            return new JSONObject((Map<String, ?>) customDetails);
+        }
+        return new JSONObject(objectMapper.writeValue(customDetails));
+    }
+
+    /**
+     * @param budget size the custom details should fit in
+     * @return the members of the custom details fitting the budget, smallest first so as many as possible are kept,
+     * the first string not fitting shortened, and the number of the members left out
+     */
+    private JSONObject shrink(JSONObject customDetails, long budget) {
+        List<String> keys = new ArrayList<>(customDetails.keySet());
+        Map<String, Long> memberSizes = new HashMap<>();
+        for (String key : keys) {
+            memberSizes.put(key, memberSize(key, customDetails.opt(key)));
+        }
+        keys.sort(Comparator.comparing(memberSizes::get));
+
+        JSONObject shrunk = new JSONObject();
+        long remaining = budget - 2 - memberSize(OMITTED_DETAILS, Integer.MAX_VALUE);
+        int omitted = 0;
+        for (String key : keys) {
+            Object value = customDetails.opt(key);
+            if (OMITTED_DETAILS.equals(key) && value instanceof Integer) {
+                // Left by a previous attempt
+                omitted += (Integer) value;
+                continue;
+            }
+            long memberSize = memberSizes.get(key);
+            if (memberSize > remaining && value instanceof String && remaining >= MIN_SHORTENED_SIZE) {
+                value = shorten((String) value, remaining - (memberSize - encodedSize(value)));
+                memberSize = value != null ? memberSize(key, value) : Long.MAX_VALUE;
+            }
+            if (memberSize <= remaining) {
+                shrunk.put(key, value);
+                remaining -= memberSize;
+            } else {
+                omitted++;
+            }
+        }
+        if (omitted > 0) {
+            shrunk.put(OMITTED_DETAILS, omitted);
+        }
+        return shrunk;
+    }
+
+    /**
+     * @param excess size the elements left out should add up to
+     * @return the first elements, leaving out the last ones
+     */
+    private <T> List<T> dropLast(List<T> elements, long excess) {
+        List<T> kept = new ArrayList<>(elements);
+        while (excess > 0 && !kept.isEmpty()) {
+            excess -= encodedSize(kept.remove(kept.size() - 1)) + 1;
+        }
+        return kept;
+    }
+
+    /**
+     * @param targetSize size the JSON string, quotes included, should fit in
+     * @return the beginning of the string followed by an ellipsis, or null if not even its first character fits
+     */
+    private String shorten(String value, long targetSize) {
+        long size = encodedSize(value);
+        if (size <= targetSize) {
+            return value;
+        }
+        // Escaped and multibyte characters make the size of a prefix an estimate, checked before being returned
+        int length = (int) Math.min(value.length(), value.length() * (targetSize - 2 - ELLIPSIS.length()) / Math.max(1, size - 2));
+        while (length > 0) {
+            if (Character.isHighSurrogate(value.charAt(length - 1))) {
+                length--;
+                continue;
+            }
+            String shortened = value.substring(0, length) + ELLIPSIS;
+            if (encodedSize(shortened) <= targetSize) {
+                return shortened;
+            }
+            length = length * 9 / 10;
+        }
+        return null;
+    }
+
+    /**
+     * @return size of the member within a JSON object, the comma separating it from the next one included
+     */
+    private long memberSize(String key, Object value) {
+        return encodedSize(new JSONObject().put(key, value)) - 2 + 1;
+    }
+
+    /**
+     * @return length of the JSON of the value, as written for a request
+     */
+    long encodedSize(Object value) {
+        CountingOutputStream counter = new CountingOutputStream();
+        objectMapper.writeValue(value, counter);
+        return counter.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            count += length;
+        }
+    }
+
+    /**
+     * Parts of an event which can be shrunk, and the way to build the shrunk event.
+     */
+    private abstract static class Draft {
+        String summary;
+        JSONObject customDetails;
+        List<ImageContext> images;
+        List<LinkContext> links;
+
+        abstract PagerDutyEvent build();
+    }
+
+    private static final class TriggerDraft extends Draft {
+        private final TriggerIncident trigger;
+
+        private TriggerDraft(TriggerIncident trigger, JSONObject customDetails) {
+            this.trigger = trigger;
+            this.summary = trigger.getPayload().getSummary();
+            this.customDetails = customDetails;
+            this.images = trigger.getImages();
+            this.links = trigger.getLinks();
+        }
+
+        @Override
+        TriggerIncident build() {
+            Payload payload = trigger.getPayload();
+            return TriggerIncident.TriggerIncidentBuilder.newBuilder(trigger.getRoutingKey(), Payload.Builder.newBuilder()
+                            .setSummary(summary)
+                            .setSource(payload.getSource())
+                            .setSeverity(payload.getSeverity())
+                            .setTimestamp(payload.getTimestamp() != null ? OffsetDateTime.parse(payload.getTimestamp()) : null)
+                            .setComponent(payload.getComponent())
+                            .setGroup(payload.getGroup())
+                            .setEventClass(payload.getEventClass())
+                            .setCustomDetails(customDetails)
+                            .build())
+                    .setDedupKey(trigger.getDedupKey())
+                    .setClient(trigger.getClient())
+                    .setClientUrl(trigger.getClientUrl())
+                    .setImages(images)
+                    .setLinks(links)
+                    .build();
+        }
+    }
+
+    private static final class ChangeDraft extends Draft {
+        private final ChangeEvent changeEvent;
+
+        private ChangeDraft(ChangeEvent changeEvent, JSONObject customDetails) {
+            this.changeEvent = changeEvent;
+            this.summary = changeEvent.getPayload().getSummary();
+            this.customDetails = customDetails;
+            this.links = changeEvent.getLinks();
+        }
+
+        @Override
+        ChangeEvent build() {
+            ChangeEventPayload payload = changeEvent.getPayload();
+            return ChangeEvent.ChangeEventBuilder.newBuilder(changeEvent.getRoutingKey(), ChangeEventPayload.Builder.newBuilder()
+                            .setSummary(summary)
+                            .setSource(payload.getSource())
+                            .setTimestamp(payload.getTimestamp() != null ? OffsetDateTime.parse(payload.getTimestamp()) : null)
+                            .setCustomDetails(customDetails)
+                            .build())
+                    .setLinks(links)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Incident;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of the events handed over to PagerDuty, so they survive the process dying before they
+ * were accepted. The log is made of fixed size segment files, memory-mapped so appending a record is a plain memory
+ * copy. Only the position of the pending events is kept on the heap, their content is read back from the segments.
+ * <p>
+ * Every record starts with the length and the CRC32 of its body. The length is written last, so a record torn by a
+ * crash reads as the end of the segment, and a record whose checksum does not match is discarded along with anything
+ * written after it. Spooling an event appends an event record, acknowledging its delivery appends an ack record.
+ * <p>
+ * Segments are deleted oldest first, once none of their events is pending. This way an ack record is never deleted
+ * before the event it acknowledges. A segment held back by a few pending events is compacted by copying those events
+ * to the segment being written, so a single event that can never be delivered does not hold the whole log.
+ */
+public class EventSpool implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSpool.class);
+
+    private static final String SEGMENT_SUFFIX = ".spool";
+    // Length and CRC32 of the record body
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte EVENT_RECORD = 1;
+    private static final byte ACK_RECORD = 2;
+    private static final byte INCIDENT = 0;
+    private static final byte CHANGE_EVENT = 1;
+    // Segments with no more pending events than this fraction of their events are compacted
+    private static final int COMPACTION_LIVE_RATIO = 4;
+
+    private static final JacksonObjectMapper objectMapper = new JacksonObjectMapper();
+
+    private final SpoolConfig config;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Oldest segment first
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final TreeMap<Long, Location> pendingEvents = new TreeMap<>();
+    // Pending events currently being sent, which must not be redelivered in the meantime
+    private final Set<Long> claimedEvents = new HashSet<>();
+    private Segment activeSegment;
+    private long lastSequence;
+    private boolean closed;
+
+    /**
+     * Opens the spool in the configured directory, recovering the events still pending from a previous run.
+     *
+     * @param config location and sizes of the spool
+     * @throws IOException if the segment files cannot be created or read
+     */
+    public EventSpool(SpoolConfig config) throws IOException {
+        this.config = Objects.requireNonNull(config, "config must not be null, it is a mandatory param");
+        Files.createDirectories(config.getDirectory());
+        recover();
+    }
+
+    /**
+     * Persists the event before it is sent. The event is claimed by the caller, so it is not redelivered until it is
+     * either acknowledged or released.
+     *
+     * @param event to be sent to PagerDuty
+     * @return sequence identifying the event in the spool
+     * @throws IOException if the event cannot be written, e.g. because the spool is full
+     */
+    public long append(PagerDutyEvent event) throws IOException {
+        return spool(event).getSequence();
+    }
+
+    /**
+     * Persists the event as {@link #append(PagerDutyEvent)} does.
+     *
+     * @param event to be sent to PagerDuty
+     * @return the event as spooled, to be sent in place of the given one so its JSON is not serialized again
+     * @throws IOException if the event cannot be written, e.g. because the spool is full
+     */
+    SpooledEvent spool(PagerDutyEvent event) throws IOException {
+        byte kind = isChangeEvent(event) ? CHANGE_EVENT : INCIDENT;
+        String routingKeyValue = routingKey(event);
+        byte[] routingKey = routingKeyValue.getBytes(StandardCharsets.UTF_8);
+        byte[] json = objectMapper.writeValueAsBytes(event);
+        if (routingKey.length > Short.MAX_VALUE) {
+            throw new IOException("Routing key is too long to be spooled");
+        }
+        int bodySize = 1 + 8 + 1 + 2 + routingKey.length + json.length;
+
+        long sequence;
+        lock.lock();
+        try {
+            ensureOpen();
+            sequence = lastSequence + 1;
+            Segment segment = segmentWithRoomFor(RECORD_HEADER_SIZE + bodySize);
+            int offset = segment.writePosition;
+            ByteBuffer body = segment.bodyAt(offset, bodySize);
+            body.put(EVENT_RECORD).putLong(sequence).put(kind).putShort((short) routingKey.length).put(routingKey).put(json);
+            commit(segment, offset, bodySize);
+
+            lastSequence = sequence;
+            pendingEvents.put(sequence, new Location(segment, offset));
+            segment.liveEvents++;
+            segment.totalEvents++;
+            claimedEvents.add(sequence);
+        } finally {
+            lock.unlock();
+        }
+        return new SpooledEvent(sequence, routingKeyValue, kind == CHANGE_EVENT, new String(json, StandardCharsets.UTF_8), event);
+    }
+
+    /**
+     * Records that the event has been delivered, it will not be sent again.
+     *
+     * @param sequence of the delivered event
+     * @throws IOException if the ack cannot be written
+     */
+    public void acknowledge(long sequence) throws IOException {
+        int bodySize = 1 + 8;
+        lock.lock();
+        try {
+            ensureOpen();
+            claimedEvents.remove(sequence);
+            Location location = pendingEvents.remove(sequence);
+            if (location == null) {
+                return;
+            }
+            location.segment.liveEvents--;
+
+            Segment segment = segmentWithRoomFor(RECORD_HEADER_SIZE + bodySize);
+            int offset = segment.writePosition;
+            segment.bodyAt(offset, bodySize).put(ACK_RECORD).putLong(sequence);
+            commit(segment, offset, bodySize);
+
+            deleteDeliveredSegments();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back an event that could not be delivered, so it is picked up by the next redelivery.
+     *
+     * @param sequence of the event
+     */
+    public void release(long sequence) {
+        lock.lock();
+        try {
+            claimedEvents.remove(sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Claims the oldest pending event after the given sequence that nobody is sending at the moment.
+     *
+     * @param afterSequence sequence to start looking from, 0 to start from the oldest event
+     * @return the claimed event, or null if there are none left
+     * @throws IOException if the event cannot be read back
+     */
+    public SpooledEvent claimNext(long afterSequence) throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            for (Map.Entry<Long, Location> entry : pendingEvents.tailMap(afterSequence, false).entrySet()) {
+                if (claimedEvents.add(entry.getKey())) {
+                    return read(entry.getKey(), entry.getValue());
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads back the pending events nobody is sending at the moment, oldest first, e.g. the events recovered from a
+     * previous run. They are not claimed.
+     *
+     * @param action called with each event
+     * @throws IOException if an event cannot be read back
+     */
+    void forEachUnclaimed(Consumer<SpooledEvent> action) throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            for (Map.Entry<Long, Location> entry : pendingEvents.entrySet()) {
+                if (!claimedEvents.contains(entry.getKey())) {
+                    action.accept(read(entry.getKey(), entry.getValue()));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of events not acknowledged yet
+     */
+    public int pendingEvents() {
+        lock.lock();
+        try {
+            return pendingEvents.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Event spool is closed");
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> segmentFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(config.getDirectory(), "*" + SEGMENT_SUFFIX)) {
+            for (Path segmentFile : stream) {
+                segmentFiles.add(segmentFile);
+            }
+        }
+        Collections.sort(segmentFiles);
+
+        for (Path segmentFile : segmentFiles) {
+            String fileName = segmentFile.getFileName().toString();
+            long id = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = Segment.open(segmentFile, id, Math.max(config.getSegmentSize(), (int) Files.size(segmentFile)));
+            segments.addLast(segment);
+            scan(segment);
+        }
+
+        if (segments.isEmpty()) {
+            activeSegment = createSegment(1);
+        } else {
+            activeSegment = segments.getLast();
+            // Anything after the last valid record is the remains of a torn write, which must not be mistaken for
+            // records once new ones are appended
+            ByteBuffer tail = activeSegment.buffer.duplicate();
+            tail.position(activeSegment.writePosition);
+            while (tail.hasRemaining()) {
+                tail.put((byte) 0);
+            }
+        }
+        deleteDeliveredSegments();
+
+        if (!pendingEvents.isEmpty()) {
+            log.info("Recovered {} pending events from the spool at {}", pendingEvents.size(), config.getDirectory());
+        }
+    }
+
+    private void scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int position = 0;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int bodySize = buffer.getInt(position);
+            if (bodySize <= 0 || position + RECORD_HEADER_SIZE + bodySize > buffer.capacity()) {
+                break;
+            }
+            if (buffer.getInt(position + 4) != checksum(buffer, position + RECORD_HEADER_SIZE, bodySize)) {
+                log.warn("Corrupted record in spool segment {} at offset {}, ignoring the rest of the segment", segment.path, position);
+                break;
+            }
+
+            byte type = buffer.get(position + RECORD_HEADER_SIZE);
+            long sequence = buffer.getLong(position + RECORD_HEADER_SIZE + 1);
+            if (type == EVENT_RECORD) {
+                // The same event shows up twice if the process died while compacting, the copy is the one kept
+                Location previous = pendingEvents.put(sequence, new Location(segment, position));
+                if (previous != null) {
+                    previous.segment.liveEvents--;
+                }
+                segment.liveEvents++;
+                segment.totalEvents++;
+            } else if (type == ACK_RECORD) {
+                Location location = pendingEvents.remove(sequence);
+                if (location != null) {
+                    location.segment.liveEvents--;
+                }
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+            position += RECORD_HEADER_SIZE + bodySize;
+        }
+        segment.writePosition = position;
+    }
+
+    private SpooledEvent read(long sequence, Location location) throws IOException {
+        ByteBuffer buffer = location.segment.buffer.duplicate();
+        int bodySize = buffer.getInt(location.offset);
+        buffer.position(location.offset + RECORD_HEADER_SIZE + 1 + 8);
+        byte kind = buffer.get();
+        byte[] routingKey = new byte[buffer.getShort()];
+        buffer.get(routingKey);
+        byte[] json = new byte[bodySize - (1 + 8 + 1 + 2) - routingKey.length];
+        buffer.get(json);
+        return new SpooledEvent(sequence, new String(routingKey, StandardCharsets.UTF_8), kind == CHANGE_EVENT,
+                new String(json, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the header of a record whose body is already in place. The length goes last, it is what makes the
+     * record visible when the segment is scanned.
+     */
+    private void commit(Segment segment, int offset, int bodySize) {
+        segment.buffer.putInt(offset + 4, checksum(segment.buffer, offset + RECORD_HEADER_SIZE, bodySize));
+        segment.buffer.putInt(offset, bodySize);
+        segment.writePosition = offset + RECORD_HEADER_SIZE + bodySize;
+        if (config.isSyncOnWrite()) {
+            segment.buffer.force();
+        }
+    }
+
+    private Segment segmentWithRoomFor(int recordSize) throws IOException {
+        if (activeSegment.remaining() >= recordSize) {
+            return activeSegment;
+        }
+        if (recordSize > config.getSegmentSize()) {
+            throw new IOException("Record of " + recordSize + " bytes does not fit in a spool segment of " + config.getSegmentSize() + " bytes");
+        }
+        deleteDeliveredSegments();
+        if (segments.size() >= config.getMaxSegments()) {
+            throw new IOException("Event spool is full, " + pendingEvents.size() + " events are pending delivery");
+        }
+
+        activeSegment = createSegment(activeSegment.id + 1);
+        compact();
+        if (activeSegment.remaining() < recordSize) {
+            // Compaction filled the new segment up
+            return segmentWithRoomFor(recordSize);
+        }
+        return activeSegment;
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Path path = config.getDirectory().resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+        Segment segment = Segment.open(path, id, config.getSegmentSize());
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * Moves the few events still pending in the oldest segments to the active one, so those segments can be deleted.
+     */
+    private void compact() throws IOException {
+        deleteDeliveredSegments();
+        while (segments.size() > 1) {
+            Segment oldest = segments.getFirst();
+            if (oldest.liveEvents * COMPACTION_LIVE_RATIO > oldest.totalEvents) {
+                return;
+            }
+
+            List<Map.Entry<Long, Location>> live = new ArrayList<>();
+            int liveSize = 0;
+            for (Map.Entry<Long, Location> entry : pendingEvents.entrySet()) {
+                if (entry.getValue().segment == oldest) {
+                    live.add(entry);
+                    liveSize += oldest.recordSizeAt(entry.getValue().offset);
+                }
+            }
+            if (liveSize > activeSegment.remaining()) {
+                return;
+            }
+
+            for (Map.Entry<Long, Location> entry : live) {
+                int offset = activeSegment.writePosition;
+                int recordSize = oldest.recordSizeAt(entry.getValue().offset);
+                ByteBuffer record = oldest.buffer.duplicate();
+                record.position(entry.getValue().offset).limit(entry.getValue().offset + recordSize);
+                ByteBuffer target = activeSegment.buffer.duplicate();
+                target.position(offset);
+                target.put(record);
+                activeSegment.writePosition = offset + recordSize;
+                entry.setValue(new Location(activeSegment, offset));
+                activeSegment.liveEvents++;
+                activeSegment.totalEvents++;
+            }
+            if (config.isSyncOnWrite()) {
+                activeSegment.buffer.force();
+            }
+            oldest.liveEvents = 0;
+            deleteDeliveredSegments();
+        }
+    }
+
+    private void deleteDeliveredSegments() throws IOException {
+        while (segments.size() > 1 && segments.getFirst().liveEvents == 0 && segments.getFirst() != activeSegment) {
+            Segment oldest = segments.removeFirst();
+            oldest.channel.close();
+            Files.deleteIfExists(oldest.path);
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer body = buffer.duplicate();
+        body.position(offset).limit(offset + length);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static boolean isChangeEvent(PagerDutyEvent event) {
+        return event instanceof ChangeEvent || event instanceof SpooledEvent && ((SpooledEvent) event).isChangeEvent()
+                || event instanceof TemplatedEvent && ((TemplatedEvent) event).isChangeEvent();
+    }
+
+    private static String routingKey(PagerDutyEvent event) {
+        String routingKey = null;
+        if (event instanceof Incident) {
+            routingKey = ((Incident) event).getRoutingKey();
+        } else if (event instanceof ChangeEvent) {
+            routingKey = ((ChangeEvent) event).getRoutingKey();
+        } else if (event instanceof SpooledEvent) {
+            routingKey = ((SpooledEvent) event).getRoutingKey();
+        } else if (event instanceof TemplatedEvent) {
+            routingKey = ((TemplatedEvent) event).getRoutingKey();
+        }
+        return Objects.toString(routingKey, "");
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int liveEvents;
+        private int totalEvents;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(Path path, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        private int recordSizeAt(int offset) {
+            return RECORD_HEADER_SIZE + buffer.getInt(offset);
+        }
+
+        private ByteBuffer bodyAt(int offset, int bodySize) {
+            ByteBuffer body = buffer.duplicate();
+            body.position(offset + RECORD_HEADER_SIZE).limit(offset + RECORD_HEADER_SIZE + bodySize);
+            return body;
+        }
+    }
+
+    private static final class Location {
+        private final Segment segment;
+        private final int offset;
+
+        private Location(Segment segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+}
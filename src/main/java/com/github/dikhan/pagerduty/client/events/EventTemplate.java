@@ -0,0 +1,246 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.BufferRecyclers;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.utils.TimestampFormatter;
+import org.apache.commons.lang3.StringUtils;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Events a monitor sends over and over, only differing by their dedup key, timestamp and a few custom details. The
+ * JSON of a prototype event is encoded once and split around those fields, and the events created from the template
+ * only hold the values of the fields, which are spliced in between the encoded segments as the event is written. No
+ * payload is built nor serialized per event.
+ * <p>
+ * Templated events are sent with {@link PagerDutyEventsClient#send(TemplatedEvent)}. They go through the same
+ * deduplication, dispatching and spooling as the other events, but having no payload they are never aggregated, and
+ * oversized ones are rejected rather than truncated.
+ */
+public final class EventTemplate {
+
+    private static final JacksonObjectMapper objectMapper = new JacksonObjectMapper();
+    private static final ObjectMapper treeMapper = new ObjectMapper();
+
+    // Slots which are not custom details, the custom details being identified by their index
+    private static final int DEDUP_KEY = -1;
+    private static final int TIMESTAMP = -2;
+
+    private final String routingKey;
+    private final boolean changeEvent;
+    private final Severity severity;
+    private final List<String> customDetailNames;
+    // Encoded JSON around the slots, one more segment than there are slots
+    private final SerializedString[] segments;
+    // Field written after each segment but the last
+    private final int[] slots;
+
+    private EventTemplate(PagerDutyEvent prototype, String routingKey, boolean changeEvent, Severity severity, String[] customDetailNames) {
+        Objects.requireNonNull(customDetailNames, "customDetailNames must not be null, it is a mandatory param");
+        if (new HashSet<>(Arrays.asList(customDetailNames)).size() != customDetailNames.length || Arrays.asList(customDetailNames).contains(null)) {
+            throw new IllegalArgumentException("customDetailNames must be distinct and not null.");
+        }
+        this.routingKey = routingKey;
+        this.changeEvent = changeEvent;
+        this.severity = severity;
+        this.customDetailNames = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(customDetailNames)));
+
+        // The fields are replaced with markers, which are then looked for in the encoded JSON
+        String marker = "pagerduty-template-" + UUID.randomUUID() + "-";
+        ObjectNode json;
+        try {
+            json = (ObjectNode) treeMapper.readTree(objectMapper.writeValueAsBytes(prototype));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to encode the prototype event", e);
+        }
+        if (!changeEvent) {
+            json.put("dedup_key", marker + DEDUP_KEY);
+        }
+        ObjectNode payload = (ObjectNode) json.get("payload");
+        payload.put("timestamp", marker + TIMESTAMP);
+        if (customDetailNames.length > 0) {
+            JsonNode details = payload.get("custom_details");
+            ObjectNode customDetails = details instanceof ObjectNode ? (ObjectNode) details : payload.putObject("custom_details");
+            for (int i = 0; i < customDetailNames.length; i++) {
+                customDetails.put(customDetailNames[i], marker + i);
+            }
+        }
+        String encoded;
+        try {
+            encoded = treeMapper.writeValueAsString(json);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to encode the prototype event", e);
+        }
+
+        List<SerializedString> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        String quotedMarker = '"' + marker;
+        int segmentStart = 0;
+        int markerStart;
+        while ((markerStart = encoded.indexOf(quotedMarker, segmentStart)) >= 0) {
+            int markerEnd = encoded.indexOf('"', markerStart + quotedMarker.length());
+            segments.add(encode(encoded.substring(segmentStart, markerStart)));
+            slots.add(Integer.parseInt(encoded.substring(markerStart + quotedMarker.length(), markerEnd)));
+            segmentStart = markerEnd + 1;
+        }
+        segments.add(encode(encoded.substring(segmentStart)));
+        this.segments = segments.toArray(new SerializedString[0]);
+        this.slots = slots.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @param prototype         Trigger incident giving the fields shared by all the events of the template. Its dedup
+     *                          key and timestamp are ignored.
+     * @param customDetailNames Names of the custom details given for each event, in the order their values are given.
+     * @return template of trigger incidents
+     */
+    public static EventTemplate of(TriggerIncident prototype, String... customDetailNames) {
+        Objects.requireNonNull(prototype, "prototype must not be null, it is a mandatory param");
+        return new EventTemplate(prototype, prototype.getRoutingKey(), false, prototype.getPayload().getSeverity(), customDetailNames);
+    }
+
+    /**
+     * @param prototype         Change event giving the fields shared by all the events of the template. Its timestamp
+     *                          is ignored.
+     * @param customDetailNames Names of the custom details given for each event, in the order their values are given.
+     * @return template of change events
+     */
+    public static EventTemplate of(ChangeEvent prototype, String... customDetailNames) {
+        Objects.requireNonNull(prototype, "prototype must not be null, it is a mandatory param");
+        return new EventTemplate(prototype, prototype.getRoutingKey(), true, null, customDetailNames);
+    }
+
+    private static SerializedString encode(String segment) {
+        SerializedString serializedString = new SerializedString(segment);
+        // Encoded now, once for all the events
+        serializedString.asUnquotedUTF8();
+        return serializedString;
+    }
+
+    /**
+     * @param dedupKey      Dedup key of the trigger incident, null for a template of change events.
+     * @param timestamp     Time at which the event was detected, or null.
+     * @param customDetails Values of the custom details named by the template, in the same order: strings, numbers,
+     *                      booleans or null, other values being written as org.json renders them. The array is kept by
+     *                      the event, and must not be modified afterwards.
+     * @return event to be sent with {@link PagerDutyEventsClient#send(TemplatedEvent)}
+     */
+    public TemplatedEvent newEvent(String dedupKey, OffsetDateTime timestamp, Object... customDetails) {
+        if (changeEvent && dedupKey != null) {
+            throw new IllegalArgumentException("dedupKey must be null, change events have none.");
+        }
+        if (!changeEvent && StringUtils.isBlank(dedupKey)) {
+            throw new IllegalArgumentException("dedupKey must not be blank, it is a mandatory param");
+        }
+        if (customDetails.length != customDetailNames.size()) {
+            throw new IllegalArgumentException("Expected values for the custom details " + customDetailNames + ", got "
+                    + customDetails.length + " values.");
+        }
+        return new TemplatedEvent(this, dedupKey, TimestampFormatter.format(timestamp), customDetails);
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    /**
+     * @return true if the events of the template have to be sent to the change events API
+     */
+    public boolean isChangeEvent() {
+        return changeEvent;
+    }
+
+    /**
+     * @return severity of the trigger incidents, null for change events
+     */
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    public List<String> getCustomDetailNames() {
+        return customDetailNames;
+    }
+
+    /**
+     * Writes the encoded segments with the values of the event in between.
+     */
+    void write(TemplatedEvent event, JsonGenerator gen) throws IOException {
+        gen.writeRawValue(segments[0]);
+        for (int i = 0; i < slots.length; i++) {
+            int slot = slots[i];
+            if (slot == DEDUP_KEY) {
+                writeValue(event.getDedupKey(), gen);
+            } else if (slot == TIMESTAMP) {
+                writeValue(event.getTimestamp(), gen);
+            } else {
+                writeValue(event.getCustomDetail(slot), gen);
+            }
+            gen.writeRaw(segments[i + 1]);
+        }
+    }
+
+    /**
+     * Values are written raw, the generator only seeing the event as a whole as a single raw value.
+     */
+    private static void writeValue(Object value, JsonGenerator gen) throws IOException {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            gen.writeRaw("null");
+        } else if (value instanceof String) {
+            writeString((String) value, gen);
+        } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte) {
+            gen.writeRaw(value.toString());
+        } else if (value instanceof Number) {
+            gen.writeRaw(JSONObject.numberToString((Number) value));
+        } else {
+            gen.writeRaw(JSONObject.valueToString(value));
+        }
+    }
+
+    private static void writeString(String value, JsonGenerator gen) throws IOException {
+        gen.writeRaw('"');
+        if (needsEscaping(value)) {
+            char[] escaped = BufferRecyclers.getJsonStringEncoder().quoteAsString(value);
+            gen.writeRaw(escaped, 0, escaped.length);
+        } else {
+            gen.writeRaw(value);
+        }
+        gen.writeRaw('"');
+    }
+
+    private static boolean needsEscaping(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "EventTemplate { " +
+                "changeEvent=" + changeEvent +
+                ", severity=" + severity +
+                ", customDetailNames=" + customDetailNames +
+                " }";
+    }
+}
@@ -0,0 +1,292 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries with exponentially growing waits and equal jitter: the wait before each retry is picked at random between
+ * half the exponential ceiling and the ceiling, so many clients recovering from the same outage do not retry in
+ * lockstep, while none of them retries right away.
+ * <p>
+ * Rate limited responses (429) start from a longer base wait than server errors, which is also the shortest wait
+ * before retrying them, and a Retry-After header sent by PagerDuty is always honoured as the minimum wait.
+ * <p>
+ * No retry is attempted once the maximum number of retries is reached or the wait would exceed the maximum time
+ * allowed for the event to be delivered.
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+    private static final int RATE_LIMIT_STATUS_CODE = 429;
+
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(500);
+    private static final Duration DEFAULT_RATE_LIMIT_BASE_DELAY = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(60);
+    private static final Duration DEFAULT_MAX_ELAPSED = Duration.ofMinutes(2);
+    private static final Set<Integer> DEFAULT_RETRYABLE_STATUS_CODES =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(RATE_LIMIT_STATUS_CODE, 500, 502, 503, 504)));
+
+    private final int maxRetries;
+    private final Duration baseDelay;
+    private final Duration rateLimitBaseDelay;
+    private final Duration maxDelay;
+    private final Duration maxElapsed;
+    private final boolean jitter;
+    private final boolean retryConnectionErrors;
+    private final Set<Integer> retryableStatusCodes;
+
+    private ExponentialBackoffRetryPolicy(Builder builder) {
+        this.maxRetries = builder.getMaxRetries();
+        this.baseDelay = builder.getBaseDelay();
+        this.rateLimitBaseDelay = builder.getRateLimitBaseDelay();
+        this.maxDelay = builder.getMaxDelay();
+        this.maxElapsed = builder.getMaxElapsed();
+        this.jitter = builder.isJitter();
+        this.retryConnectionErrors = builder.isRetryConnectionErrors();
+        this.retryableStatusCodes = Collections.unmodifiableSet(new HashSet<>(builder.getRetryableStatusCodes()));
+    }
+
+    @Override
+    public Duration nextRetryDelay(RetryContext context) {
+        if (context.getRetryCount() >= maxRetries || !isRetryable(context)) {
+            return null;
+        }
+
+        long ceilingMillis = ceilingMillis(context.getStatusCode(), context.getRetryCount());
+        long delayMillis = ceilingMillis;
+        if (jitter) {
+            long floorMillis = ceilingMillis / 2;
+            if (context.getStatusCode() == RATE_LIMIT_STATUS_CODE) {
+                // The rate limit needs that long to recover, retrying sooner would only be rejected again
+                floorMillis = Math.max(floorMillis, Math.min(rateLimitBaseDelay.toMillis(), ceilingMillis));
+            }
+            delayMillis = floorMillis + ThreadLocalRandom.current().nextLong(ceilingMillis - floorMillis + 1);
+        }
+        if (context.getRetryAfter() != null) {
+            delayMillis = Math.max(delayMillis, context.getRetryAfter().toMillis());
+        }
+
+        Duration delay = Duration.ofMillis(delayMillis);
+        if (context.getElapsed().plus(delay).compareTo(maxElapsed) > 0) {
+            return null;
+        }
+        return delay;
+    }
+
+    private boolean isRetryable(RetryContext context) {
+        return context.isConnectionError() ? retryConnectionErrors : retryableStatusCodes.contains(context.getStatusCode());
+    }
+
+    private long ceilingMillis(int statusCode, int retryCount) {
+        long base = (statusCode == RATE_LIMIT_STATUS_CODE ? rateLimitBaseDelay : baseDelay).toMillis();
+        long max = maxDelay.toMillis();
+        // Shifting further than this would overflow, and the max delay has long been reached anyway
+        if (retryCount >= 31 || base > (max >> retryCount)) {
+            return max;
+        }
+        return base << retryCount;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public Duration getBaseDelay() {
+        return baseDelay;
+    }
+
+    public Duration getRateLimitBaseDelay() {
+        return rateLimitBaseDelay;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public Duration getMaxElapsed() {
+        return maxElapsed;
+    }
+
+    public boolean isJitter() {
+        return jitter;
+    }
+
+    public boolean isRetryConnectionErrors() {
+        return retryConnectionErrors;
+    }
+
+    public Set<Integer> getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    public static class Builder {
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+        private Duration baseDelay = DEFAULT_BASE_DELAY;
+        private Duration rateLimitBaseDelay = DEFAULT_RATE_LIMIT_BASE_DELAY;
+        private Duration maxDelay = DEFAULT_MAX_DELAY;
+        private Duration maxElapsed = DEFAULT_MAX_ELAPSED;
+        private boolean jitter = true;
+        private boolean retryConnectionErrors = true;
+        private Set<Integer> retryableStatusCodes = DEFAULT_RETRYABLE_STATUS_CODES;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        /**
+         * @param maxRetries Maximum number of retries after the first attempt.
+         * @return ExponentialBackoffRetryPolicy Builder to be able to keep populating the instance
+         */
+        public Builder setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * @param baseDelay Ceiling of the wait before the first retry, doubled for every further retry.
+         * @return ExponentialBackoffRetryPolicy Builder to be able to keep populating the instance
+         */
+        public Builder setBaseDelay(Duration baseDelay) {
+            this.baseDelay = baseDelay;
+            return this;
+        }
+
+        /**
+         * @param rateLimitBaseDelay Same as the base delay but for rate limited (429) responses, which need longer to
+         *                           recover from.
+         * @return ExponentialBackoffRetryPolicy Builder to be able to keep populating the instance
+         */
+        public Builder setRateLimitBaseDelay(Duration rateLimitBaseDelay) {
+            this.rateLimitBaseDelay = rateLimitBaseDelay;
+            return this;
+        }
+
+        /**
+         * @param maxDelay Upper bound of the wait before a single retry.
+         * @return ExponentialBackoffRetryPolicy Builder to be able to keep populating the instance
+         */
+        public Builder setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * @param maxElapsed Maximum time since the first attempt after which the event is no longer retried.
+         * @return ExponentialBackoffRetryPolicy Builder to be able to keep populating the instance
+         */
+        public Builder setMaxElapsed(Duration maxElapsed) {
+            this.maxElapsed = maxElapsed;
+            return this;
+        }
+
+        /**
+         * @param jitter Whether to wait a random time between half the exponential ceiling and the ceiling (true) or
+         *               exactly the ceiling.
+         * @return ExponentialBackoffRetryPolicy Builder to be able to keep populating the instance
+         */
+        public Builder setJitter(boolean jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * @param retryConnectionErrors Whether to retry attempts failing before getting a response from PagerDuty.
+         * @return ExponentialBackoffRetryPolicy Builder to be able to keep populating the instance
+         */
+        public Builder setRetryConnectionErrors(boolean retryConnectionErrors) {
+            this.retryConnectionErrors = retryConnectionErrors;
+            return this;
+        }
+
+        /**
+         * @param retryableStatusCodes Response status codes worth retrying.
+         * @return ExponentialBackoffRetryPolicy Builder to be able to keep populating the instance
+         */
+        public Builder setRetryableStatusCodes(Set<Integer> retryableStatusCodes) {
+            this.retryableStatusCodes = retryableStatusCodes;
+            return this;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public Duration getBaseDelay() {
+            return baseDelay;
+        }
+
+        public Duration getRateLimitBaseDelay() {
+            return rateLimitBaseDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public Duration getMaxElapsed() {
+            return maxElapsed;
+        }
+
+        public boolean isJitter() {
+            return jitter;
+        }
+
+        public boolean isRetryConnectionErrors() {
+            return retryConnectionErrors;
+        }
+
+        public Set<Integer> getRetryableStatusCodes() {
+            return retryableStatusCodes;
+        }
+
+        /**
+         * Make sure the delays are valid, then create the policy.
+         */
+        public ExponentialBackoffRetryPolicy build() {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("maxRetries cannot be negative.");
+            }
+            Objects.requireNonNull(baseDelay, "baseDelay cannot be null.");
+            Objects.requireNonNull(rateLimitBaseDelay, "rateLimitBaseDelay cannot be null.");
+            Objects.requireNonNull(maxDelay, "maxDelay cannot be null.");
+            Objects.requireNonNull(maxElapsed, "maxElapsed cannot be null.");
+            Objects.requireNonNull(retryableStatusCodes, "retryableStatusCodes cannot be null.");
+            if (baseDelay.isNegative() || rateLimitBaseDelay.isNegative() || maxDelay.isNegative()) {
+                throw new IllegalArgumentException("Retry delays cannot be negative.");
+            }
+
+            return new ExponentialBackoffRetryPolicy(this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ExponentialBackoffRetryPolicy that = (ExponentialBackoffRetryPolicy) o;
+
+        return maxRetries == that.maxRetries && jitter == that.jitter && retryConnectionErrors == that.retryConnectionErrors
+                && Objects.equals(baseDelay, that.baseDelay) && Objects.equals(rateLimitBaseDelay, that.rateLimitBaseDelay)
+                && Objects.equals(maxDelay, that.maxDelay) && Objects.equals(maxElapsed, that.maxElapsed)
+                && Objects.equals(retryableStatusCodes, that.retryableStatusCodes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxRetries, baseDelay, rateLimitBaseDelay, maxDelay, maxElapsed, jitter, retryConnectionErrors,
+                retryableStatusCodes);
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.Incident;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * JDK Flight Recorder events of the send path, so slow paging can be correlated with GC pauses or thread stalls of
+ * the application. Each attempt and each retry backoff is recorded with its duration.
+ * <p>
+ * The events only exist on JVMs shipping JFR: the implementation is loaded reflectively, and everything is a no-op
+ * elsewhere. While no recording is running the events are not even allocated.
+ */
+abstract class FlightRecorderEvents {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecorderEvents.class);
+
+    private static final String JFR_IMPLEMENTATION = "com.github.dikhan.pagerduty.client.events.JfrFlightRecorderEvents";
+
+    static final FlightRecorderEvents INSTANCE = load();
+
+    static final AttemptEvent NO_ATTEMPT_EVENT = (event, attempt, statusCode, bytesSent, error) -> {
+    };
+    static final BackoffEvent NO_BACKOFF_EVENT = (event, retryCount, delay) -> {
+    };
+
+    /**
+     * @return the attempt being timed, to be committed once it completes
+     */
+    abstract AttemptEvent beginAttempt();
+
+    /**
+     * @return the backoff being timed, to be committed when the retry starts
+     */
+    abstract BackoffEvent beginBackoff();
+
+    interface AttemptEvent {
+        void commit(PagerDutyEvent event, int attempt, int statusCode, long bytesSent, Throwable error);
+    }
+
+    interface BackoffEvent {
+        void commit(PagerDutyEvent event, int retryCount, Duration delay);
+    }
+
+    /**
+     * The routing key is secret, only its hash is recorded to tell the services apart.
+     */
+    static int routingKeyHash(PagerDutyEvent event) {
+        return RateLimitedApiService.routingKey(event).hashCode();
+    }
+
+    static String action(PagerDutyEvent event) {
+        if (HttpApiServiceImpl.isChangeEvent(event)) {
+            return "change";
+        }
+        if (event instanceof Incident || event instanceof TemplatedEvent || event instanceof SpooledEvent) {
+            return String.valueOf(IncidentKey.action(event));
+        }
+        return null;
+    }
+
+    private static FlightRecorderEvents load() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (FlightRecorderEvents) Class.forName(JFR_IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            log.debug("JDK Flight Recorder is not available, no events will be recorded");
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            log.debug("Unable to set up the JDK Flight Recorder events", e);
+        }
+        return new FlightRecorderEvents() {
+            @Override
+            AttemptEvent beginAttempt() {
+                return NO_ATTEMPT_EVENT;
+            }
+
+            @Override
+            BackoffEvent beginBackoff() {
+                return NO_BACKOFF_EVENT;
+            }
+        };
+    }
+}
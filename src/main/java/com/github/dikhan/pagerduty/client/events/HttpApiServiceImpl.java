@@ -3,129 +3,431 @@ package com.github.dikhan.pagerduty.client.events;
 import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
 import com.github.dikhan.pagerduty.client.events.domain.EventResult;
 import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.exceptions.EventRejectedException;
 import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
-import com.github.dikhan.pagerduty.client.events.utils.JsonUtils;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.JsonNode;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
-import com.mashape.unirest.request.HttpRequestWithBody;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class HttpApiServiceImpl implements ApiService {
+public class HttpApiServiceImpl implements RetryingApiService {
 
     private static final Logger log = LoggerFactory.getLogger(HttpApiServiceImpl.class);
 
-    private static final int RATE_LIMIT_STATUS_CODE = 429;
-
-    // The time between retries for each different result status codes.
-    private static final Map<Integer, long[]> RETRY_WAIT_TIME_MILLISECONDS = new HashMap<>();
-    static {
-        // "quickly" retrying in case of 500s to recover from flapping errors
-        RETRY_WAIT_TIME_MILLISECONDS.put(HttpStatus.SC_INTERNAL_SERVER_ERROR, new long[]{500, 1_000, 2_000});
-        // "slowly" retrying from Rate Limit to give it time to recover
-        RETRY_WAIT_TIME_MILLISECONDS.put(RATE_LIMIT_STATUS_CODE, new long[]{10_000, 25_000, 55_000});
-    }
+    private static final JacksonObjectMapper objectMapper = new JacksonObjectMapper();
 
     private final String eventApi;
     private final String changeEventApi;
-    private final boolean doRetries;
+    private final RetryPolicy retryPolicy;
+    private final HttpClientConfig httpClientConfig;
+    private final ClientMetrics metrics;
+    private final EventSizeLimiter eventSizeLimiter;
+    private final RequestConfig requestConfig;
+    private final ConnectionKeepAliveStrategy keepAliveStrategy;
+    private final CloseableHttpClient httpClient;
+    // Started lazily, as the I/O reactor threads are only worth having for clients actually using the async API
+    private volatile CloseableHttpAsyncClient httpAsyncClient;
+    private final ReentrantLock asyncClientLock = new ReentrantLock();
+    private boolean closed;
 
     public HttpApiServiceImpl(String eventApi, String changeEventApi, boolean doRetries) {
-        this.eventApi = eventApi;
-        this.changeEventApi = changeEventApi;
-        this.doRetries = doRetries;
-        initUnirest();
+        this(eventApi, changeEventApi, null, null, doRetries);
     }
 
     public HttpApiServiceImpl(String eventApi, String changeEventApi, String proxyHost, Integer proxyPort, boolean doRetries) {
+        this(eventApi, changeEventApi, proxyHost, proxyPort, doRetries, HttpClientConfig.defaultConfig());
+    }
+
+    public HttpApiServiceImpl(String eventApi, String changeEventApi, String proxyHost, Integer proxyPort, boolean doRetries, HttpClientConfig httpClientConfig) {
+        this(eventApi, changeEventApi, proxyHost, proxyPort, doRetries ? RetryPolicy.doRetriesPolicy() : RetryPolicy.none(), httpClientConfig);
+    }
+
+    public HttpApiServiceImpl(String eventApi, String changeEventApi, String proxyHost, Integer proxyPort, RetryPolicy retryPolicy, HttpClientConfig httpClientConfig) {
+        this(eventApi, changeEventApi, proxyHost, proxyPort, retryPolicy, httpClientConfig, ClientMetrics.noop());
+    }
+
+    public HttpApiServiceImpl(String eventApi, String changeEventApi, String proxyHost, Integer proxyPort, RetryPolicy retryPolicy,
+                              HttpClientConfig httpClientConfig, ClientMetrics metrics) {
         this.eventApi = eventApi;
         this.changeEventApi = changeEventApi;
-        this.doRetries = doRetries;
-        initUnirestWithProxy(proxyHost, proxyPort);
+        this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy must not be null, it is a mandatory param");
+        this.httpClientConfig = httpClientConfig;
+        this.metrics = Objects.requireNonNull(metrics, "metrics must not be null, it is a mandatory param");
+        this.eventSizeLimiter = new EventSizeLimiter(httpClientConfig, objectMapper);
+        this.requestConfig = RequestConfig.custom()
+                .setConnectTimeout(Math.toIntExact(httpClientConfig.getConnectTimeout().toMillis()))
+                .setSocketTimeout(Math.toIntExact(httpClientConfig.getSocketTimeout().toMillis()))
+                .setProxy(!StringUtils.isEmpty(proxyHost) && proxyPort != null ? new HttpHost(proxyHost, proxyPort) : null)
+                .build();
+        this.keepAliveStrategy = keepAliveStrategy(httpClientConfig.getKeepAlive());
+        this.httpClient = HttpClients.custom()
+                .setMaxConnTotal(httpClientConfig.getMaxConnections())
+                .setMaxConnPerRoute(httpClientConfig.getMaxConnectionsPerRoute())
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
     }
 
-    private void initUnirest() {
-        Unirest.setObjectMapper(new JacksonObjectMapper());
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(Duration keepAlive) {
+        if (keepAlive == null) {
+            return DefaultConnectionKeepAliveStrategy.INSTANCE;
+        }
+        long keepAliveMillis = keepAlive.toMillis();
+        return (response, context) -> keepAliveMillis;
     }
 
-    private void initUnirestWithProxy(String proxyHost, Integer proxyPort) {
-        initUnirest();
-        Unirest.setProxy(new HttpHost(proxyHost, proxyPort));
+    private CloseableHttpAsyncClient httpAsyncClient() {
+        CloseableHttpAsyncClient client = httpAsyncClient;
+        if (client == null) {
+            // A lock rather than synchronized, which would pin the carrier of a virtual thread
+            asyncClientLock.lock();
+            try {
+                client = httpAsyncClient;
+                if (client == null) {
+                    if (closed) {
+                        throw new IllegalStateException("HTTP client is closed");
+                    }
+                    client = HttpAsyncClients.custom()
+                            .setMaxConnTotal(httpClientConfig.getMaxConnections())
+                            .setMaxConnPerRoute(httpClientConfig.getMaxConnectionsPerRoute())
+                            .setKeepAliveStrategy(keepAliveStrategy)
+                            .setDefaultRequestConfig(requestConfig)
+                            .setThreadFactory(runnable -> {
+                                Thread thread = new Thread(runnable, "pagerduty-client-io");
+                                thread.setDaemon(true);
+                                return thread;
+                            })
+                            .build();
+                    client.start();
+                    httpAsyncClient = client;
+                }
+            } finally {
+                asyncClientLock.unlock();
+            }
+        }
+        return client;
     }
 
     public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
-        if (event instanceof ChangeEvent) {
-            return notifyEvent(event, changeEventApi, 0);
-        }
-        return notifyEvent(event, eventApi, 0);
+        return notifyEvent(event, null);
     }
 
-    private EventResult notifyEvent(PagerDutyEvent event, String api, int retryCount) throws NotifyEventException {
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event, AtomicLong backoffNanos) throws NotifyEventException {
+        String api = apiFor(event);
+        long startNanos = System.nanoTime();
+        PooledJsonEntity entity;
         try {
-            HttpRequestWithBody request = Unirest.post(api)
-                    .header("Content-Type", "application/json")
-                    .header("Accept", "application/json");
-            request.body(event);
-            HttpResponse<JsonNode> jsonResponse = request.asJson();
-
-            if (log.isDebugEnabled()) {
-                log.debug(IOUtils.toString(jsonResponse.getRawBody()));
-                // A reset, so we can get the contents from the body that were dumped in the log before
-                jsonResponse.getRawBody().reset();
+            entity = encode(event);
+        } catch (RuntimeException e) {
+            throw new EventRejectedException(e);
+        }
+
+        CompletableFuture<EventResult> retriedResult = new CompletableFuture<>();
+        boolean recorded = false;
+        boolean retried = false;
+        FlightRecorderEvents.AttemptEvent attemptEvent = FlightRecorderEvents.INSTANCE.beginAttempt();
+        try (CloseableHttpResponse response = httpClient.execute(newRequest(api, entity))) {
+            byte[] body = responseBody(response);
+            logResponseBody(body);
+
+            int responseStatus = response.getStatusLine().getStatusCode();
+            metrics.requestCompleted(api, responseStatus, System.nanoTime() - startNanos, entity.getContentLength());
+            attemptEvent.commit(event, 1, responseStatus, entity.getContentLength(), null);
+            recorded = true;
+            Duration retryDelay = retryDelay(retryPolicy, 0, responseStatus, null, retryAfter(response), startNanos);
+            if (retryDelay == null) {
+                return toEventResult(body, responseStatus);
+            }
+            // Further attempts are scheduled rather than slept on, the caller only waits for their outcome
+            scheduleRetry(event, api, 1, startNanos, retryDelay, entity, backoffNanos, retriedResult);
+            retried = true;
+        } catch (IOException e) {
+            metrics.requestFailed(api, e, System.nanoTime() - startNanos);
+            attemptEvent.commit(event, 1, 0, entity.getContentLength(), e);
+            Duration retryDelay = retryDelay(retryPolicy, 0, 0, e, null, startNanos);
+            if (retryDelay == null) {
+                throw new NotifyEventException(e);
             }
+            scheduleRetry(event, api, 1, startNanos, retryDelay, entity, backoffNanos, retriedResult);
+            retried = true;
+        } catch (RuntimeException e) {
+            // E.g. the connection pool was shut down, or the retry could not be scheduled
+            if (!recorded) {
+                metrics.requestFailed(api, e, System.nanoTime() - startNanos);
+                attemptEvent.commit(event, 1, 0, entity.getContentLength(), e);
+            }
+            throw new NotifyEventException(e);
+        } finally {
+            // Once retried, the buffer is handed back by the last attempt
+            if (!retried) {
+                entity.release();
+            }
+        }
+        return await(retriedResult);
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+        return notifyEventAsync(event, (AtomicLong) null);
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event, AtomicLong backoffNanos) {
+        CompletableFuture<EventResult> eventResult = new CompletableFuture<>();
+        PooledJsonEntity entity;
+        try {
+            entity = encode(event);
+        } catch (RuntimeException e) {
+            eventResult.completeExceptionally(new EventRejectedException(e));
+            return eventResult;
+        }
+        notifyEventAsync(event, apiFor(event), 0, System.nanoTime(), entity, backoffNanos, eventResult);
+        return eventResult;
+    }
+
+    private String apiFor(PagerDutyEvent event) {
+        return isChangeEvent(event) ? changeEventApi : eventApi;
+    }
+
+    static boolean isChangeEvent(PagerDutyEvent event) {
+        return event instanceof ChangeEvent || event instanceof SpooledEvent && ((SpooledEvent) event).isChangeEvent()
+                || event instanceof TemplatedEvent && ((TemplatedEvent) event).isChangeEvent();
+    }
+
+    private void notifyEventAsync(PagerDutyEvent event, String api, int retryCount, long startNanos, PooledJsonEntity entity,
+                                  AtomicLong backoffNanos, CompletableFuture<EventResult> eventResult) {
+        long attemptNanos = System.nanoTime();
+        CloseableHttpAsyncClient client;
+        try {
+            client = httpAsyncClient();
+        } catch (IllegalStateException e) {
+            entity.release();
+            eventResult.completeExceptionally(new NotifyEventException(e));
+            return;
+        }
+        // Every attempt sends the same encoded event, the buffer is only handed back once no attempt is left
+        FlightRecorderEvents.AttemptEvent attemptEvent = FlightRecorderEvents.INSTANCE.beginAttempt();
+        client.execute(newRequest(api, entity), new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                try {
+                    byte[] body = responseBody(response);
+                    logResponseBody(body);
 
-            int responseStatus = jsonResponse.getStatus();
-            switch(responseStatus) {
-                case HttpStatus.SC_OK:
-                case HttpStatus.SC_CREATED:
-                case HttpStatus.SC_ACCEPTED:
-                    return EventResult.successEvent(JsonUtils.getPropertyValue(jsonResponse, "status"), JsonUtils.getPropertyValue(jsonResponse, "message"), JsonUtils.getPropertyValue(jsonResponse, "dedup_key"));
-                case HttpStatus.SC_BAD_REQUEST:
-                    return EventResult.errorEvent(JsonUtils.getPropertyValue(jsonResponse, "status"), JsonUtils.getPropertyValue(jsonResponse, "message"), JsonUtils.getArrayValue(jsonResponse, "errors"));
-                case RATE_LIMIT_STATUS_CODE:
-                case HttpStatus.SC_INTERNAL_SERVER_ERROR:
-                    if (doRetries) {
-                        return handleRetries(event, api, retryCount, jsonResponse, responseStatus);
+                    int responseStatus = response.getStatusLine().getStatusCode();
+                    metrics.requestCompleted(api, responseStatus, System.nanoTime() - attemptNanos, entity.getContentLength());
+                    attemptEvent.commit(event, retryCount + 1, responseStatus, entity.getContentLength(), null);
+                    Duration retryDelay = retryDelay(retryPolicy, retryCount, responseStatus, null, retryAfter(response), startNanos);
+                    if (retryDelay != null) {
+                        scheduleRetry(event, api, retryCount + 1, startNanos, retryDelay, entity, backoffNanos, eventResult);
                     } else {
-                        return EventResult.errorEvent(String.valueOf(responseStatus), "", IOUtils.toString(jsonResponse.getRawBody()));
+                        entity.release();
+                        eventResult.complete(toEventResult(body, responseStatus));
                     }
-                default:
-                    return EventResult.errorEvent(String.valueOf(responseStatus), "", IOUtils.toString(jsonResponse.getRawBody()));
+                } catch (IOException | RuntimeException e) {
+                    entity.release();
+                    eventResult.completeExceptionally(new NotifyEventException(e));
+                }
             }
-        } catch (UnirestException | IOException e) {
-            throw new NotifyEventException(e);
+
+            @Override
+            public void failed(Exception e) {
+                metrics.requestFailed(api, e, System.nanoTime() - attemptNanos);
+                attemptEvent.commit(event, retryCount + 1, 0, entity.getContentLength(), e);
+                Duration retryDelay = retryDelay(retryPolicy, retryCount, 0, e, null, startNanos);
+                try {
+                    if (retryDelay != null) {
+                        scheduleRetry(event, api, retryCount + 1, startNanos, retryDelay, entity, backoffNanos, eventResult);
+                        return;
+                    }
+                } catch (RuntimeException retryFailure) {
+                    e.addSuppressed(retryFailure);
+                }
+                entity.release();
+                eventResult.completeExceptionally(new NotifyEventException(e));
+            }
+
+            @Override
+            public void cancelled() {
+                entity.release();
+                eventResult.cancel(false);
+            }
+        });
+    }
+
+    /**
+     * Encodes the event, truncating it first if oversized. Done once per event, on the calling thread: the retries
+     * resend the same bytes, so the shared scheduler never serializes events. Events failing here are rejected for
+     * good, sending them again would fail the same way.
+     */
+    private PooledJsonEntity encode(PagerDutyEvent event) {
+        PooledJsonEntity entity = PooledJsonEntity.of(event, objectMapper);
+        long encodedSize = entity.getContentLength();
+        if (eventSizeLimiter.exceeds(encodedSize)) {
+            // Caught before PagerDuty rejects it with a 400, after a full round trip
+            entity.release();
+            entity = PooledJsonEntity.of(eventSizeLimiter.fit(event, encodedSize), objectMapper);
         }
+        return entity;
+    }
+
+    private static HttpPost newRequest(String api, PooledJsonEntity entity) {
+        HttpPost request = new HttpPost(api);
+        request.setHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
+        request.setEntity(entity);
+        return request;
     }
 
-    private EventResult handleRetries(PagerDutyEvent event, String api, int retryCount, HttpResponse<JsonNode> jsonResponse, int responseStatus) throws IOException, NotifyEventException {
-        long[] retryDelays = RETRY_WAIT_TIME_MILLISECONDS.get(responseStatus);
+    private static byte[] responseBody(HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        return entity == null ? new byte[0] : EntityUtils.toByteArray(entity);
+    }
 
-        int maxRetries = retryDelays.length;
-        if (retryCount == maxRetries) {
-            log.debug("Received a {} response. Exhausted all the possibilities to retry.", responseStatus);
-            return EventResult.errorEvent(String.valueOf(responseStatus), "", IOUtils.toString(jsonResponse.getRawBody()));
+    private void logResponseBody(byte[] body) {
+        if (log.isDebugEnabled()) {
+            log.debug(new String(body, StandardCharsets.UTF_8));
         }
+    }
 
-        log.debug("Received a {} response. Will retry again. ({}/{})", responseStatus, retryCount, maxRetries);
+    /**
+     * Only the responses the result is built from are parsed, and only for the fields the result needs.
+     */
+    static EventResult toEventResult(byte[] body, int responseStatus) {
+        switch(responseStatus) {
+            case HttpStatus.SC_OK:
+            case HttpStatus.SC_CREATED:
+            case HttpStatus.SC_ACCEPTED: {
+                EventResponse response = EventResponse.parse(body);
+                return EventResult.successEvent(response.getStatus(), response.getMessage(), response.getDedupKey());
+            }
+            case HttpStatus.SC_BAD_REQUEST: {
+                EventResponse response = EventResponse.parse(body);
+                return EventResult.errorEvent(response.getStatus(), response.getMessage(), response.getErrors());
+            }
+            default:
+                return EventResult.errorEvent(String.valueOf(responseStatus), "", new String(body, StandardCharsets.UTF_8));
+        }
+    }
 
-        try {
-            Thread.sleep(retryDelays[retryCount]);
+    /**
+     * @return how long to wait before retrying the failed attempt, or null if the retry policy gives up on the event
+     */
+    static Duration retryDelay(RetryPolicy retryPolicy, int retryCount, int responseStatus, Throwable error, Duration retryAfter, long startNanos) {
+        if (error == null && responseStatus < HttpStatus.SC_BAD_REQUEST) {
+            return null;
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+        Duration retryDelay = retryPolicy.nextRetryDelay(new RetryContext(retryCount, responseStatus, error, retryAfter, elapsed));
+        if (retryDelay == null) {
+            if (retryCount > 0) {
+                log.debug("Attempt failed with {}. Exhausted all the possibilities to retry.", error != null ? error : responseStatus);
+            }
+        } else {
+            log.debug("Attempt failed with {}. Will retry again in {} ms. ({} retries so far)",
+                    error != null ? error : responseStatus, retryDelay.toMillis(), retryCount);
         }
-        catch (InterruptedException e) {
+        return retryDelay;
+    }
+
+    private void scheduleRetry(PagerDutyEvent event, String api, int retryCount, long startNanos, Duration retryDelay,
+                               PooledJsonEntity entity, AtomicLong backoffNanos, CompletableFuture<EventResult> eventResult) {
+        metrics.retryScheduled(api, retryCount, retryDelay);
+        if (backoffNanos != null) {
+            backoffNanos.addAndGet(retryDelay.toNanos());
+        }
+        FlightRecorderEvents.BackoffEvent backoffEvent = FlightRecorderEvents.INSTANCE.beginBackoff();
+        // The wait happens on the shared scheduler, no thread is held while the event is backing off
+        SharedScheduler.schedule(() -> {
+            backoffEvent.commit(event, retryCount, retryDelay);
+            notifyEventAsync(event, api, retryCount, startNanos, entity, backoffNanos, eventResult);
+        }, retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wait requested by PagerDuty, given either in seconds or as an HTTP date.
+     */
+    private static Duration retryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        return header == null ? null : retryAfter(header.getValue());
+    }
+
+    /**
+     * @param retryAfter value of the Retry-After header, either in seconds or as an HTTP date
+     * @return wait requested by PagerDuty, or null if none or unparseable
+     */
+    static Duration retryAfter(String retryAfter) {
+        if (StringUtils.isBlank(retryAfter)) {
+            return null;
+        }
+        String value = retryAfter.trim();
+        if (StringUtils.isNumeric(value)) {
+            return Duration.ofSeconds(Long.parseLong(value));
+        }
+        Date date = DateUtils.parseDate(value);
+        if (date == null) {
+            return null;
+        }
+        long waitMillis = date.getTime() - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(0, waitMillis));
+    }
+
+    static EventResult await(CompletableFuture<EventResult> eventResult) throws NotifyEventException {
+        try {
+            return eventResult.get();
+        } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            throw new NotifyEventException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof NotifyEventException ? (NotifyEventException) cause : new NotifyEventException(cause);
         }
+    }
 
-        return notifyEvent(event, api, retryCount + 1);
+    /**
+     * Closes the connection pools, and stops the I/O threads of the asynchronous client if it was started.
+     */
+    @Override
+    public void close() throws IOException {
+        asyncClientLock.lock();
+        try {
+            closed = true;
+            httpClient.close();
+            if (httpAsyncClient != null) {
+                httpAsyncClient.close();
+            }
+        } finally {
+            asyncClientLock.unlock();
+        }
     }
 
     @Override
@@ -139,11 +441,11 @@ public class HttpApiServiceImpl implements ApiService {
 
         HttpApiServiceImpl that = (HttpApiServiceImpl) o;
 
-        return doRetries == that.doRetries && Objects.equals(eventApi, that.eventApi) && Objects.equals(changeEventApi, that.changeEventApi);
+        return Objects.equals(retryPolicy, that.retryPolicy) && Objects.equals(eventApi, that.eventApi) && Objects.equals(changeEventApi, that.changeEventApi);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(eventApi, changeEventApi, doRetries);
+        return Objects.hash(eventApi, changeEventApi, retryPolicy);
     }
 }
\ No newline at end of file
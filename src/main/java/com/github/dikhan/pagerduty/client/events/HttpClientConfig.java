@@ -0,0 +1,230 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Connection settings of the HTTP client owned by each {@link HttpApiServiceImpl}. Every ApiService creates its own
+ * connection pool out of this configuration, so clients with different settings (or proxies) do not interfere with
+ * each other. It also bounds the size of the events sent, see {@link OversizedEventPolicy}.
+ */
+public class HttpClientConfig {
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 200;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_SOCKET_TIMEOUT = Duration.ofSeconds(60);
+    // Largest event accepted by the Events API v2
+    private static final int DEFAULT_MAX_EVENT_SIZE = 512 * 1024;
+
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final Duration keepAlive;
+    private final Duration connectTimeout;
+    private final Duration socketTimeout;
+    private final int maxEventSize;
+    private final OversizedEventPolicy oversizedEventPolicy;
+
+    private HttpClientConfig(Builder builder) {
+        this.maxConnections = builder.getMaxConnections();
+        this.maxConnectionsPerRoute = builder.getMaxConnectionsPerRoute();
+        this.keepAlive = builder.getKeepAlive();
+        this.connectTimeout = builder.getConnectTimeout();
+        this.socketTimeout = builder.getSocketTimeout();
+        this.maxEventSize = builder.getMaxEventSize();
+        this.oversizedEventPolicy = builder.getOversizedEventPolicy();
+    }
+
+    /**
+     * @return configuration with the same defaults Unirest used to apply globally
+     */
+    public static HttpClientConfig defaultConfig() {
+        return Builder.newBuilder().build();
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * @return how long idle connections are kept alive in the pool, or null to honour the Keep-Alive header sent by
+     * the server
+     */
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    /**
+     * @return maximum size in bytes of the JSON of an event
+     */
+    public int getMaxEventSize() {
+        return maxEventSize;
+    }
+
+    public OversizedEventPolicy getOversizedEventPolicy() {
+        return oversizedEventPolicy;
+    }
+
+    public static class Builder {
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+        private Duration keepAlive;
+        private Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+        private Duration socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+        private int maxEventSize = DEFAULT_MAX_EVENT_SIZE;
+        private OversizedEventPolicy oversizedEventPolicy = OversizedEventPolicy.TRUNCATE;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        /**
+         * @param maxConnections Maximum number of connections opened by the client across all routes.
+         * @return HttpClientConfig Builder to be able to keep populating the instance
+         */
+        public Builder setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsPerRoute Maximum number of connections opened by the client to the same host.
+         * @return HttpClientConfig Builder to be able to keep populating the instance
+         */
+        public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * @param keepAlive How long an idle connection is kept in the pool before being discarded.
+         * @return HttpClientConfig Builder to be able to keep populating the instance
+         */
+        public Builder setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * @param connectTimeout Maximum time to wait for a connection to be established.
+         * @return HttpClientConfig Builder to be able to keep populating the instance
+         */
+        public Builder setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @param socketTimeout Maximum period of inactivity while waiting for data from PagerDuty.
+         * @return HttpClientConfig Builder to be able to keep populating the instance
+         */
+        public Builder setSocketTimeout(Duration socketTimeout) {
+            this.socketTimeout = socketTimeout;
+            return this;
+        }
+
+        /**
+         * @param maxEventSize Maximum size in bytes of the JSON of an event, 512 KB by default as for PagerDuty.
+         * @return HttpClientConfig Builder to be able to keep populating the instance
+         */
+        public Builder setMaxEventSize(int maxEventSize) {
+            this.maxEventSize = maxEventSize;
+            return this;
+        }
+
+        /**
+         * @param oversizedEventPolicy What to do with events over the maximum event size, truncating them by default.
+         * @return HttpClientConfig Builder to be able to keep populating the instance
+         */
+        public Builder setOversizedEventPolicy(OversizedEventPolicy oversizedEventPolicy) {
+            this.oversizedEventPolicy = oversizedEventPolicy;
+            return this;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public Duration getSocketTimeout() {
+            return socketTimeout;
+        }
+
+        public int getMaxEventSize() {
+            return maxEventSize;
+        }
+
+        public OversizedEventPolicy getOversizedEventPolicy() {
+            return oversizedEventPolicy;
+        }
+
+        /**
+         * Make sure the pool sizes and timeouts are valid, then create the configuration.
+         */
+        public HttpClientConfig build() {
+            if (maxConnections <= 0) {
+                throw new IllegalArgumentException("maxConnections must be greater than zero.");
+            }
+            if (maxConnectionsPerRoute <= 0) {
+                throw new IllegalArgumentException("maxConnectionsPerRoute must be greater than zero.");
+            }
+            Objects.requireNonNull(connectTimeout, "connectTimeout cannot be null.");
+            Objects.requireNonNull(socketTimeout, "socketTimeout cannot be null.");
+            if (maxEventSize <= 0) {
+                throw new IllegalArgumentException("maxEventSize must be greater than zero.");
+            }
+            Objects.requireNonNull(oversizedEventPolicy, "oversizedEventPolicy cannot be null.");
+
+            return new HttpClientConfig(this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        HttpClientConfig that = (HttpClientConfig) o;
+
+        return maxConnections == that.maxConnections && maxConnectionsPerRoute == that.maxConnectionsPerRoute
+                && Objects.equals(keepAlive, that.keepAlive) && Objects.equals(connectTimeout, that.connectTimeout)
+                && Objects.equals(socketTimeout, that.socketTimeout) && maxEventSize == that.maxEventSize
+                && oversizedEventPolicy == that.oversizedEventPolicy;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxConnections, maxConnectionsPerRoute, keepAlive, connectTimeout, socketTimeout, maxEventSize,
+                oversizedEventPolicy);
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventAction;
+import com.github.dikhan.pagerduty.client.events.domain.Incident;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Objects;
+
+/**
+ * Identifies the incident an event applies to, by its routing key and dedup key.
+ */
+final class IncidentKey {
+
+    private final String routingKey;
+    private final String dedupKey;
+
+    private IncidentKey(String routingKey, String dedupKey) {
+        this.routingKey = routingKey;
+        this.dedupKey = dedupKey;
+    }
+
+    /**
+     * @return the incident of the event, or null for change events and incident events without a dedup key or action
+     */
+    static IncidentKey of(PagerDutyEvent event) {
+        String dedupKey = dedupKey(event);
+        if (StringUtils.isBlank(dedupKey) || action(event) == null) {
+            return null;
+        }
+        String routingKey;
+        if (event instanceof Incident) {
+            routingKey = ((Incident) event).getRoutingKey();
+        } else if (event instanceof SpooledEvent) {
+            routingKey = ((SpooledEvent) event).getRoutingKey();
+        } else {
+            routingKey = ((TemplatedEvent) event).getRoutingKey();
+        }
+        return new IncidentKey(routingKey, dedupKey);
+    }
+
+    /**
+     * @return the dedup key of the incident event, or null for change events
+     */
+    static String dedupKey(PagerDutyEvent event) {
+        if (event instanceof Incident) {
+            return ((Incident) event).getDedupKey();
+        }
+        if (event instanceof TemplatedEvent) {
+            return ((TemplatedEvent) event).getDedupKey();
+        }
+        if (event instanceof SpooledEvent) {
+            return ((SpooledEvent) event).getDedupKey();
+        }
+        return null;
+    }
+
+    /**
+     * @return the action of the incident event, or null for change events
+     */
+    static EventAction action(PagerDutyEvent event) {
+        if (event instanceof Incident) {
+            return ((Incident) event).getEventAction();
+        }
+        if (event instanceof TemplatedEvent) {
+            return ((TemplatedEvent) event).getEventAction();
+        }
+        if (event instanceof SpooledEvent) {
+            return ((SpooledEvent) event).getEventAction();
+        }
+        return null;
+    }
+
+    /**
+     * @return the severity of the trigger incident, or null for other events
+     */
+    static Severity severity(PagerDutyEvent event) {
+        if (action(event) != EventAction.TRIGGER) {
+            return null;
+        }
+        if (event instanceof TriggerIncident) {
+            Payload payload = ((TriggerIncident) event).getPayload();
+            return payload != null ? payload.getSeverity() : null;
+        }
+        if (event instanceof TemplatedEvent) {
+            return ((TemplatedEvent) event).getSeverity();
+        }
+        if (event instanceof SpooledEvent) {
+            return ((SpooledEvent) event).getSeverity();
+        }
+        return null;
+    }
+
+    String getDedupKey() {
+        return dedupKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        IncidentKey that = (IncidentKey) o;
+
+        return Objects.equals(routingKey, that.routingKey) && Objects.equals(dedupKey, that.dedupKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(routingKey, dedupKey);
+    }
+}
@@ -7,6 +7,7 @@ import com.github.dikhan.utils.JSONObjectSerializer;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 public class JacksonObjectMapper implements com.mashape.unirest.http.ObjectMapper {
 
@@ -39,4 +40,26 @@ public class JacksonObjectMapper implements com.mashape.unirest.http.ObjectMappe
         }
     }
 
+    /**
+     * Writes the value as UTF-8 JSON straight into the stream, without building an intermediate String.
+     */
+    public void writeValue(Object value, OutputStream outputStream) {
+        try {
+            jacksonObjectMapper.writeValue(outputStream, value);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the value as UTF-8 JSON, without building an intermediate String
+     */
+    public byte[] writeValueAsBytes(Object value) {
+        try {
+            return jacksonObjectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
 }
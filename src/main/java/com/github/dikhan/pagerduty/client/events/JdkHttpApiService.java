@@ -0,0 +1,200 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.exceptions.EventRejectedException;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.ContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ApiService} built on the {@link HttpClient} of Java 11. HTTP/2 is negotiated with PagerDuty when possible,
+ * so concurrent events are multiplexed over a single TLS connection rather than taking one pooled connection each.
+ * <p>
+ * Retries, metrics and Flight Recorder events behave as in {@link HttpApiServiceImpl}. Of the
+ * {@link HttpClientConfig} only the connect and socket timeouts apply, the latter as the timeout of each request: the
+ * JDK client manages its connections itself. Only available on Java 11 or later, see
+ * {@link ApiServiceFactory#withJdkHttpClient(boolean)}.
+ */
+public class JdkHttpApiService implements RetryingApiService {
+
+    private static final Logger log = LoggerFactory.getLogger(JdkHttpApiService.class);
+
+    private static final JacksonObjectMapper objectMapper = new JacksonObjectMapper();
+
+    private final String eventApi;
+    private final String changeEventApi;
+    private final RetryPolicy retryPolicy;
+    private final Duration requestTimeout;
+    private final ClientMetrics metrics;
+    private final EventSizeLimiter eventSizeLimiter;
+    private final HttpClient httpClient;
+
+    public JdkHttpApiService(String eventApi, String changeEventApi, String proxyHost, Integer proxyPort, RetryPolicy retryPolicy,
+                             HttpClientConfig httpClientConfig, ClientMetrics metrics) {
+        this.eventApi = eventApi;
+        this.changeEventApi = changeEventApi;
+        this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy must not be null, it is a mandatory param");
+        this.metrics = Objects.requireNonNull(metrics, "metrics must not be null, it is a mandatory param");
+        this.requestTimeout = httpClientConfig.getSocketTimeout();
+        this.eventSizeLimiter = new EventSizeLimiter(httpClientConfig, objectMapper);
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(httpClientConfig.getConnectTimeout());
+        if (!StringUtils.isEmpty(proxyHost) && proxyPort != null) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(proxyHost, proxyPort)));
+        }
+        this.httpClient = builder.build();
+    }
+
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+        return HttpApiServiceImpl.await(notifyEventAsync(event));
+    }
+
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event, AtomicLong backoffNanos) throws NotifyEventException {
+        return HttpApiServiceImpl.await(notifyEventAsync(event, backoffNanos));
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+        return notifyEventAsync(event, (AtomicLong) null);
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event, AtomicLong backoffNanos) {
+        CompletableFuture<EventResult> eventResult = new CompletableFuture<>();
+        String api = HttpApiServiceImpl.isChangeEvent(event) ? changeEventApi : eventApi;
+        HttpRequest request;
+        byte[] body;
+        try {
+            // Encoded once on the calling thread, the retries resend the same request
+            body = encode(event);
+            request = HttpRequest.newBuilder(URI.create(api))
+                    .timeout(requestTimeout)
+                    .header(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType())
+                    .header(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON.toString())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        } catch (RuntimeException e) {
+            eventResult.completeExceptionally(new EventRejectedException(e));
+            return eventResult;
+        }
+        notifyEventAsync(event, api, request, body.length, 0, System.nanoTime(), backoffNanos, eventResult);
+        return eventResult;
+    }
+
+    private void notifyEventAsync(PagerDutyEvent event, String api, HttpRequest request, int bodyLength, int retryCount, long startNanos,
+                                  AtomicLong backoffNanos, CompletableFuture<EventResult> eventResult) {
+        long attemptNanos = System.nanoTime();
+        FlightRecorderEvents.AttemptEvent attemptEvent = FlightRecorderEvents.INSTANCE.beginAttempt();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                Throwable error = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                metrics.requestFailed(api, error, System.nanoTime() - attemptNanos);
+                attemptEvent.commit(event, retryCount + 1, 0, bodyLength, error);
+                Duration retryDelay = HttpApiServiceImpl.retryDelay(retryPolicy, retryCount, 0, error, null, startNanos);
+                if (retryDelay != null) {
+                    scheduleRetry(event, api, request, bodyLength, retryCount + 1, startNanos, retryDelay, backoffNanos, eventResult);
+                } else {
+                    eventResult.completeExceptionally(new NotifyEventException(error));
+                }
+                return;
+            }
+            try {
+                int responseStatus = response.statusCode();
+                metrics.requestCompleted(api, responseStatus, System.nanoTime() - attemptNanos, bodyLength);
+                attemptEvent.commit(event, retryCount + 1, responseStatus, bodyLength, null);
+                if (log.isDebugEnabled()) {
+                    log.debug(new String(response.body(), StandardCharsets.UTF_8));
+                }
+
+                Duration retryAfter = HttpApiServiceImpl.retryAfter(response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null));
+                Duration retryDelay = HttpApiServiceImpl.retryDelay(retryPolicy, retryCount, responseStatus, null, retryAfter, startNanos);
+                if (retryDelay != null) {
+                    scheduleRetry(event, api, request, bodyLength, retryCount + 1, startNanos, retryDelay, backoffNanos, eventResult);
+                } else {
+                    eventResult.complete(HttpApiServiceImpl.toEventResult(response.body(), responseStatus));
+                }
+            } catch (RuntimeException e) {
+                eventResult.completeExceptionally(new NotifyEventException(e));
+            }
+        });
+    }
+
+    private byte[] encode(PagerDutyEvent event) {
+        byte[] body = objectMapper.writeValueAsBytes(event);
+        if (eventSizeLimiter.exceeds(body.length)) {
+            // Caught before PagerDuty rejects it with a 400, after a full round trip
+            body = objectMapper.writeValueAsBytes(eventSizeLimiter.fit(event, body.length));
+        }
+        return body;
+    }
+
+    private void scheduleRetry(PagerDutyEvent event, String api, HttpRequest request, int bodyLength, int retryCount, long startNanos,
+                               Duration retryDelay, AtomicLong backoffNanos, CompletableFuture<EventResult> eventResult) {
+        metrics.retryScheduled(api, retryCount, retryDelay);
+        if (backoffNanos != null) {
+            backoffNanos.addAndGet(retryDelay.toNanos());
+        }
+        FlightRecorderEvents.BackoffEvent backoffEvent = FlightRecorderEvents.INSTANCE.beginBackoff();
+        SharedScheduler.schedule(() -> {
+            backoffEvent.commit(event, retryCount, retryDelay);
+            notifyEventAsync(event, api, request, bodyLength, retryCount, startNanos, backoffNanos, eventResult);
+        }, retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The HttpClient can only be closed from Java 21 on, it is otherwise left to the garbage collector.
+     */
+    @Override
+    public void close() throws IOException {
+        if (httpClient instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) httpClient).close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        JdkHttpApiService that = (JdkHttpApiService) o;
+
+        return Objects.equals(retryPolicy, that.retryPolicy) && Objects.equals(eventApi, that.eventApi) && Objects.equals(changeEventApi, that.changeEventApi);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventApi, changeEventApi, retryPolicy);
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import java.time.Duration;
+
+/**
+ * {@link FlightRecorderEvents} backed by JFR. Only loaded, reflectively, on JVMs shipping the jdk.jfr module, and
+ * left out of the build on JDK 8.
+ */
+final class JfrFlightRecorderEvents extends FlightRecorderEvents {
+
+    @Override
+    AttemptEvent beginAttempt() {
+        SendAttempt sendAttempt = new SendAttempt();
+        if (!sendAttempt.isEnabled()) {
+            return NO_ATTEMPT_EVENT;
+        }
+        sendAttempt.begin();
+        return sendAttempt;
+    }
+
+    @Override
+    BackoffEvent beginBackoff() {
+        RetryBackoff retryBackoff = new RetryBackoff();
+        if (!retryBackoff.isEnabled()) {
+            return NO_BACKOFF_EVENT;
+        }
+        retryBackoff.begin();
+        return retryBackoff;
+    }
+
+    @Name("com.github.dikhan.pagerduty.SendAttempt")
+    @Label("PagerDuty Send Attempt")
+    @Description("Request sending an event to PagerDuty")
+    @Category("PagerDuty Client")
+    static class SendAttempt extends Event implements AttemptEvent {
+
+        @Label("Routing Key Hash")
+        int routingKeyHash;
+
+        @Label("Action")
+        String action;
+
+        @Label("Attempt")
+        @Description("1 for the first request of the event, then increasing with every retry")
+        int attempt;
+
+        @Label("Status Code")
+        @Description("HTTP status code of the response, 0 if there was none")
+        int statusCode;
+
+        @Label("Bytes Sent")
+        @DataAmount
+        long bytesSent;
+
+        @Label("Error")
+        String error;
+
+        @Override
+        public void commit(PagerDutyEvent event, int attempt, int statusCode, long bytesSent, Throwable error) {
+            end();
+            if (shouldCommit()) {
+                this.routingKeyHash = routingKeyHash(event);
+                this.action = action(event);
+                this.attempt = attempt;
+                this.statusCode = statusCode;
+                this.bytesSent = bytesSent;
+                this.error = error != null ? error.toString() : null;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.github.dikhan.pagerduty.RetryBackoff")
+    @Label("PagerDuty Retry Backoff")
+    @Description("Wait of an event before being sent again to PagerDuty")
+    @Category("PagerDuty Client")
+    static class RetryBackoff extends Event implements BackoffEvent {
+
+        @Label("Routing Key Hash")
+        int routingKeyHash;
+
+        @Label("Action")
+        String action;
+
+        @Label("Retry")
+        int retryCount;
+
+        @Label("Requested Delay")
+        @Timespan
+        long delayNanos;
+
+        @Override
+        public void commit(PagerDutyEvent event, int retryCount, Duration delay) {
+            end();
+            if (shouldCommit()) {
+                this.routingKeyHash = routingKeyHash(event);
+                this.action = action(event);
+                this.retryCount = retryCount;
+                this.delayNanos = delay.toNanos();
+                commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.dikhan.pagerduty.client.events;
+
+/**
+ * What the {@link AsyncEventDispatcher} does with a new event when its queue is already full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The producer waits until a sender thread frees up room in the queue.
+     */
+    BLOCK,
+
+    /**
+     * The event that has been waiting the longest in the queue is dropped to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The least important queued event is dropped to make room for the new one: change events first, then triggers
+     * from info up to critical severity. Acknowledge and resolve events are only dropped in favour of each other. If
+     * the new event is less important than everything already queued, the new event is the one dropped.
+     */
+    DROP_LOWEST_SEVERITY
+}
@@ -0,0 +1,26 @@
+package com.github.dikhan.pagerduty.client.events;
+
+/**
+ * What the HTTP services do with an event whose JSON exceeds the maximum event size of the {@link HttpClientConfig},
+ * which PagerDuty would reject with a 400 after a full round trip.
+ */
+public enum OversizedEventPolicy {
+
+    /**
+     * The event is shrunk until it fits: members of the custom details are shortened or left out first, then images
+     * and links are left out starting from the last one, and last the summary is shortened. Oversized events which
+     * cannot be shrunk, e.g. events redelivered from the spool, are rejected.
+     */
+    TRUNCATE,
+
+    /**
+     * The event is failed with a {@link com.github.dikhan.pagerduty.client.events.exceptions.EventRejectedException}
+     * without being sent.
+     */
+    REJECT,
+
+    /**
+     * The event is sent as it is, leaving PagerDuty to reject it.
+     */
+    SEND
+}
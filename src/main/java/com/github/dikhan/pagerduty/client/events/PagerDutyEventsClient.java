@@ -7,15 +7,33 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-public class PagerDutyEventsClient {
+public class PagerDutyEventsClient implements AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(PagerDutyEventsClient.class);
 
+    private static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
     private final ApiService httpApiServiceImpl;
+    private final AsyncEventDispatcher asyncEventDispatcher;
+    private final AggregatingApiService aggregatingApiService;
+    // Where events are handed over to: the dispatcher if any, else the ApiService, possibly decorated by the spool
+    // and the deduplication
+    private final ApiService eventSender;
+    // Events handed over and not completed yet, waited for by flush and shutdown
+    private final Map<CompletableFuture<EventResult>, PagerDutyEvent> pendingEvents = new ConcurrentHashMap<>();
+    private volatile boolean shutdown;
 
     protected PagerDutyEventsClient(PagerDutyClientBuilder pagerDutyClientBuilder) {
         String eventApi = pagerDutyClientBuilder.getEventApi();
@@ -23,7 +41,53 @@ public class PagerDutyEventsClient {
         String proxyHost = pagerDutyClientBuilder.getProxyHost();
         Integer proxyPort = pagerDutyClientBuilder.getProxyPort();
         boolean doRetries = pagerDutyClientBuilder.getDoRetries();
-        this.httpApiServiceImpl = new ApiServiceFactory(eventApi, changeEventApi, proxyHost, proxyPort, doRetries).getDefault();
+        HttpClientConfig httpClientConfig = pagerDutyClientBuilder.getHttpClientConfig();
+        ApiServiceFactory apiServiceFactory = new ApiServiceFactory(eventApi, changeEventApi, proxyHost, proxyPort, doRetries)
+                .withHttpClientConfig(httpClientConfig)
+                .withRetryPolicy(pagerDutyClientBuilder.getRetryPolicy())
+                .withCircuitBreaker(pagerDutyClientBuilder.getCircuitBreakerConfig())
+                .withMetrics(pagerDutyClientBuilder.getMetrics())
+                .withJdkHttpClient(pagerDutyClientBuilder.isJdkHttpClient())
+                .withVirtualThreads(pagerDutyClientBuilder.isVirtualThreads());
+        if (pagerDutyClientBuilder.getRateLimitEventsPerSecond() != null) {
+            apiServiceFactory.withRateLimit(pagerDutyClientBuilder.getRateLimitEventsPerSecond(),
+                    pagerDutyClientBuilder.getRateLimitBurst(), pagerDutyClientBuilder.getRateLimitMaxWait());
+        }
+        this.httpApiServiceImpl = apiServiceFactory.getDefault();
+        this.asyncEventDispatcher = pagerDutyClientBuilder.getDispatcherQueueCapacity() != null ?
+                new AsyncEventDispatcher(httpApiServiceImpl, pagerDutyClientBuilder.getDispatcherQueueCapacity(),
+                        pagerDutyClientBuilder.getDispatcherThreads(), pagerDutyClientBuilder.getOverflowPolicy(),
+                        pagerDutyClientBuilder.getMetrics(), pagerDutyClientBuilder.getCoalescingPolicy()) : null;
+        ApiService eventSender = asyncEventDispatcher != null ? asyncEventDispatcher : httpApiServiceImpl;
+        SpoolConfig spoolConfig = pagerDutyClientBuilder.getSpoolConfig();
+        if (spoolConfig != null) {
+            // Spooled ahead of the dispatcher queue, so queued events survive the process dying as well. Redelivered
+            // events go through the queue too, keeping the order of the events of an incident and the overflow policy
+            ApiService redeliveryService = asyncEventDispatcher != null ? asyncEventDispatcher.withoutWaitingForRoom() : httpApiServiceImpl;
+            eventSender = new SpoolingApiService(eventSender, redeliveryService, openSpool(spoolConfig), spoolConfig.getRedeliveryInterval());
+        }
+        AggregationConfig aggregationConfig = pagerDutyClientBuilder.getAggregationConfig();
+        if (aggregationConfig != null) {
+            // Ahead of the spool, so summaries are spooled but not the triggers they collapse
+            this.aggregatingApiService = new AggregatingApiService(eventSender, aggregationConfig);
+            eventSender = aggregatingApiService;
+        } else {
+            this.aggregatingApiService = null;
+        }
+        if (pagerDutyClientBuilder.getDeduplicationWindow() != null) {
+            // Ahead of everything else, suppressed events are not even spooled
+            eventSender = new DeduplicatingApiService(eventSender, pagerDutyClientBuilder.getDeduplicationWindow(),
+                    pagerDutyClientBuilder.getDeduplicationMaxEntries());
+        }
+        this.eventSender = eventSender;
+    }
+
+    private static EventSpool openSpool(SpoolConfig spoolConfig) {
+        try {
+            return new EventSpool(spoolConfig);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open the event spool at " + spoolConfig.getDirectory(), e);
+        }
     }
 
     public static void main(String[] args) throws NotifyEventException {
@@ -184,39 +248,235 @@ public class PagerDutyEventsClient {
     }
 
 
+    /**
+     * Triggers an incident, or updates the open incident of the same dedup key.
+     *
+     * @param incident trigger incident to be sent to PagerDuty
+     * @return the event result, or a {@link EventResult#isPending() pending} result if the event was only queued by
+     * the dispatcher or aggregated into a summary, see {@link PagerDutyClientBuilder#withAsyncDispatcher} and
+     * {@link PagerDutyClientBuilder#withAggregation}
+     * @throws NotifyEventException if the event could not be sent
+     */
     public EventResult trigger(TriggerIncident incident) throws NotifyEventException {
         EventResult eventResult = sendEvent(incident);
         return eventResult;
     }
 
+    /**
+     * Acknowledges the incident of the dedup key of the event.
+     *
+     * @param ack acknowledge incident to be sent to PagerDuty
+     * @return the event result, or a {@link EventResult#isPending() pending} result if the event was only queued by
+     * the dispatcher, see {@link PagerDutyClientBuilder#withAsyncDispatcher}
+     * @throws NotifyEventException if the event could not be sent
+     */
     public EventResult acknowledge(AcknowledgeIncident ack) throws NotifyEventException {
         EventResult eventResult = sendEvent(ack);
         return eventResult;
     }
 
+    /**
+     * Resolves the incident of the dedup key of the event.
+     *
+     * @param resolve resolve incident to be sent to PagerDuty
+     * @return the event result, or a {@link EventResult#isPending() pending} result if the event was only queued by
+     * the dispatcher, see {@link PagerDutyClientBuilder#withAsyncDispatcher}
+     * @throws NotifyEventException if the event could not be sent
+     */
     public EventResult resolve(ResolveIncident resolve) throws NotifyEventException {
         EventResult eventResult = sendEvent(resolve);
         return eventResult;
     }
 
+    /**
+     * Sends a change event, which does not open any incident.
+     *
+     * @param changeEvent change event to be sent to PagerDuty
+     * @return the event result, or a {@link EventResult#isPending() pending} result if the event was only queued by
+     * the dispatcher, see {@link PagerDutyClientBuilder#withAsyncDispatcher}
+     * @throws NotifyEventException if the event could not be sent
+     */
     public EventResult trackChange(ChangeEvent changeEvent) throws NotifyEventException {
         EventResult eventResult = sendEvent(changeEvent);
         return eventResult;
     }
 
+    /**
+     * Sends an event created from an {@link EventTemplate}, either a trigger incident or a change event depending on
+     * the template.
+     *
+     * @param event templated event to be sent to PagerDuty
+     * @return the event result, or a {@link EventResult#isPending() pending} result if the event was only queued by
+     * the dispatcher
+     * @throws NotifyEventException if the event could not be sent
+     */
+    public EventResult send(TemplatedEvent event) throws NotifyEventException {
+        EventResult eventResult = notifyEvent(event);
+        log.debug("Event result {} for {}", eventResult, event);
+        return eventResult;
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #trigger(TriggerIncident)}. The caller thread is not blocked on the HTTP
+     * round-trip nor on any retries.
+     *
+     * @param incident trigger incident to be sent to PagerDuty
+     * @return future completed with the event result, or exceptionally with a {@link NotifyEventException}
+     */
+    public CompletableFuture<EventResult> triggerAsync(TriggerIncident incident) {
+        return sendEventAsync(incident);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #acknowledge(AcknowledgeIncident)}.
+     *
+     * @param ack acknowledge incident to be sent to PagerDuty
+     * @return future completed with the event result, or exceptionally with a {@link NotifyEventException}
+     */
+    public CompletableFuture<EventResult> acknowledgeAsync(AcknowledgeIncident ack) {
+        return sendEventAsync(ack);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #resolve(ResolveIncident)}.
+     *
+     * @param resolve resolve incident to be sent to PagerDuty
+     * @return future completed with the event result, or exceptionally with a {@link NotifyEventException}
+     */
+    public CompletableFuture<EventResult> resolveAsync(ResolveIncident resolve) {
+        return sendEventAsync(resolve);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #trackChange(ChangeEvent)}.
+     *
+     * @param changeEvent change event to be sent to PagerDuty
+     * @return future completed with the event result, or exceptionally with a {@link NotifyEventException}
+     */
+    public CompletableFuture<EventResult> trackChangeAsync(ChangeEvent changeEvent) {
+        return sendEventAsync(changeEvent);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #send(TemplatedEvent)}.
+     *
+     * @param event templated event to be sent to PagerDuty
+     * @return future completed with the event result, or exceptionally with a {@link NotifyEventException}
+     */
+    public CompletableFuture<EventResult> sendAsync(TemplatedEvent event) {
+        return sendEventAsync(event);
+    }
+
     private EventResult sendEvent(Incident incident) throws NotifyEventException {
-        EventResult eventResult = httpApiServiceImpl.notifyEvent(incident);
+        EventResult eventResult = notifyEvent(incident);
         log.debug("Event result {} for {}", eventResult, incident);
         return eventResult;
     }
 
     private EventResult sendEvent(ChangeEvent changeEvent) throws NotifyEventException {
-        EventResult eventResult = httpApiServiceImpl.notifyEvent(changeEvent);
+        EventResult eventResult = notifyEvent(changeEvent);
         log.debug("Event result {} for {}", eventResult, changeEvent);
         return eventResult;
     }
 
-    protected static class PagerDutyClientBuilder {
+    private EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+        if (shutdown) {
+            throw new NotifyEventException("PagerDuty client has been shut down");
+        }
+        if (asyncEventDispatcher != null) {
+            return AsyncEventDispatcher.queuedResult(event, track(event, eventSender.notifyEventAsync(event)));
+        }
+        CompletableFuture<EventResult> pendingResult = new CompletableFuture<>();
+        pendingEvents.put(pendingResult, event);
+        try {
+            EventResult eventResult = eventSender.notifyEvent(event);
+            pendingResult.complete(eventResult);
+            return eventResult;
+        } finally {
+            pendingEvents.remove(pendingResult);
+        }
+    }
+
+    private CompletableFuture<EventResult> sendEventAsync(PagerDutyEvent event) {
+        if (shutdown) {
+            CompletableFuture<EventResult> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new NotifyEventException("PagerDuty client has been shut down"));
+            return rejected;
+        }
+        CompletableFuture<EventResult> pendingResult = track(event, eventSender.notifyEventAsync(event));
+        return pendingResult
+                .whenComplete((eventResult, throwable) -> {
+                    if (throwable == null) {
+                        log.debug("Event result {} for {}", eventResult, event);
+                    }
+                });
+    }
+
+    private CompletableFuture<EventResult> track(PagerDutyEvent event, CompletableFuture<EventResult> pendingResult) {
+        pendingEvents.put(pendingResult, event);
+        pendingResult.whenComplete((eventResult, throwable) -> pendingEvents.remove(pendingResult));
+        return pendingResult;
+    }
+
+    /**
+     * Waits for the events sent so far to complete, whether delivered or not, including the ones waiting in the
+     * dispatcher queue or backing off before a retry. Events sent while flushing are not waited for.
+     *
+     * @param timeout Longest to wait for the events to complete.
+     * @return true if all the events completed, false if the timeout elapsed or the thread was interrupted first
+     */
+    public boolean flush(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (CompletableFuture<EventResult> pendingResult : new ArrayList<>(pendingEvents.keySet())) {
+            try {
+                pendingResult.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                // Completed all the same
+            } catch (TimeoutException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting new events, which then fail with a {@link NotifyEventException}, waits for the pending ones to
+     * complete up to the timeout, then releases the connections and threads of the client. Events still pending
+     * after the timeout are failed, or left in the spool for next startup if one is configured.
+     *
+     * @param timeout Longest to wait for the pending events to complete.
+     * @return the events which had not completed when the timeout elapsed, empty if they all did
+     */
+    public List<PagerDutyEvent> shutdown(Duration timeout) {
+        shutdown = true;
+        if (aggregatingApiService != null) {
+            aggregatingApiService.sendPending().forEach((pendingResult, summary) -> track(summary, pendingResult));
+        }
+        flush(timeout);
+        List<PagerDutyEvent> undelivered = new ArrayList<>(pendingEvents.values());
+        if (!undelivered.isEmpty()) {
+            log.warn("{} events were still pending when shutting down the PagerDuty client", undelivered.size());
+        }
+        try {
+            eventSender.close();
+        } catch (IOException e) {
+            log.warn("Unable to release the resources of the PagerDuty client", e);
+        }
+        return undelivered;
+    }
+
+    /**
+     * Same as {@link #shutdown(Duration)}, waiting up to 30 seconds for the pending events.
+     */
+    @Override
+    public void close() {
+        shutdown(DEFAULT_SHUTDOWN_TIMEOUT);
+    }
+
+    public static class PagerDutyClientBuilder {
 
         private static final String PAGER_DUTY_EVENT_API = "https://events.pagerduty.com/v2/enqueue";
 
@@ -229,6 +489,31 @@ public class PagerDutyEventsClient {
         private Integer proxyPort;
 
         private Boolean doRetries = false;
+        private RetryPolicy retryPolicy;
+
+        private final HttpClientConfig.Builder httpClientConfig = HttpClientConfig.Builder.newBuilder();
+        private boolean jdkHttpClient;
+        private boolean virtualThreads;
+
+        private Double rateLimitEventsPerSecond;
+        private int rateLimitBurst;
+        private Duration rateLimitMaxWait;
+
+        private CircuitBreakerConfig circuitBreakerConfig;
+
+        private SpoolConfig spoolConfig;
+
+        private Duration deduplicationWindow;
+        private int deduplicationMaxEntries;
+
+        private Integer dispatcherQueueCapacity;
+        private int dispatcherThreads;
+        private OverflowPolicy overflowPolicy;
+        private CoalescingPolicy coalescingPolicy = CoalescingPolicy.NONE;
+
+        private AggregationConfig aggregationConfig;
+
+        private ClientMetrics metrics = ClientMetrics.noop();
 
         public PagerDutyClientBuilder() {
         }
@@ -259,6 +544,226 @@ public class PagerDutyEventsClient {
             return this;
         }
 
+        /**
+         * @param retryPolicy Decides which failed events are retried and how long to wait in between. Takes
+         *                    precedence over {@link #withDoRetries(boolean)}, which enables
+         *                    {@link RetryPolicy#doRetriesPolicy()}.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * @param maxConnections Maximum number of connections the client keeps open to PagerDuty.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withMaxConnections(int maxConnections) {
+            this.httpClientConfig.setMaxConnections(maxConnections);
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsPerRoute Maximum number of connections the client keeps open to the same host.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.httpClientConfig.setMaxConnectionsPerRoute(maxConnectionsPerRoute);
+            return this;
+        }
+
+        /**
+         * @param keepAlive How long idle connections are kept in the pool. By default the server Keep-Alive header is honoured.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withKeepAlive(Duration keepAlive) {
+            this.httpClientConfig.setKeepAlive(keepAlive);
+            return this;
+        }
+
+        /**
+         * @param connectTimeout Maximum time to wait for a connection to PagerDuty to be established.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withConnectTimeout(Duration connectTimeout) {
+            this.httpClientConfig.setConnectTimeout(connectTimeout);
+            return this;
+        }
+
+        /**
+         * @param socketTimeout Maximum period of inactivity while waiting for PagerDuty to reply.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withSocketTimeout(Duration socketTimeout) {
+            this.httpClientConfig.setSocketTimeout(socketTimeout);
+            return this;
+        }
+
+        /**
+         * @param maxEventSize Maximum size in bytes of the JSON of an event, 512 KB by default as for PagerDuty.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withMaxEventSize(int maxEventSize) {
+            this.httpClientConfig.setMaxEventSize(maxEventSize);
+            return this;
+        }
+
+        /**
+         * @param oversizedEventPolicy What to do with events over the maximum event size. By default they are
+         *                             truncated to fit.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withOversizedEventPolicy(OversizedEventPolicy oversizedEventPolicy) {
+            this.httpClientConfig.setOversizedEventPolicy(oversizedEventPolicy);
+            return this;
+        }
+
+        /**
+         * Sends the events with the HttpClient of Java 11 instead of the pooled Apache one, multiplexing concurrent
+         * events over a single HTTP/2 connection. Requires Java 11 or later. See {@link JdkHttpApiService}.
+         *
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withJdkHttpClient() {
+            this.jdkHttpClient = true;
+            return this;
+        }
+
+        /**
+         * Runs every asynchronous send, including the ones of the {@link AsyncEventDispatcher}, as a blocking send on
+         * its own virtual thread. Requires Java 21 or later. See {@link VirtualThreadApiService}.
+         *
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withVirtualThreads() {
+            this.virtualThreads = true;
+            return this;
+        }
+
+        /**
+         * Shapes the outgoing traffic with a token bucket per routing key, so events are delayed on the client rather
+         * than rejected by PagerDuty with a rate limited response.
+         *
+         * @param eventsPerSecond Sustained rate of events allowed for each routing key.
+         * @param burst           Number of events of a routing key that can be sent back to back after being idle.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withRateLimit(double eventsPerSecond, int burst) {
+            return withRateLimit(eventsPerSecond, burst, null);
+        }
+
+        /**
+         * Same as {@link #withRateLimit(double, int)} but rejecting the events that would have to wait too long.
+         *
+         * @param eventsPerSecond Sustained rate of events allowed for each routing key.
+         * @param burst           Number of events of a routing key that can be sent back to back after being idle.
+         * @param maxWait         Longest an event may be delayed before failing with a NotifyEventException.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withRateLimit(double eventsPerSecond, int burst, Duration maxWait) {
+            this.rateLimitEventsPerSecond = eventsPerSecond;
+            this.rateLimitBurst = burst;
+            this.rateLimitMaxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Fails fast, with a NotifyEventException, while PagerDuty keeps failing or replying slowly rather than having
+         * every call wait for a timeout. See {@link CircuitBreakerApiService}.
+         *
+         * @param circuitBreakerConfig Thresholds and timings of the circuit breaker.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withCircuitBreaker(CircuitBreakerConfig circuitBreakerConfig) {
+            this.circuitBreakerConfig = circuitBreakerConfig;
+            return this;
+        }
+
+        /**
+         * Persists every event to an on-disk spool until PagerDuty has accepted it. Events pending when the process
+         * stops, or which could not be delivered because PagerDuty was unreachable, are sent again on startup and
+         * then periodically. See {@link EventSpool}.
+         *
+         * @param spoolConfig Location and sizes of the spool.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withSpool(SpoolConfig spoolConfig) {
+            this.spoolConfig = spoolConfig;
+            return this;
+        }
+
+        /**
+         * Suppresses incident events repeating the last action sent for the same dedup key within the window, e.g.
+         * monitors re-firing the same trigger on every evaluation. See {@link DeduplicatingApiService}.
+         *
+         * @param window     How long repetitions of an event are suppressed for.
+         * @param maxEntries Maximum number of incidents remembered.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withDeduplication(Duration window, int maxEntries) {
+            this.deduplicationWindow = window;
+            this.deduplicationMaxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Enables the {@link AsyncEventDispatcher} mode: events are put in a bounded queue drained by background
+         * sender threads. The blocking methods of the client then return as soon as the event is queued, with a
+         * {@link EventResult#isPending() pending} result of status "queued" which does not tell whether PagerDuty
+         * accepted the event, while the asynchronous ones complete once the event has actually been sent.
+         *
+         * @param queueCapacity  Maximum number of events waiting to be sent.
+         * @param senderThreads  Number of threads sending the queued events to PagerDuty.
+         * @param overflowPolicy What to do with new events when the queue is full.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withAsyncDispatcher(int queueCapacity, int senderThreads, OverflowPolicy overflowPolicy) {
+            this.dispatcherQueueCapacity = queueCapacity;
+            this.dispatcherThreads = senderThreads;
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Collapses bursts of triggers of the same routing key, payload group and payload component into summary
+         * triggers listing their sources, e.g. when a shared dependency fails. The blocking methods return a
+         * {@link EventResult#isPending() pending} result of status "aggregated" for the collapsed triggers. See
+         * {@link AggregatingApiService}.
+         *
+         * @param aggregationConfig Window and threshold of the aggregation.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withAggregation(AggregationConfig aggregationConfig) {
+            this.aggregationConfig = aggregationConfig;
+            return this;
+        }
+
+        /**
+         * Skips the events waiting in the {@link AsyncEventDispatcher} queue which are superseded by a later event of
+         * the same incident, e.g. re-triggers piling up while PagerDuty is unreachable. Only applies with
+         * {@link #withAsyncDispatcher(int, int, OverflowPolicy)}.
+         *
+         * @param coalescingPolicy Which queued events are superseded by a new one.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withCoalescing(CoalescingPolicy coalescingPolicy) {
+            this.coalescingPolicy = coalescingPolicy;
+            return this;
+        }
+
+        /**
+         * Reports the latency, status code and size of every request, the retries and the dispatcher queue depth, to
+         * be bridged to a metrics system. See {@link ClientMetrics}.
+         *
+         * @param metrics Recorder of the client metrics.
+         * @return PagerDutyClientBuilder to be able to keep configuring the client
+         */
+        public PagerDutyClientBuilder withMetrics(ClientMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
         public PagerDutyEventsClient build() {
             if (StringUtils.isBlank(eventApi)) {
                 eventApi = PAGER_DUTY_EVENT_API;
@@ -290,5 +795,79 @@ public class PagerDutyEventsClient {
         public Boolean getDoRetries() {
             return doRetries;
         }
+
+        /**
+         * @return the configured retry policy, or the one derived from the doRetries flag if none was configured
+         */
+        public RetryPolicy getRetryPolicy() {
+            if (retryPolicy != null) {
+                return retryPolicy;
+            }
+            return Boolean.TRUE.equals(doRetries) ? RetryPolicy.doRetriesPolicy() : RetryPolicy.none();
+        }
+
+        public HttpClientConfig getHttpClientConfig() {
+            return httpClientConfig.build();
+        }
+
+        public Double getRateLimitEventsPerSecond() {
+            return rateLimitEventsPerSecond;
+        }
+
+        public int getRateLimitBurst() {
+            return rateLimitBurst;
+        }
+
+        public Duration getRateLimitMaxWait() {
+            return rateLimitMaxWait;
+        }
+
+        public CircuitBreakerConfig getCircuitBreakerConfig() {
+            return circuitBreakerConfig;
+        }
+
+        public SpoolConfig getSpoolConfig() {
+            return spoolConfig;
+        }
+
+        public Duration getDeduplicationWindow() {
+            return deduplicationWindow;
+        }
+
+        public int getDeduplicationMaxEntries() {
+            return deduplicationMaxEntries;
+        }
+
+        public Integer getDispatcherQueueCapacity() {
+            return dispatcherQueueCapacity;
+        }
+
+        public int getDispatcherThreads() {
+            return dispatcherThreads;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public AggregationConfig getAggregationConfig() {
+            return aggregationConfig;
+        }
+
+        public CoalescingPolicy getCoalescingPolicy() {
+            return coalescingPolicy;
+        }
+
+        public ClientMetrics getMetrics() {
+            return metrics;
+        }
+
+        public boolean isJdkHttpClient() {
+            return jdkHttpClient;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
     }
 }
@@ -0,0 +1,119 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Request entity holding the JSON of an event, written by the Jackson generator straight into a byte buffer borrowed
+ * from a small pool. No intermediate String is built, and the buffer is handed back to the pool with
+ * {@link #release()} once the event has been sent, its retries included, so steady traffic does not allocate a new
+ * buffer per event.
+ */
+final class PooledJsonEntity extends AbstractHttpEntity {
+
+    // Big enough for the usual event, larger custom details grow the buffer
+    private static final int BUFFER_SIZE = 4 * 1024;
+    // Buffers grown beyond this are left to the garbage collector rather than kept in the pool
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+    private static final ArrayBlockingQueue<byte[]> pool = new ArrayBlockingQueue<>(64);
+
+    private byte[] buffer;
+    private int length;
+
+    private PooledJsonEntity() {
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        byte[] pooled = pool.poll();
+        this.buffer = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * @param value        to be written as JSON
+     * @param objectMapper used to write the value
+     * @return entity holding the JSON of the value
+     */
+    static PooledJsonEntity of(Object value, JacksonObjectMapper objectMapper) {
+        PooledJsonEntity entity = new PooledJsonEntity();
+        try {
+            objectMapper.writeValue(value, entity.new BufferOutputStream());
+        } catch (RuntimeException e) {
+            entity.release();
+            throw e;
+        }
+        return entity;
+    }
+
+    /**
+     * Hands the buffer back to the pool. The entity must not be read afterwards.
+     */
+    void release() {
+        byte[] released = buffer;
+        buffer = null;
+        if (released != null && released.length <= MAX_POOLED_BUFFER_SIZE) {
+            pool.offer(released);
+        }
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+    @Override
+    public InputStream getContent() {
+        return new ByteArrayInputStream(buffer(), 0, length);
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(buffer(), 0, length);
+        outputStream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    private byte[] buffer() {
+        if (buffer == null) {
+            throw new IllegalStateException("Entity already released");
+        }
+        return buffer;
+    }
+
+    private class BufferOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(length + 1);
+            buffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int count) {
+            ensureCapacity(length + count);
+            System.arraycopy(bytes, offset, buffer, length, count);
+            length += count;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > buffer.length) {
+                byte[] pooled = buffer;
+                buffer = Arrays.copyOf(pooled, Math.max(capacity, pooled.length * 2));
+                pool.offer(pooled);
+            }
+        }
+    }
+}
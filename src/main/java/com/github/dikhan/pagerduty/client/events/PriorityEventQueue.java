@@ -0,0 +1,246 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Queue of the {@link AsyncEventDispatcher}, made of one FIFO lane per priority. Elements are taken from the highest
+ * priority lane first, but after a number of elements overtook the ones waiting in lower lanes the oldest element is
+ * taken instead, so low priority elements are delayed rather than starved under a steady flow of high priority ones.
+ * <p>
+ * An element never overtakes an element of the same incident queued before it: it is queued in the lane of that
+ * element if it is lower than its own, e.g. a resolve waits in the lane of the info trigger it resolves.
+ * <p>
+ * Not thread safe, the dispatcher only uses it holding its lock.
+ *
+ * @param <E> type of the queued elements
+ */
+final class PriorityEventQueue<E> {
+
+    private final ArrayDeque<Entry<E>>[] lanes;
+    private final int maxOvertakes;
+    // Queued entries of each incident, in the order they were queued, their lanes never increasing
+    private final Map<IncidentKey, ArrayDeque<Entry<E>>> incidents = new HashMap<>();
+    private long nextSequence;
+    private int size;
+    private int overtakes;
+
+    /**
+     * @param priorities   number of priorities, from 0 (lowest) to priorities - 1 (highest)
+     * @param maxOvertakes elements taken from higher lanes while lower ones wait before the oldest one is taken
+     */
+    @SuppressWarnings("unchecked")
+    PriorityEventQueue(int priorities, int maxOvertakes) {
+        this.lanes = new ArrayDeque[priorities];
+        for (int i = 0; i < priorities; i++) {
+            lanes[i] = new ArrayDeque<>();
+        }
+        this.maxOvertakes = maxOvertakes;
+    }
+
+    /**
+     * @param element  to be queued
+     * @param priority lane of the element, unless an element of the same incident is queued in a lower one
+     * @param incident of the element, null if it has none
+     */
+    void add(E element, int priority, IncidentKey incident) {
+        int lane = priority;
+        ArrayDeque<Entry<E>> incidentEntries = null;
+        if (incident != null) {
+            incidentEntries = incidents.computeIfAbsent(incident, key -> new ArrayDeque<>());
+            Entry<E> last = incidentEntries.peekLast();
+            if (last != null && last.lane < lane) {
+                lane = last.lane;
+            }
+        }
+        Entry<E> entry = new Entry<>(element, nextSequence++, lane, incident);
+        lanes[lane].addLast(entry);
+        if (incidentEntries != null) {
+            incidentEntries.addLast(entry);
+        }
+        size++;
+    }
+
+    /**
+     * @return the next element to be sent, or null if the queue is empty
+     */
+    E poll() {
+        int highest = highestLane();
+        if (highest < 0) {
+            return null;
+        }
+        if (size == lanes[highest].size()) {
+            overtakes = 0;
+            return unlink(lanes[highest].pollFirst());
+        }
+        if (overtakes >= maxOvertakes) {
+            return pollOldest();
+        }
+        overtakes++;
+        return unlink(lanes[highest].pollFirst());
+    }
+
+    /**
+     * @return the element queued the longest, or null if the queue is empty
+     */
+    E pollOldest() {
+        ArrayDeque<Entry<E>> oldest = null;
+        for (ArrayDeque<Entry<E>> lane : lanes) {
+            if (!lane.isEmpty() && (oldest == null || lane.peekFirst().sequence < oldest.peekFirst().sequence)) {
+                oldest = lane;
+            }
+        }
+        if (oldest == null) {
+            return null;
+        }
+        overtakes = 0;
+        return unlink(oldest.pollFirst());
+    }
+
+    /**
+     * @param rank importance of the elements
+     * @return the least important element, the oldest one among equally important ones, or null if the queue is empty
+     */
+    E lowest(ToIntFunction<E> rank) {
+        Entry<E> lowest = null;
+        int lowestRank = Integer.MAX_VALUE;
+        for (ArrayDeque<Entry<E>> lane : lanes) {
+            for (Entry<E> entry : lane) {
+                int entryRank = rank.applyAsInt(entry.element);
+                if (lowest == null || entryRank < lowestRank || (entryRank == lowestRank && entry.sequence < lowest.sequence)) {
+                    lowest = entry;
+                    lowestRank = entryRank;
+                }
+            }
+        }
+        return lowest == null ? null : lowest.element;
+    }
+
+    /**
+     * @return whether the element was queued
+     */
+    boolean remove(E element) {
+        for (ArrayDeque<Entry<E>> lane : lanes) {
+            Iterator<Entry<E>> iterator = lane.iterator();
+            while (iterator.hasNext()) {
+                Entry<E> entry = iterator.next();
+                if (entry.element == element) {
+                    iterator.remove();
+                    unlink(entry);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes an element of an incident without going through all the queued elements.
+     *
+     * @return whether the element was queued
+     */
+    boolean remove(E element, IncidentKey incident) {
+        ArrayDeque<Entry<E>> incidentEntries = incidents.get(incident);
+        if (incidentEntries == null) {
+            return false;
+        }
+        for (Entry<E> entry : incidentEntries) {
+            if (entry.element == element) {
+                lanes[entry.lane].removeFirstOccurrence(entry);
+                unlink(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the queued elements of the incident, oldest first
+     */
+    List<E> queued(IncidentKey incident) {
+        ArrayDeque<Entry<E>> incidentEntries = incidents.get(incident);
+        if (incidentEntries == null) {
+            return Collections.emptyList();
+        }
+        List<E> elements = new ArrayList<>(incidentEntries.size());
+        for (Entry<E> entry : incidentEntries) {
+            elements.add(entry.element);
+        }
+        return elements;
+    }
+
+    /**
+     * Empties the queue.
+     *
+     * @return the elements which were queued, oldest first
+     */
+    List<E> clear() {
+        List<Entry<E>> entries = new ArrayList<>(size);
+        for (ArrayDeque<Entry<E>> lane : lanes) {
+            entries.addAll(lane);
+            lane.clear();
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.sequence));
+        List<E> elements = new ArrayList<>(entries.size());
+        for (Entry<E> entry : entries) {
+            elements.add(entry.element);
+        }
+        incidents.clear();
+        size = 0;
+        overtakes = 0;
+        return elements;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int highestLane() {
+        for (int lane = lanes.length - 1; lane >= 0; lane--) {
+            if (!lanes[lane].isEmpty()) {
+                return lane;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Forgets the entry just removed from its lane.
+     */
+    private E unlink(Entry<E> entry) {
+        size--;
+        if (entry.incident != null) {
+            ArrayDeque<Entry<E>> incidentEntries = incidents.get(entry.incident);
+            incidentEntries.removeFirstOccurrence(entry);
+            if (incidentEntries.isEmpty()) {
+                incidents.remove(entry.incident);
+            }
+        }
+        return entry.element;
+    }
+
+    private static final class Entry<E> {
+        private final E element;
+        private final long sequence;
+        private final int lane;
+        private final IncidentKey incident;
+
+        private Entry(E element, long sequence, int lane, IncidentKey incident) {
+            this.element = element;
+            this.sequence = sequence;
+            this.lane = lane;
+            this.incident = incident;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.Incident;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shapes the outgoing traffic so it stays under the rate PagerDuty accepts for each integration. Every routing key gets
+ * its own token bucket refilled at the configured rate; events finding the bucket empty wait for their token before
+ * being handed over to the decorated {@link ApiService}, instead of wasting a round-trip on a rate limited response.
+ * <p>
+ * Blocking calls wait on the calling thread, while asynchronous ones are delayed on the shared scheduler without
+ * holding any thread. Events that would have to wait longer than the configured max wait are rejected straight away.
+ */
+public class RateLimitedApiService implements ApiService {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitedApiService.class);
+
+    private final ApiService apiService;
+    private final double eventsPerSecond;
+    private final int burst;
+    private final long maxWaitNanos;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param apiService      Service actually sending the events.
+     * @param eventsPerSecond Sustained rate allowed for each routing key.
+     * @param burst           Number of events of a routing key that can be sent back to back after being idle.
+     * @param maxWait         Longest an event may wait for its turn before being rejected, null to wait as long as needed.
+     */
+    public RateLimitedApiService(ApiService apiService, double eventsPerSecond, int burst, Duration maxWait) {
+        Objects.requireNonNull(apiService, "apiService must not be null, it is a mandatory param");
+        if (eventsPerSecond <= 0) {
+            throw new IllegalArgumentException("eventsPerSecond must be greater than zero.");
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be greater than zero.");
+        }
+        this.apiService = apiService;
+        this.eventsPerSecond = eventsPerSecond;
+        this.burst = burst;
+        this.maxWaitNanos = maxWait != null ? maxWait.toNanos() : Long.MAX_VALUE;
+    }
+
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+        long waitNanos = reserve(event);
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NotifyEventException(e);
+            }
+        }
+        return apiService.notifyEvent(event);
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+        long waitNanos;
+        try {
+            waitNanos = reserve(event);
+        } catch (NotifyEventException e) {
+            CompletableFuture<EventResult> eventResult = new CompletableFuture<>();
+            eventResult.completeExceptionally(e);
+            return eventResult;
+        }
+        if (waitNanos == 0) {
+            return apiService.notifyEventAsync(event);
+        }
+
+        CompletableFuture<EventResult> eventResult = new CompletableFuture<>();
+        // Sending encodes the event and may start the HTTP client, so not on the scheduler thread
+        SharedScheduler.schedule(() -> SharedScheduler.execute(() -> {
+            try {
+                apiService.notifyEventAsync(event).whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        eventResult.completeExceptionally(throwable);
+                    } else {
+                        eventResult.complete(result);
+                    }
+                });
+            } catch (RuntimeException e) {
+                eventResult.completeExceptionally(new NotifyEventException(e));
+            }
+        }), waitNanos, TimeUnit.NANOSECONDS);
+        return eventResult;
+    }
+
+    private long reserve(PagerDutyEvent event) throws NotifyEventException {
+        String routingKey = routingKey(event);
+        TokenBucket bucket = buckets.computeIfAbsent(routingKey, key -> new TokenBucket(eventsPerSecond, burst));
+        long waitNanos = bucket.reserve(maxWaitNanos);
+        if (waitNanos < 0) {
+            throw new NotifyEventException("Rate limit of " + eventsPerSecond + " events per second exceeded for routing key " + routingKey);
+        }
+        if (waitNanos > 0) {
+            log.debug("Rate limit reached for routing key {}, delaying event by {} ms", routingKey, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+        return waitNanos;
+    }
+
+    static String routingKey(PagerDutyEvent event) {
+        if (event instanceof Incident) {
+            return Objects.toString(((Incident) event).getRoutingKey(), "");
+        }
+        if (event instanceof ChangeEvent) {
+            return Objects.toString(((ChangeEvent) event).getRoutingKey(), "");
+        }
+        if (event instanceof SpooledEvent) {
+            return ((SpooledEvent) event).getRoutingKey();
+        }
+        if (event instanceof TemplatedEvent) {
+            return Objects.toString(((TemplatedEvent) event).getRoutingKey(), "");
+        }
+        return "";
+    }
+
+    @Override
+    public void close() throws IOException {
+        apiService.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.time.Duration;
+
+/**
+ * Details of a failed attempt to send an event, handed over to the {@link RetryPolicy} to decide about the next one.
+ */
+public class RetryContext {
+
+    private final int retryCount;
+    private final int statusCode;
+    private final Throwable error;
+    private final Duration retryAfter;
+    private final Duration elapsed;
+
+    /**
+     * @param retryCount Number of retries already performed for the event, 0 after the first attempt.
+     * @param statusCode Status code of the response, or 0 if the attempt failed before getting one.
+     * @param error      Error that made the attempt fail before getting a response, null otherwise.
+     * @param retryAfter Wait requested by PagerDuty through the Retry-After header, null if there was none.
+     * @param elapsed    Time since the first attempt for the event was made.
+     */
+    public RetryContext(int retryCount, int statusCode, Throwable error, Duration retryAfter, Duration elapsed) {
+        this.retryCount = retryCount;
+        this.statusCode = statusCode;
+        this.error = error;
+        this.retryAfter = retryAfter;
+        this.elapsed = elapsed;
+    }
+
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return true if the attempt failed without getting a response, e.g. the connection could not be established
+     */
+    public boolean isConnectionError() {
+        return error != null;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryContext{" +
+                "retryCount=" + retryCount +
+                ", statusCode=" + statusCode +
+                ", error=" + error +
+                ", retryAfter=" + retryAfter +
+                ", elapsed=" + elapsed +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Decides whether a failed attempt to send an event is retried and how long to wait before doing so. A failed attempt
+ * is either a response with an error status code or an error establishing the connection with PagerDuty.
+ */
+public interface RetryPolicy {
+
+    /**
+     * @param context details of the attempt that just failed
+     * @return how long to wait before the next attempt, or null if the event must not be retried
+     */
+    Duration nextRetryDelay(RetryContext context);
+
+    /**
+     * @return policy that never retries
+     */
+    static RetryPolicy none() {
+        return NoRetryPolicy.INSTANCE;
+    }
+
+    /**
+     * @return exponential backoff policy with jitter, retrying rate limited responses, server errors and connection
+     * errors
+     */
+    static RetryPolicy defaultPolicy() {
+        return ExponentialBackoffRetryPolicy.Builder.newBuilder().build();
+    }
+
+    /**
+     * @return the policy enabled by the doRetries flag, only retrying rate limited (429) and internal server error
+     * (500) responses as the flag always did, with the exponential backoff and jitter of the default policy
+     */
+    static RetryPolicy doRetriesPolicy() {
+        return ExponentialBackoffRetryPolicy.Builder.newBuilder()
+                .setRetryConnectionErrors(false)
+                .setRetryableStatusCodes(new HashSet<>(Arrays.asList(429, 500)))
+                .build();
+    }
+
+    final class NoRetryPolicy implements RetryPolicy {
+        private static final NoRetryPolicy INSTANCE = new NoRetryPolicy();
+
+        private NoRetryPolicy() {
+        }
+
+        @Override
+        public Duration nextRetryDelay(RetryContext context) {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "NoRetryPolicy";
+        }
+    }
+}
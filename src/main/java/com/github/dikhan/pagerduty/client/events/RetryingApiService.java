@@ -0,0 +1,31 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ApiService} retrying failed attempts itself. Decorators timing the calls pass it a counter of the time the
+ * event waits before its retries, backoff and Retry-After alike, so they can tell that wait from the time spent
+ * sending the event.
+ */
+interface RetryingApiService extends ApiService {
+
+    /**
+     * @param event        to be sent to PagerDuty
+     * @param backoffNanos incremented by every wait scheduled before a retry of the event
+     * @return result of the event
+     * @throws NotifyEventException if the event could not be sent
+     */
+    EventResult notifyEvent(PagerDutyEvent event, AtomicLong backoffNanos) throws NotifyEventException;
+
+    /**
+     * @param event        to be sent to PagerDuty
+     * @param backoffNanos incremented by every wait scheduled before a retry of the event
+     * @return future completed with the result of the event, or exceptionally with a {@link NotifyEventException}
+     */
+    CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event, AtomicLong backoffNanos);
+}
@@ -0,0 +1,44 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single scheduler shared by every client of the process to run delayed work, such as retries waiting for their
+ * backoff to elapse. Waiting tasks sit in the scheduler queue and do not hold any thread, so thousands of events can
+ * be backing off at the same time. Tasks are expected to be short and non-blocking, they only kick off the next step.
+ * Steps which may block, such as writing to the spool or waiting for room in the dispatch queue, are handed over to
+ * the worker threads with {@link #execute(Runnable)}, so they do not hold up the retries of every client.
+ */
+final class SharedScheduler {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pagerduty-client-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "pagerduty-client-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SharedScheduler() {
+    }
+
+    static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return SCHEDULER.schedule(task, delay, unit);
+    }
+
+    static ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        return SCHEDULER.scheduleWithFixedDelay(task, initialDelay, delay, unit);
+    }
+
+    static void execute(Runnable task) {
+        WORKERS.execute(task);
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings of the {@link EventSpool} persisting events until PagerDuty has accepted them.
+ */
+public class SpoolConfig {
+
+    private static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+    private static final int DEFAULT_MAX_SEGMENTS = 64;
+    private static final Duration DEFAULT_REDELIVERY_INTERVAL = Duration.ofSeconds(30);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean syncOnWrite;
+    private final Duration redeliveryInterval;
+
+    private SpoolConfig(Builder builder) {
+        this.directory = builder.getDirectory();
+        this.segmentSize = builder.getSegmentSize();
+        this.maxSegments = builder.getMaxSegments();
+        this.syncOnWrite = builder.isSyncOnWrite();
+        this.redeliveryInterval = builder.getRedeliveryInterval();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public boolean isSyncOnWrite() {
+        return syncOnWrite;
+    }
+
+    public Duration getRedeliveryInterval() {
+        return redeliveryInterval;
+    }
+
+    public static class Builder {
+        private final Path directory;
+        private int segmentSize = DEFAULT_SEGMENT_SIZE;
+        private int maxSegments = DEFAULT_MAX_SEGMENTS;
+        private boolean syncOnWrite;
+        private Duration redeliveryInterval = DEFAULT_REDELIVERY_INTERVAL;
+
+        private Builder(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * @param directory Directory holding the spool segment files, created if it does not exist. It must not be
+         *                  shared by several clients.
+         * @return SpoolConfig Builder to be able to keep populating the instance
+         */
+        public static Builder newBuilder(Path directory) {
+            return new Builder(directory);
+        }
+
+        /**
+         * @param segmentSize Size in bytes of each segment file, which bounds the size of a single event as well.
+         * @return SpoolConfig Builder to be able to keep populating the instance
+         */
+        public Builder setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * @param maxSegments Maximum number of segment files, once reached new events are sent without being spooled.
+         * @return SpoolConfig Builder to be able to keep populating the instance
+         */
+        public Builder setMaxSegments(int maxSegments) {
+            this.maxSegments = maxSegments;
+            return this;
+        }
+
+        /**
+         * @param syncOnWrite Whether every write is forced to the storage device. Without it, spooled events survive
+         *                    the process dying but not the machine losing power.
+         * @return SpoolConfig Builder to be able to keep populating the instance
+         */
+        public Builder setSyncOnWrite(boolean syncOnWrite) {
+            this.syncOnWrite = syncOnWrite;
+            return this;
+        }
+
+        /**
+         * @param redeliveryInterval How often the events that could not be delivered are sent again.
+         * @return SpoolConfig Builder to be able to keep populating the instance
+         */
+        public Builder setRedeliveryInterval(Duration redeliveryInterval) {
+            this.redeliveryInterval = redeliveryInterval;
+            return this;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public int getMaxSegments() {
+            return maxSegments;
+        }
+
+        public boolean isSyncOnWrite() {
+            return syncOnWrite;
+        }
+
+        public Duration getRedeliveryInterval() {
+            return redeliveryInterval;
+        }
+
+        /**
+         * Make sure the directory and sizes are valid, then create the configuration.
+         */
+        public SpoolConfig build() {
+            Objects.requireNonNull(directory, "directory cannot be null.");
+            Objects.requireNonNull(redeliveryInterval, "redeliveryInterval cannot be null.");
+            if (segmentSize < 4096) {
+                throw new IllegalArgumentException("segmentSize must be at least 4096 bytes.");
+            }
+            if (maxSegments < 2) {
+                throw new IllegalArgumentException("maxSegments must be at least 2.");
+            }
+            if (redeliveryInterval.isNegative() || redeliveryInterval.isZero()) {
+                throw new IllegalArgumentException("redeliveryInterval must be greater than zero.");
+            }
+
+            return new SpoolConfig(this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        SpoolConfig that = (SpoolConfig) o;
+
+        return segmentSize == that.segmentSize && maxSegments == that.maxSegments && syncOnWrite == that.syncOnWrite
+                && Objects.equals(directory, that.directory) && Objects.equals(redeliveryInterval, that.redeliveryInterval);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(directory, segmentSize, maxSegments, syncOnWrite, redeliveryInterval);
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.github.dikhan.pagerduty.client.events.domain.EventAction;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+
+import java.io.IOException;
+
+/**
+ * Event as written to the {@link EventSpool}. It keeps the JSON the original event was serialized into when it was
+ * spooled, which is sent to PagerDuty as is, so a spooled event is serialized once. The dedup key, action and severity
+ * of incident events are taken from the original event, or read back from the JSON for events recovered from the
+ * spool, so spooled events are ordered, ranked and coalesced by the {@link AsyncEventDispatcher} like the original
+ * ones.
+ */
+public class SpooledEvent implements PagerDutyEvent, JsonSerializable {
+
+    private static final ObjectMapper treeMapper = new ObjectMapper();
+
+    private final long sequence;
+    private final String routingKey;
+    private final boolean changeEvent;
+    private final String json;
+    private final String dedupKey;
+    private final EventAction eventAction;
+    private final Severity severity;
+    private final PagerDutyEvent original;
+
+    /**
+     * Event recovered from the spool, its incident being read back from the JSON.
+     */
+    SpooledEvent(long sequence, String routingKey, boolean changeEvent, String json) {
+        this.sequence = sequence;
+        this.routingKey = routingKey;
+        this.changeEvent = changeEvent;
+        this.json = json;
+        JsonNode event = changeEvent ? null : readTree(json);
+        this.dedupKey = event != null ? event.path("dedup_key").textValue() : null;
+        this.eventAction = event != null ? eventAction(event.path("event_action").textValue()) : null;
+        // Acknowledges and resolves carry a placeholder payload, whose severity means nothing
+        this.severity = eventAction == EventAction.TRIGGER ? severity(event.path("payload").path("severity").textValue()) : null;
+        this.original = null;
+    }
+
+    /**
+     * Event just spooled, its incident being taken from the original event.
+     */
+    SpooledEvent(long sequence, String routingKey, boolean changeEvent, String json, PagerDutyEvent original) {
+        this.sequence = sequence;
+        this.routingKey = routingKey;
+        this.changeEvent = changeEvent;
+        this.json = json;
+        this.dedupKey = IncidentKey.dedupKey(original);
+        this.eventAction = IncidentKey.action(original);
+        this.severity = IncidentKey.severity(original);
+        this.original = original instanceof SpooledEvent ? ((SpooledEvent) original).original : original;
+    }
+
+    private static JsonNode readTree(String json) {
+        try {
+            return treeMapper.readTree(json);
+        } catch (IOException e) {
+            // Sent as is all the same, PagerDuty has the last word on it
+            return null;
+        }
+    }
+
+    private static EventAction eventAction(String value) {
+        for (EventAction eventAction : EventAction.values()) {
+            if (eventAction.getEventType().equals(value)) {
+                return eventAction;
+            }
+        }
+        return null;
+    }
+
+    private static Severity severity(String value) {
+        for (Severity severity : Severity.values()) {
+            if (severity.getSeverity().equals(value)) {
+                return severity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return position of the event in the spool, which identifies it when acknowledging its delivery
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    /**
+     * @return true if the event has to be sent to the change events API rather than to the events API
+     */
+    public boolean isChangeEvent() {
+        return changeEvent;
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    /**
+     * @return dedup key of the incident event, null for change events
+     */
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    /**
+     * @return action of the incident event, null for change events
+     */
+    public EventAction getEventAction() {
+        return eventAction;
+    }
+
+    /**
+     * @return severity of the trigger incident, null for other events
+     */
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    /**
+     * @return the event this one was serialized from, to be truncated if oversized, or null for an event recovered from
+     * the spool
+     */
+    PagerDutyEvent getOriginal() {
+        return original;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return "SpooledEvent{" +
+                "sequence=" + sequence +
+                ", routingKey='" + routingKey + '\'' +
+                ", changeEvent=" + changeEvent +
+                ", json='" + json + '\'' +
+                '}';
+    }
+}
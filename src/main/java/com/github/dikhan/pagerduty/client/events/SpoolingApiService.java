@@ -0,0 +1,329 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.exceptions.EventRejectedException;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes every event to the {@link EventSpool} before handing it over to the decorated {@link ApiService}, and
+ * acknowledges it once PagerDuty has given a final answer about it. The decorated service is handed the event as
+ * spooled, a {@link SpooledEvent} whose JSON is sent as is, so the event is only serialized once. Events left pending, because the process died or
+ * PagerDuty could not be reached, are redelivered on startup and then periodically.
+ * <p>
+ * An event is pending while sending it failed, or PagerDuty replied with a rate limited or a server error response.
+ * Any other response, including the ones rejecting an invalid event, is final. So is an
+ * {@link EventRejectedException}, raised when the client itself gave up on the event, e.g. dropped from a full
+ * dispatch queue or too large to be sent: the event is logged and acknowledged rather than redelivered forever.
+ * <p>
+ * Pending events are handed over for redelivery in the order they were spooled. A pending event is acknowledged
+ * without being sent again once PagerDuty accepted a later event of its incident, which the pending event would
+ * otherwise undo, e.g. a trigger reopening the incident after its resolve.
+ */
+public class SpoolingApiService implements ApiService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolingApiService.class);
+
+    // Redelivered events sent at the same time, so a large backlog does not flood the HTTP client
+    private static final int MAX_CONCURRENT_REDELIVERIES = 8;
+
+    private final ApiService apiService;
+    private final ApiService redeliveryService;
+    private final EventSpool spool;
+    private final AtomicBoolean redelivering = new AtomicBoolean();
+    // Serializes the redelivery chains claiming events, only one round runs at a time
+    private final ReentrantLock claimLock = new ReentrantLock();
+    // Sequences of the pending events of each incident, so they can be acknowledged once a later event of the
+    // incident is accepted: the events recovered on startup and the events released since.
+    private final Map<IncidentKey, TreeSet<Long>> pendingIncidents = new HashMap<>();
+    private final ReentrantLock pendingIncidentsLock = new ReentrantLock();
+    private final ScheduledFuture<?> redeliveryTask;
+
+    /**
+     * @param apiService         Service actually sending the events.
+     * @param spool              Spool the events are written to, possibly holding events pending from a previous run.
+     * @param redeliveryInterval How often the pending events are sent again.
+     */
+    public SpoolingApiService(ApiService apiService, EventSpool spool, Duration redeliveryInterval) {
+        this(apiService, apiService, spool, redeliveryInterval);
+    }
+
+    /**
+     * @param apiService         Service the new events are handed over to.
+     * @param redeliveryService  Service sending the pending events again. Redelivery is driven by the shared worker
+     *                           threads and the I/O threads, so this service must not block, e.g. on a full queue, see
+     *                           {@link AsyncEventDispatcher#withoutWaitingForRoom()}.
+     * @param spool              Spool the events are written to, possibly holding events pending from a previous run.
+     * @param redeliveryInterval How often the pending events are sent again.
+     */
+    public SpoolingApiService(ApiService apiService, ApiService redeliveryService, EventSpool spool, Duration redeliveryInterval) {
+        Objects.requireNonNull(apiService, "apiService must not be null, it is a mandatory param");
+        Objects.requireNonNull(redeliveryService, "redeliveryService must not be null, it is a mandatory param");
+        Objects.requireNonNull(spool, "spool must not be null, it is a mandatory param");
+        Objects.requireNonNull(redeliveryInterval, "redeliveryInterval must not be null, it is a mandatory param");
+        this.apiService = apiService;
+        this.redeliveryService = redeliveryService;
+        this.spool = spool;
+        trackRecoveredEvents();
+        long intervalMillis = redeliveryInterval.toMillis();
+        // Redelivery reads the spool and encodes the events, so not on the scheduler thread
+        this.redeliveryTask = SharedScheduler.scheduleWithFixedDelay(() -> SharedScheduler.execute(this::redeliver),
+                0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers the incidents of the events left pending by a previous run, so a later event of their incident
+     * accepted during this run supersedes them as well.
+     */
+    private void trackRecoveredEvents() {
+        try {
+            spool.forEachUnclaimed(event -> {
+                IncidentKey incident = IncidentKey.of(event);
+                if (incident != null) {
+                    pendingIncidents.computeIfAbsent(incident, key -> new TreeSet<>()).add(event.getSequence());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Unable to read pending events from the spool, they may be redelivered after a later event of their incident", e);
+        }
+    }
+
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+        SpooledEvent spooledEvent = spool(event);
+        long sequence = spooledEvent != null ? spooledEvent.getSequence() : -1;
+        IncidentKey incident = IncidentKey.of(event);
+        EventResult eventResult;
+        try {
+            eventResult = apiService.notifyEvent(spooledEvent != null ? spooledEvent : event);
+        } catch (NotifyEventException | RuntimeException e) {
+            onCompleted(sequence, incident, null, e);
+            throw e;
+        }
+        onCompleted(sequence, incident, eventResult, null);
+        return eventResult;
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+        SpooledEvent spooledEvent = spool(event);
+        long sequence = spooledEvent != null ? spooledEvent.getSequence() : -1;
+        IncidentKey incident = IncidentKey.of(event);
+        CompletableFuture<EventResult> eventResult;
+        try {
+            eventResult = apiService.notifyEventAsync(spooledEvent != null ? spooledEvent : event);
+        } catch (RuntimeException e) {
+            onCompleted(sequence, incident, null, e);
+            throw e;
+        }
+        return eventResult.whenComplete((result, throwable) -> onCompleted(sequence, incident, result, throwable));
+    }
+
+    /**
+     * Sends the pending events again, unless a redelivery is already in progress. Called periodically, it can be
+     * called as well to redeliver straight away, e.g. once PagerDuty is known to be reachable again.
+     */
+    public void redeliver() {
+        if (!redelivering.compareAndSet(false, true)) {
+            return;
+        }
+        if (spool.pendingEvents() == 0) {
+            redelivering.set(false);
+            return;
+        }
+
+        AtomicLong lastClaimed = new AtomicLong();
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicInteger activeChains = new AtomicInteger(MAX_CONCURRENT_REDELIVERIES);
+        for (int i = 0; i < MAX_CONCURRENT_REDELIVERIES; i++) {
+            redeliverNext(lastClaimed, failed, activeChains);
+        }
+    }
+
+    /**
+     * Claims and sends the next pending event, then goes on with the following one once it completed. The
+     * redelivery stops as soon as one of the events fails, PagerDuty is likely still unreachable.
+     */
+    private void redeliverNext(AtomicLong lastClaimed, AtomicBoolean failed, AtomicInteger activeChains) {
+        while (true) {
+            SpooledEvent event = null;
+            CompletableFuture<EventResult> eventResult = null;
+            if (!failed.get()) {
+                try {
+                    claimLock.lock();
+                    try {
+                        event = spool.claimNext(lastClaimed.get());
+                        if (event != null) {
+                            lastClaimed.set(event.getSequence());
+                            // Handed over while holding the lock, so the events are queued in the order they were spooled
+                            eventResult = redeliver(event);
+                        }
+                    } finally {
+                        claimLock.unlock();
+                    }
+                } catch (IOException e) {
+                    log.warn("Unable to read pending events from the spool", e);
+                }
+            }
+            if (event == null) {
+                if (activeChains.decrementAndGet() == 0) {
+                    redelivering.set(false);
+                }
+                return;
+            }
+
+            long sequence = event.getSequence();
+            IncidentKey incident = IncidentKey.of(event);
+            if (!eventResult.isDone()) {
+                eventResult.whenComplete((result, throwable) -> {
+                    if (!onCompleted(sequence, incident, result, throwable)) {
+                        failed.set(true);
+                    }
+                    redeliverNext(lastClaimed, failed, activeChains);
+                });
+                return;
+            }
+            // Completed straight away, e.g. dropped from a full queue: the next event is claimed from this loop rather
+            // than recursively, however large the backlog
+            if (!eventResult.handle((result, throwable) -> onCompleted(sequence, incident, result, throwable)).join()) {
+                failed.set(true);
+            }
+        }
+    }
+
+    private CompletableFuture<EventResult> redeliver(SpooledEvent event) {
+        try {
+            return redeliveryService.notifyEventAsync(event);
+        } catch (RuntimeException e) {
+            CompletableFuture<EventResult> eventResult = new CompletableFuture<>();
+            eventResult.completeExceptionally(e);
+            return eventResult;
+        }
+    }
+
+    /**
+     * @return the event as spooled, or null if it could not be spooled
+     */
+    private SpooledEvent spool(PagerDutyEvent event) {
+        try {
+            return spool.spool(event);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to spool event, sending it without persisting it", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the event was delivered or rejected for good, and therefore acknowledged
+     */
+    private boolean onCompleted(long sequence, IncidentKey incident, EventResult eventResult, Throwable throwable) {
+        boolean rejected = throwable != null && EventResults.isRejected(throwable);
+        boolean delivered = throwable == null && EventResults.isFinal(eventResult) || rejected;
+        if (sequence < 0) {
+            return delivered;
+        }
+        if (!delivered) {
+            spool.release(sequence);
+            if (incident != null) {
+                pendingIncidentsLock.lock();
+                try {
+                    pendingIncidents.computeIfAbsent(incident, key -> new TreeSet<>()).add(sequence);
+                } finally {
+                    pendingIncidentsLock.unlock();
+                }
+            }
+            return false;
+        }
+        if (rejected) {
+            log.warn("Event {} was rejected for good, acknowledging it rather than redelivering it", sequence, throwable);
+        }
+        acknowledge(sequence);
+        if (incident != null) {
+            for (long obsoleteSequence : settle(incident, sequence, throwable == null && EventResults.isAccepted(eventResult))) {
+                log.debug("Event {} was superseded by event {} of its incident, acknowledging it rather than redelivering it",
+                        obsoleteSequence, sequence);
+                acknowledge(obsoleteSequence);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Forgets the acknowledged event of the incident.
+     *
+     * @param accepted whether PagerDuty accepted the event, making the pending events of the incident spooled before
+     *                 it obsolete
+     * @return the obsolete pending events
+     */
+    private List<Long> settle(IncidentKey incident, long sequence, boolean accepted) {
+        pendingIncidentsLock.lock();
+        try {
+            TreeSet<Long> pendingSequences = pendingIncidents.get(incident);
+            if (pendingSequences == null) {
+                return Collections.emptyList();
+            }
+            pendingSequences.remove(sequence);
+            List<Long> obsoleteSequences = Collections.emptyList();
+            if (accepted) {
+                NavigableSet<Long> earlierSequences = pendingSequences.headSet(sequence, false);
+                obsoleteSequences = new ArrayList<>(earlierSequences);
+                earlierSequences.clear();
+            }
+            if (pendingSequences.isEmpty()) {
+                pendingIncidents.remove(incident);
+            }
+            return obsoleteSequences;
+        } finally {
+            pendingIncidentsLock.unlock();
+        }
+    }
+
+    private void acknowledge(long sequence) {
+        try {
+            spool.acknowledge(sequence);
+        } catch (IOException e) {
+            log.warn("Unable to acknowledge event {} in the spool, it may be delivered again", sequence, e);
+        }
+    }
+
+    /**
+     * Stops the periodic redelivery and closes the decorated services, then the spool. Closed last, so the events
+     * failed by the services while closing are still released in the spool. Events still pending will be redelivered
+     * on next startup.
+     */
+    @Override
+    public void close() throws IOException {
+        redeliveryTask.cancel(false);
+        try {
+            try {
+                apiService.close();
+            } finally {
+                if (redeliveryService != apiService) {
+                    redeliveryService.close();
+                }
+            }
+        } finally {
+            spool.close();
+        }
+    }
+}
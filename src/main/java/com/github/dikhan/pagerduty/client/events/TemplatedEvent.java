@@ -0,0 +1,93 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.github.dikhan.pagerduty.client.events.domain.EventAction;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Event created from an {@link EventTemplate}, holding only the values of the fields which differ from one event of
+ * the template to the next. It is written as the encoded JSON of the template with these values spliced in.
+ */
+public final class TemplatedEvent implements PagerDutyEvent, JsonSerializable {
+
+    private final EventTemplate template;
+    private final String dedupKey;
+    private final String timestamp;
+    private final Object[] customDetails;
+
+    TemplatedEvent(EventTemplate template, String dedupKey, String timestamp, Object[] customDetails) {
+        this.template = template;
+        this.dedupKey = dedupKey;
+        this.timestamp = timestamp;
+        this.customDetails = customDetails;
+    }
+
+    public EventTemplate getTemplate() {
+        return template;
+    }
+
+    public String getRoutingKey() {
+        return template.getRoutingKey();
+    }
+
+    /**
+     * @return dedup key of the trigger incident, null for change events
+     */
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    /**
+     * @return {@link EventAction#TRIGGER}, or null for change events
+     */
+    public EventAction getEventAction() {
+        return template.isChangeEvent() ? null : EventAction.TRIGGER;
+    }
+
+    public Severity getSeverity() {
+        return template.getSeverity();
+    }
+
+    public boolean isChangeEvent() {
+        return template.isChangeEvent();
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @param index position of the custom detail among the names of the template
+     * @return value of the custom detail
+     */
+    public Object getCustomDetail(int index) {
+        return customDetails[index];
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        template.write(this, gen);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return "TemplatedEvent { " +
+                "template=" + template +
+                ", dedupKey=" + dedupKey +
+                ", timestamp=" + timestamp +
+                ", customDetails=" + Arrays.toString(customDetails) +
+                " }";
+    }
+}
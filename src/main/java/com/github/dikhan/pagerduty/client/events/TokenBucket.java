@@ -0,0 +1,47 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket refilled at a constant rate and holding up to {@code burst} tokens.
+ * <p>
+ * Instead of counting tokens, the bucket keeps the virtual time at which it would be empty: each token taken pushes
+ * that time forward by one refill interval, and the bucket never accumulates more than {@code burst} tokens while
+ * idle. Taking a token is then a single compare-and-set, and callers that have to wait learn exactly for how long.
+ */
+final class TokenBucket {
+
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    // Virtual time (in System.nanoTime() terms) at which the bucket had no tokens left, tokens refill from then on
+    private final AtomicLong emptyAt;
+
+    TokenBucket(double tokensPerSecond, int burst) {
+        this.refillIntervalNanos = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = refillIntervalNanos * burst;
+        this.emptyAt = new AtomicLong(System.nanoTime() - burstNanos);
+    }
+
+    /**
+     * Takes a token, reserving a future one if the bucket is empty.
+     *
+     * @param maxWaitNanos longest acceptable wait for the token
+     * @return nanoseconds the caller has to wait before using the token, or -1 if that would exceed the max wait, in
+     * which case no token is taken
+     */
+    long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = System.nanoTime();
+            long current = emptyAt.get();
+            // An idle bucket only refills up to the burst size
+            long next = Math.max(current, now - burstNanos) + refillIntervalNanos;
+            long waitNanos = Math.max(0, next - now);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (emptyAt.compareAndSet(current, next)) {
+                return waitNanos;
+            }
+        }
+    }
+}
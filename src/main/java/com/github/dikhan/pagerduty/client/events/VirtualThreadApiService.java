@@ -0,0 +1,99 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs every asynchronous send as a blocking {@link ApiService#notifyEvent(PagerDutyEvent)} on its own virtual
+ * thread. Events in flight or backing off before a retry then only cost a parked virtual thread, so tens of thousands
+ * of them can be pending without a platform thread each, while the sending code stays plain blocking code.
+ * <p>
+ * Virtual threads need Java 21 or later. The executor is looked up reflectively so the library still runs on older
+ * JVMs, where creating this service fails with an {@link IllegalStateException}.
+ */
+public class VirtualThreadApiService implements RetryingApiService {
+
+    private final ApiService apiService;
+    private final ExecutorService executor;
+
+    public VirtualThreadApiService(ApiService apiService) {
+        this.apiService = Objects.requireNonNull(apiService, "apiService must not be null, it is a mandatory param");
+        this.executor = newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * @return whether the running JVM supports virtual threads
+     */
+    public static boolean isSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later", e);
+        }
+    }
+
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+        return apiService.notifyEvent(event);
+    }
+
+    /**
+     * The waits before retries are only counted if the decorated service retries events itself.
+     */
+    @Override
+    public EventResult notifyEvent(PagerDutyEvent event, AtomicLong backoffNanos) throws NotifyEventException {
+        return apiService instanceof RetryingApiService ? ((RetryingApiService) apiService).notifyEvent(event, backoffNanos)
+                : apiService.notifyEvent(event);
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+        return notifyEventAsync(event, (AtomicLong) null);
+    }
+
+    @Override
+    public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event, AtomicLong backoffNanos) {
+        CompletableFuture<EventResult> eventResult = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    eventResult.complete(notifyEvent(event, backoffNanos));
+                } catch (NotifyEventException e) {
+                    eventResult.completeExceptionally(e);
+                } catch (RuntimeException e) {
+                    eventResult.completeExceptionally(new NotifyEventException(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            eventResult.completeExceptionally(new NotifyEventException(e));
+        }
+        return eventResult;
+    }
+
+    /**
+     * Stops accepting new sends, those already running go on until they complete.
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        apiService.close();
+    }
+}
@@ -1,10 +1,13 @@
 package com.github.dikhan.pagerduty.client.events.domain;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.dikhan.utils.TimestampFormatter;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONObject;
 
 import java.time.OffsetDateTime;
+import java.util.Map;
 
 /**
  * Change event's payload.  Created to properly nest the payload field.
@@ -17,12 +20,12 @@ public class ChangeEventPayload {
     @JsonProperty("timestamp")
     private final String timestamp;
     @JsonProperty("custom_details")
-    private final JSONObject customDetails;
+    private final Object customDetails;
 
     private ChangeEventPayload(Builder builder) {
         this.summary = builder.getSummary();
         this.source = builder.getSource();
-        this.timestamp = builder.getTimestamp() != null ? builder.getTimestamp().toString() : null;
+        this.timestamp = TimestampFormatter.format(builder.getTimestamp());
         this.customDetails = builder.getCustomDetails();
     }
 
@@ -56,7 +59,7 @@ public class ChangeEventPayload {
         private String summary;
         private String source;
         private OffsetDateTime timestamp;
-        private JSONObject customDetails;
+        private Object customDetails;
 
         /**
          * Builder which helps constructing new change event payload instances
@@ -104,6 +107,34 @@ public class ChangeEventPayload {
             return this;
         }
 
+        /**
+         * @param customDetails Custom details as a map, written with Jackson rather than org.json.
+         * @return ChangeEventPayload Builder with the customDetails field populated to be able to keep populating the instance
+         */
+        public Builder setCustomDetailsMap(Map<String, ?> customDetails) {
+            this.customDetails = customDetails;
+            return this;
+        }
+
+        /**
+         * @param customDetails Custom details as a Jackson JSON object, written as it is.
+         * @return ChangeEventPayload Builder with the customDetails field populated to be able to keep populating the instance
+         */
+        public Builder setCustomDetailsNode(JsonNode customDetails) {
+            this.customDetails = customDetails;
+            return this;
+        }
+
+        /**
+         * @param customDetails Custom details already encoded as UTF-8 JSON, copied as they are into the JSON of the
+         *                      event without being encoded again.
+         * @return ChangeEventPayload Builder with the customDetails field populated to be able to keep populating the instance
+         */
+        public Builder setEncodedCustomDetails(EncodedCustomDetails customDetails) {
+            this.customDetails = customDetails;
+            return this;
+        }
+
         public String getSummary() {
             return summary;
         }
@@ -116,7 +147,7 @@ public class ChangeEventPayload {
             return timestamp;
         }
 
-        public JSONObject getCustomDetails() {
+        public Object getCustomDetails() {
             return customDetails;
         }
 
@@ -0,0 +1,188 @@
+package com.github.dikhan.pagerduty.client.events.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Custom details already encoded as a UTF-8 JSON object, e.g. details shared by many events and encoded once. The
+ * bytes are copied as they are into the JSON of the events, they are not validated.
+ */
+public final class EncodedCustomDetails implements JsonSerializable {
+
+    private final byte[] json;
+    private final RawJson rawJson;
+
+    private EncodedCustomDetails(byte[] json) {
+        this.json = json;
+        this.rawJson = new RawJson(json);
+    }
+
+    /**
+     * @param json UTF-8 encoded JSON object, which must not be modified afterwards.
+     * @return custom details writing the JSON object as it is
+     */
+    public static EncodedCustomDetails of(byte[] json) {
+        Objects.requireNonNull(json, "json must not be null, it is a mandatory param");
+        return new EncodedCustomDetails(json);
+    }
+
+    /**
+     * @param json JSON object.
+     * @return custom details writing the JSON object as it is
+     */
+    public static EncodedCustomDetails of(String json) {
+        Objects.requireNonNull(json, "json must not be null, it is a mandatory param");
+        return new EncodedCustomDetails(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the UTF-8 encoded JSON object, not to be modified
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        // Generators writing bytes copy the encoded JSON straight into their buffer
+        gen.writeRawValue(rawJson);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return rawJson.getValue();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        EncodedCustomDetails that = (EncodedCustomDetails) o;
+
+        return Arrays.equals(json, that.json);
+    }
+
+    @Override
+    public int hashCode() {
+        return rawJson.hashCode;
+    }
+
+    /**
+     * The encoded JSON as the raw value of a generator. Only its unquoted forms are used to write raw values, the
+     * quoted ones are left to a {@link SerializedString} of the decoded JSON.
+     */
+    private static final class RawJson implements SerializableString {
+        private final byte[] json;
+        private final int hashCode;
+        private volatile SerializedString decoded;
+
+        private RawJson(byte[] json) {
+            this.json = json;
+            this.hashCode = Arrays.hashCode(json);
+        }
+
+        private SerializedString decoded() {
+            SerializedString value = decoded;
+            if (value == null) {
+                value = new SerializedString(new String(json, StandardCharsets.UTF_8));
+                decoded = value;
+            }
+            return value;
+        }
+
+        @Override
+        public String getValue() {
+            return decoded().getValue();
+        }
+
+        @Override
+        public int charLength() {
+            return decoded().charLength();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return decoded().asQuotedChars();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return json;
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return decoded().asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return decoded().appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return decoded().appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (offset + json.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(json, 0, buffer, offset, json.length);
+            return json.length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            return decoded().appendUnquoted(buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return decoded().writeQuotedUTF8(out);
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(json);
+            return json.length;
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+            return decoded().putQuotedUTF8(buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            if (json.length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(json);
+            return json.length;
+        }
+    }
+}
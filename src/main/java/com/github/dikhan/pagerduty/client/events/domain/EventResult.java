@@ -6,12 +6,14 @@ public class EventResult {
     private final String message;
     private final String dedupKey;
     private final String errors;
+    private final boolean pending;
 
     private EventResult(EventResultBuilder eventResultBuilder) {
         this.status = eventResultBuilder.getStatus();
         this.message = eventResultBuilder.getMessage();
         this.dedupKey = eventResultBuilder.getDedupKey();
         this.errors = eventResultBuilder.getErrors();
+        this.pending = eventResultBuilder.isPending();
     }
 
     public static EventResult successEvent(String status, String message, String dedupKey) {
@@ -22,6 +24,14 @@ public class EventResult {
         return new EventResultBuilder(status, message).error(errors).build();
     }
 
+    /**
+     * Result of an event handed over to be sent in the background, e.g. queued by the dispatcher, whose outcome is not
+     * known yet. It is neither a success nor an error: the event may still fail to be sent.
+     */
+    public static EventResult pendingEvent(String status, String message, String dedupKey) {
+        return new EventResultBuilder(status, message).pending(dedupKey).build();
+    }
+
     public String getStatus() {
         return status;
     }
@@ -38,11 +48,19 @@ public class EventResult {
         return errors;
     }
 
+    /**
+     * @return true if the event has not been sent yet, PagerDuty not having accepted nor rejected it
+     */
+    public boolean isPending() {
+        return pending;
+    }
+
     private static class EventResultBuilder {
         private final String status;
         private final String message;
         private String dedupKey;
         private String errors;
+        private boolean pending;
 
         public EventResultBuilder(String status, String message) {
             this.status = status;
@@ -59,6 +77,12 @@ public class EventResult {
             return this;
         }
 
+        public EventResultBuilder pending(String dedupKey) {
+            this.dedupKey = dedupKey;
+            this.pending = true;
+            return this;
+        }
+
         public String getStatus() {
             return status;
         }
@@ -75,6 +99,10 @@ public class EventResult {
             return errors;
         }
 
+        public boolean isPending() {
+            return pending;
+        }
+
         public EventResult build() {
             return new EventResult(this);
         }
@@ -88,6 +116,7 @@ public class EventResult {
 
         EventResult that = (EventResult) o;
 
+        if (pending != that.pending) return false;
         if (status != null ? !status.equals(that.status) : that.status != null) return false;
         if (message != null ? !message.equals(that.message) : that.message != null) return false;
         if (dedupKey != null ? !dedupKey.equals(that.dedupKey) : that.dedupKey != null) return false;
@@ -101,6 +130,7 @@ public class EventResult {
         result = 31 * result + (message != null ? message.hashCode() : 0);
         result = 31 * result + (dedupKey != null ? dedupKey.hashCode() : 0);
         result = 31 * result + (errors != null ? errors.hashCode() : 0);
+        result = 31 * result + (pending ? 1 : 0);
         return result;
     }
 
@@ -111,6 +141,7 @@ public class EventResult {
                 ", message='" + message + '\'' +
                 ", dedupKey='" + dedupKey + '\'' +
                 ", errors='" + errors + '\'' +
+                ", pending=" + pending +
                 '}';
     }
 }
@@ -1,10 +1,13 @@
 package com.github.dikhan.pagerduty.client.events.domain;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.dikhan.utils.TimestampFormatter;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONObject;
 
 import java.time.OffsetDateTime;
+import java.util.Map;
 import java.util.Objects;
 
 import static com.github.dikhan.pagerduty.client.events.domain.Incident.IncidentBuilder.BLANK_FIELD;
@@ -28,14 +31,13 @@ public class Payload {
     @JsonProperty("class")
     private final String eventClass;
     @JsonProperty("custom_details")
-    private final JSONObject customDetails;
+    private final Object customDetails;
 
     private Payload(Builder builder) {
         this.summary = builder.getSummary();
         this.source = builder.getSource();
         this.severity = builder.getSeverity();
-        this.timestamp = builder.getTimestamp() != null ?
-                builder.getTimestamp().toString() : null;
+        this.timestamp = TimestampFormatter.format(builder.getTimestamp());
         this.component = builder.getComponent();
         this.group = builder.getGroup();
         this.eventClass = builder.getEventClass();
@@ -96,7 +98,7 @@ public class Payload {
         private String component;
         private String group;
         private String eventClass;
-        private JSONObject customDetails;
+        private Object customDetails;
 
         /**
          * Builder which helps constructing new payload instances
@@ -188,6 +190,34 @@ public class Payload {
             return this;
         }
 
+        /**
+         * @param customDetails Custom details as a map, written with Jackson rather than org.json.
+         * @return Payload Builder with customDetails field populated to be able to keep populating the instance
+         */
+        public Builder setCustomDetailsMap(Map<String, ?> customDetails) {
+            this.customDetails = customDetails;
+            return this;
+        }
+
+        /**
+         * @param customDetails Custom details as a Jackson JSON object, written as it is.
+         * @return Payload Builder with customDetails field populated to be able to keep populating the instance
+         */
+        public Builder setCustomDetailsNode(JsonNode customDetails) {
+            this.customDetails = customDetails;
+            return this;
+        }
+
+        /**
+         * @param customDetails Custom details already encoded as UTF-8 JSON, copied as they are into the JSON of the
+         *                      event without being encoded again.
+         * @return Payload Builder with customDetails field populated to be able to keep populating the instance
+         */
+        public Builder setEncodedCustomDetails(EncodedCustomDetails customDetails) {
+            this.customDetails = customDetails;
+            return this;
+        }
+
         public String getSummary() {
             return summary;
         }
@@ -216,7 +246,7 @@ public class Payload {
             return eventClass;
         }
 
-        public JSONObject getCustomDetails() {
+        public Object getCustomDetails() {
             return customDetails;
         }
 
@@ -0,0 +1,22 @@
+package com.github.dikhan.pagerduty.client.events.exceptions;
+
+/**
+ * The client gave up on the event for good without PagerDuty ever accepting it: the event was dropped from a full
+ * dispatch queue, superseded by a later event of its incident, too large to be sent or impossible to encode. Sending
+ * the same event again would end the same way, so unlike other {@link NotifyEventException}s it is not worth a retry,
+ * and the spool does not redeliver it.
+ */
+public class EventRejectedException extends NotifyEventException {
+
+    public EventRejectedException(Throwable cause) {
+        super(cause);
+    }
+
+    public EventRejectedException(String message) {
+        super(message);
+    }
+
+    public EventRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -9,4 +9,8 @@ public class NotifyEventException extends Exception {
     public NotifyEventException(String message) {
         super(message);
     }
+
+    public NotifyEventException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -14,6 +14,7 @@ import org.slf4j.LoggerFactory;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -75,6 +76,21 @@ public class FakePagerDutyEventsClient extends PagerDutyEventsClient {
         return eventResult;
     }
 
+    @Override
+    public CompletableFuture<EventResult> triggerAsync(TriggerIncident incident) {
+        return toFuture(() -> trigger(incident));
+    }
+
+    @Override
+    public CompletableFuture<EventResult> acknowledgeAsync(AcknowledgeIncident ack) {
+        return toFuture(() -> acknowledge(ack));
+    }
+
+    @Override
+    public CompletableFuture<EventResult> resolveAsync(ResolveIncident resolve) {
+        return toFuture(() -> resolve(resolve));
+    }
+
     public Set<TriggerIncident> openIncidents() {
         Set<String> dedupKeysResolved = dedupKeysResolved();
         return openIncidents.stream()
@@ -101,6 +117,16 @@ public class FakePagerDutyEventsClient extends PagerDutyEventsClient {
                 .collect(Collectors.toSet());
     }
 
+    private CompletableFuture<EventResult> toFuture(EventResultSupplier supplier) {
+        CompletableFuture<EventResult> eventResult = new CompletableFuture<>();
+        try {
+            eventResult.complete(supplier.get());
+        } catch (NotifyEventException e) {
+            eventResult.completeExceptionally(e);
+        }
+        return eventResult;
+    }
+
     private TriggerIncident updateTriggerIncidentWithKey(TriggerIncident incident, String dedupKey) {
         return TriggerIncident.TriggerIncidentBuilder
                 .newBuilder(incident.getRoutingKey(), incident.getPayload())
@@ -108,4 +134,9 @@ public class FakePagerDutyEventsClient extends PagerDutyEventsClient {
                 .build();
     }
 
+    @FunctionalInterface
+    private interface EventResultSupplier {
+        EventResult get() throws NotifyEventException;
+    }
+
 }
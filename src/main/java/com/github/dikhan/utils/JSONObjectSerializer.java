@@ -3,10 +3,18 @@ package com.github.dikhan.utils;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONString;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Iterator;
 
+/**
+ * Walks the {@link JSONObject} writing its members straight into the generator, rather than rendering the whole
+ * object as a String first. Numbers keep the format {@link JSONObject#toString()} gives them.
+ */
 public class JSONObjectSerializer extends StdSerializer<JSONObject>{
     public JSONObjectSerializer() {
         this(null);
@@ -19,6 +27,50 @@ public class JSONObjectSerializer extends StdSerializer<JSONObject>{
     @Override
     public void serialize(JSONObject jsonObject, JsonGenerator jgen,
                           SerializerProvider provider) throws IOException{
-        jgen.writeRawValue(jsonObject.toString());
+        writeObject(jsonObject, jgen);
+    }
+
+    private static void writeObject(JSONObject jsonObject, JsonGenerator jgen) throws IOException {
+        jgen.writeStartObject();
+        Iterator<String> keys = jsonObject.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            jgen.writeFieldName(key);
+            writeValue(jsonObject.opt(key), jgen);
+        }
+        jgen.writeEndObject();
+    }
+
+    private static void writeArray(JSONArray jsonArray, JsonGenerator jgen) throws IOException {
+        jgen.writeStartArray();
+        for (int i = 0; i < jsonArray.length(); i++) {
+            writeValue(jsonArray.opt(i), jgen);
+        }
+        jgen.writeEndArray();
+    }
+
+    private static void writeValue(Object value, JsonGenerator jgen) throws IOException {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            jgen.writeNull();
+        } else if (value instanceof JSONObject) {
+            writeObject((JSONObject) value, jgen);
+        } else if (value instanceof JSONArray) {
+            writeArray((JSONArray) value, jgen);
+        } else if (value instanceof String) {
+            jgen.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            jgen.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            jgen.writeNumber(((Number) value).longValue());
+        } else if (value instanceof BigInteger) {
+            jgen.writeNumber((BigInteger) value);
+        } else if (value instanceof Number) {
+            jgen.writeNumber(JSONObject.numberToString((Number) value));
+        } else if (value instanceof JSONString) {
+            jgen.writeRawValue(((JSONString) value).toJSONString());
+        } else {
+            // Maps, collections, beans... are left to org.json so they render as they always did
+            jgen.writeRawValue(JSONObject.valueToString(value));
+        }
     }
 }
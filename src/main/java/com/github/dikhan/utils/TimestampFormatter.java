@@ -0,0 +1,95 @@
+package com.github.dikhan.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Formats timestamps exactly as {@link OffsetDateTime#toString()} does, without its intermediate strings. The date,
+ * hour and minute of the last timestamp formatted are kept, so timestamps within the same minute only have their
+ * seconds, fraction and offset formatted, into a buffer of the thread, and the formatted timestamp is the only String
+ * allocated.
+ */
+public final class TimestampFormatter {
+
+    // Longest timestamp, with a signed 9 digit year, nanoseconds and an offset with seconds, is 44 characters
+    private static final int MAX_LENGTH = 64;
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[MAX_LENGTH]);
+
+    private static volatile Minute lastMinute;
+
+    private TimestampFormatter() {
+    }
+
+    /**
+     * @param timestamp Timestamp to format, or null.
+     * @return the ISO 8601 timestamp, equal to {@link OffsetDateTime#toString()}, or null
+     */
+    public static String format(OffsetDateTime timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        Minute minute = minute(timestamp);
+        int second = timestamp.getSecond();
+        int nano = timestamp.getNano();
+        String offsetId = timestamp.getOffset().getId();
+
+        int fractionDigits = nano == 0 ? 0 : nano % 1_000_000 == 0 ? 3 : nano % 1_000 == 0 ? 6 : 9;
+        byte[] bytes = BUFFER.get();
+        System.arraycopy(minute.prefix, 0, bytes, 0, minute.prefix.length);
+        int position = minute.prefix.length;
+        if (second != 0 || nano != 0) {
+            bytes[position++] = ':';
+            bytes[position++] = (byte) ('0' + second / 10);
+            bytes[position++] = (byte) ('0' + second % 10);
+        }
+        if (fractionDigits > 0) {
+            bytes[position++] = '.';
+            int fraction = nano / pow10(9 - fractionDigits);
+            for (int i = position + fractionDigits - 1; i >= position; i--) {
+                bytes[i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            position += fractionDigits;
+        }
+        for (int i = 0; i < offsetId.length(); i++) {
+            bytes[position++] = (byte) offsetId.charAt(i);
+        }
+        return new String(bytes, 0, position, StandardCharsets.ISO_8859_1);
+    }
+
+    private static Minute minute(OffsetDateTime timestamp) {
+        LocalDate date = timestamp.toLocalDate();
+        long epochMinute = date.toEpochDay() * 1440 + timestamp.getHour() * 60 + timestamp.getMinute();
+        Minute minute = lastMinute;
+        if (minute == null || minute.epochMinute != epochMinute) {
+            String prefix = timestamp.toLocalDateTime().truncatedTo(ChronoUnit.MINUTES).toString();
+            minute = new Minute(epochMinute, prefix.getBytes(StandardCharsets.ISO_8859_1));
+            lastMinute = minute;
+        }
+        return minute;
+    }
+
+    private static int pow10(int exponent) {
+        int value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    /**
+     * Local date, hour and minute of a timestamp, formatted. The offset is formatted separately, as the same local
+     * minute formats alike whatever its offset.
+     */
+    private static final class Minute {
+        private final long epochMinute;
+        private final byte[] prefix;
+
+        private Minute(long epochMinute, byte[] prefix) {
+            this.epochMinute = epochMinute;
+            this.prefix = prefix;
+        }
+    }
+}
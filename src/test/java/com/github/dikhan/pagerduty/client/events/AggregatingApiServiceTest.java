@@ -0,0 +1,170 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.utils.EventHelper;
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AggregatingApiServiceTest {
+
+    private static final String ROUTING_KEY = "ROUTING_KEY";
+
+    private final List<PagerDutyEvent> sentEvents = new CopyOnWriteArrayList<>();
+    private final ApiService recordingApiService = event -> {
+        sentEvents.add(event);
+        return EventHelper.successEvent();
+    };
+
+    @Test
+    public void triggersBelowTheThresholdAreSentIndividually() throws Exception {
+        AggregatingApiService aggregatingApiService = aggregating(Duration.ofMinutes(1));
+
+        aggregatingApiService.notifyEvent(trigger("host-1", "database", Severity.ERROR));
+        aggregatingApiService.notifyEvent(trigger("host-2", "database", Severity.ERROR));
+
+        assertThat(sentEvents).hasSize(2);
+    }
+
+    @Test
+    public void burstIsCollapsedIntoASummaryTrigger() throws Exception {
+        AggregatingApiService aggregatingApiService = aggregating(Duration.ofMillis(200));
+
+        aggregatingApiService.notifyEvent(trigger("host-1", "database", Severity.WARNING));
+        aggregatingApiService.notifyEvent(trigger("host-2", "database", Severity.WARNING));
+        CompletableFuture<EventResult> collapsed = aggregatingApiService.notifyEventAsync(trigger("host-3", "database", Severity.WARNING));
+        aggregatingApiService.notifyEventAsync(trigger("host-4", "database", Severity.CRITICAL));
+        aggregatingApiService.notifyEventAsync(trigger("host-4", "database", Severity.INFO));
+        assertThat(sentEvents).hasSize(2);
+
+        assertThat(collapsed.get(5, TimeUnit.SECONDS)).isEqualTo(EventHelper.successEvent());
+        assertThat(sentEvents).hasSize(3);
+        TriggerIncident summary = (TriggerIncident) sentEvents.get(2);
+        assertThat(summary.getDedupKey()).isEqualTo("alert-storm:database");
+        assertThat(summary.getPayload().getSeverity()).isEqualTo(Severity.CRITICAL);
+        assertThat(summary.getPayload().getSummary()).isEqualTo("3 alerts from 2 sources in database");
+        JSONObject customDetails = (JSONObject) summary.getPayload().getCustomDetails();
+        assertThat(customDetails.getInt("aggregated_events")).isEqualTo(3);
+        assertThat(customDetails.getJSONArray("sources").toString()).isEqualTo("[\"host-3\",\"host-4\"]");
+    }
+
+    @Test
+    public void singleSourceRetriggeringItsIncidentIsNotAggregated() throws Exception {
+        AggregatingApiService aggregatingApiService = aggregating(Duration.ofMinutes(1));
+        TriggerIncident trigger = TriggerIncident.TriggerIncidentBuilder
+                .newBuilder(ROUTING_KEY, trigger("host-1", "database", Severity.ERROR).getPayload())
+                .setDedupKey("DEDUP_KEY")
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            aggregatingApiService.notifyEvent(trigger);
+        }
+        for (int i = 0; i < 5; i++) {
+            aggregatingApiService.notifyEvent(trigger("host-2", "database", Severity.ERROR));
+        }
+
+        assertThat(sentEvents).hasSize(10);
+    }
+
+    @Test
+    public void otherGroupsAndEventsAreNotAggregated() throws Exception {
+        AggregatingApiService aggregatingApiService = aggregating(Duration.ofMinutes(1));
+        for (int i = 0; i < 3; i++) {
+            aggregatingApiService.notifyEvent(trigger("host-" + i, "database", Severity.ERROR));
+        }
+
+        aggregatingApiService.notifyEvent(trigger("host-1", "cache", Severity.ERROR));
+        aggregatingApiService.notifyEvent(IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "DEDUP_KEY"));
+
+        assertThat(sentEvents).hasSize(4);
+    }
+
+    @Test
+    public void blockingCallsReturnStraightAwayWhenAggregated() throws Exception {
+        AggregatingApiService aggregatingApiService = aggregating(Duration.ofMinutes(1));
+        aggregatingApiService.notifyEvent(trigger("host-1", "database", Severity.ERROR));
+        aggregatingApiService.notifyEvent(trigger("host-2", "database", Severity.ERROR));
+
+        EventResult eventResult = aggregatingApiService.notifyEvent(trigger("host-3", "database", Severity.ERROR));
+
+        assertThat(eventResult.getStatus()).isEqualTo("aggregated");
+        assertThat(eventResult.isPending()).isTrue();
+        assertThat(eventResult.getDedupKey()).isEqualTo("alert-storm:database");
+        assertThat(sentEvents).hasSize(2);
+    }
+
+    @Test
+    public void pendingSummariesAreSentWithoutWaitingForTheWindow() throws Exception {
+        AggregatingApiService aggregatingApiService = aggregating(Duration.ofHours(1));
+        for (int i = 0; i < 4; i++) {
+            aggregatingApiService.notifyEventAsync(trigger("host-" + i, "database", Severity.ERROR));
+        }
+
+        aggregatingApiService.close();
+
+        assertThat(sentEvents).hasSize(3);
+        assertThat(sentEvents.get(2).toString()).contains("2 alerts from 2 sources");
+    }
+
+    @Test
+    public void summariesWaitingForRoomDoNotHoldUpTheScheduler() throws Exception {
+        CountDownLatch room = new CountDownLatch(1);
+        // Summaries are stuck waiting for room in the dispatch queue
+        ApiService fullApiService = event -> {
+            try {
+                if (event instanceof TriggerIncident && "alert-storm:database".equals(((TriggerIncident) event).getDedupKey())) {
+                    room.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return EventHelper.successEvent();
+        };
+        AggregatingApiService aggregatingApiService = new AggregatingApiService(fullApiService, AggregationConfig.Builder.newBuilder()
+                .setWindow(Duration.ofMillis(100))
+                .setThreshold(2)
+                .build());
+        try {
+            aggregatingApiService.notifyEvent(trigger("host-1", "database", Severity.ERROR));
+            CompletableFuture<EventResult> collapsed = aggregatingApiService.notifyEventAsync(trigger("host-2", "database", Severity.ERROR));
+            Thread.sleep(300);
+
+            CompletableFuture<Void> retry = new CompletableFuture<>();
+            SharedScheduler.schedule(() -> retry.complete(null), 0, TimeUnit.MILLISECONDS);
+            retry.get(5, TimeUnit.SECONDS);
+            assertThat(collapsed).isNotDone();
+        } finally {
+            room.countDown();
+        }
+    }
+
+    private AggregatingApiService aggregating(Duration window) {
+        return new AggregatingApiService(recordingApiService, AggregationConfig.Builder.newBuilder()
+                .setWindow(window)
+                .setThreshold(3)
+                .build());
+    }
+
+    private TriggerIncident trigger(String source, String group, Severity severity) {
+        Payload payload = Payload.Builder.newBuilder()
+                .setSummary("Connection refused")
+                .setSource(source)
+                .setSeverity(severity)
+                .setGroup(group)
+                .build();
+        return TriggerIncident.TriggerIncidentBuilder.newBuilder(ROUTING_KEY, payload).build();
+    }
+}
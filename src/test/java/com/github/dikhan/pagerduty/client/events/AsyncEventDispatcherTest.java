@@ -0,0 +1,360 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.ResolveIncident;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.exceptions.EventRejectedException;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import com.github.dikhan.pagerduty.client.events.utils.ChangeEventHelper;
+import com.github.dikhan.pagerduty.client.events.utils.EventHelper;
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class AsyncEventDispatcherTest {
+
+    private static final String ROUTING_KEY = "ROUTING_KEY";
+
+    // Keeps the single sender thread busy so that the queue fills up
+    private final CountDownLatch senderBlocked = new CountDownLatch(1);
+    private final CountDownLatch releaseSender = new CountDownLatch(1);
+    private final ApiService blockingApiService = event -> {
+        senderBlocked.countDown();
+        try {
+            releaseSender.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return EventHelper.successEvent();
+    };
+
+    @After
+    public void releaseSender() {
+        releaseSender.countDown();
+    }
+
+    @Test
+    public void dispatchedEventsAreSentByTheSenderThreads() throws Exception {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(event -> EventHelper.successEvent("DEDUP_KEY"), 10, 2, OverflowPolicy.BLOCK);
+
+        EventResult eventResult = dispatcher.dispatch(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY)).get(5, TimeUnit.SECONDS);
+
+        assertThat(eventResult).isEqualTo(EventHelper.successEvent("DEDUP_KEY"));
+    }
+
+    @Test
+    public void eventsWaitingForARetryDoNotHoldTheSenderThread() throws Exception {
+        CompletableFuture<EventResult> backingOff = new CompletableFuture<>();
+        ApiService apiService = new ApiService() {
+            @Override
+            public EventResult notifyEvent(PagerDutyEvent event) {
+                throw new UnsupportedOperationException("The dispatcher is expected to use the async API");
+            }
+
+            @Override
+            public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+                if (event instanceof TriggerIncident) {
+                    return backingOff;
+                }
+                return CompletableFuture.completedFuture(EventHelper.successEvent("DEDUP_KEY"));
+            }
+        };
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(apiService, 10, 1, OverflowPolicy.BLOCK);
+
+        CompletableFuture<EventResult> trigger = dispatcher.dispatch(trigger(Severity.CRITICAL));
+        EventResult eventResult = dispatcher.dispatch(IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "DEDUP_KEY"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(eventResult).isEqualTo(EventHelper.successEvent("DEDUP_KEY"));
+        assertThat(trigger.isDone()).isFalse();
+    }
+
+    @Test
+    public void enqueueReturnsAsSoonAsTheEventIsQueued() throws Exception {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(blockingApiService, 10, 1, OverflowPolicy.BLOCK);
+
+        EventResult eventResult = dispatcher.enqueue(IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "DEDUP_KEY"));
+
+        assertThat(eventResult.getStatus()).isEqualTo("queued");
+        assertThat(eventResult.isPending()).isTrue();
+        assertThat(eventResult.getDedupKey()).isEqualTo("DEDUP_KEY");
+    }
+
+    @Test
+    public void dropOldestPolicyDropsTheEventWaitingTheLongest() throws Exception {
+        AsyncEventDispatcher dispatcher = fullDispatcher(OverflowPolicy.DROP_OLDEST);
+        CompletableFuture<EventResult> oldest = dispatcher.dispatch(trigger(Severity.CRITICAL));
+        CompletableFuture<EventResult> newest = dispatcher.dispatch(trigger(Severity.INFO));
+        dispatcher.dispatch(trigger(Severity.INFO));
+
+        assertDropped(oldest);
+        // Dropped for good, the spool does not redeliver it
+        assertThat(oldest.handle((result, throwable) -> throwable).get()).isInstanceOf(EventRejectedException.class);
+        assertThat(newest.isDone()).isFalse();
+        assertThat(dispatcher.queueSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void eventsFindingTheQueueFullAreNotWaitedForWhenDispatchedWithoutWaitingForRoom() throws Exception {
+        AsyncEventDispatcher dispatcher = fullDispatcher(OverflowPolicy.BLOCK);
+        dispatcher.dispatch(trigger(Severity.INFO));
+        dispatcher.dispatch(trigger(Severity.INFO));
+
+        CompletableFuture<EventResult> redelivered = dispatcher.withoutWaitingForRoom().notifyEventAsync(trigger(Severity.CRITICAL));
+
+        assertDropped(redelivered);
+        // Not dropped for good, the spool redelivers it later
+        assertThat(redelivered.handle((result, throwable) -> throwable).get()).isNotInstanceOf(EventRejectedException.class);
+        assertThat(dispatcher.queueSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void dropLowestSeverityPolicyKeepsTheMostImportantEvents() throws Exception {
+        AsyncEventDispatcher dispatcher = fullDispatcher(OverflowPolicy.DROP_LOWEST_SEVERITY);
+        CompletableFuture<EventResult> critical = dispatcher.dispatch(trigger(Severity.CRITICAL));
+        CompletableFuture<EventResult> info = dispatcher.dispatch(trigger(Severity.INFO));
+        CompletableFuture<EventResult> resolve = dispatcher.dispatch(IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "DEDUP_KEY"));
+
+        assertDropped(info);
+        assertThat(info.handle((result, throwable) -> throwable).get()).isInstanceOf(EventRejectedException.class);
+        assertThat(critical.isDone()).isFalse();
+        assertThat(resolve.isDone()).isFalse();
+    }
+
+    @Test
+    public void dropLowestSeverityPolicyRejectsNewEventLessImportantThanTheQueuedOnes() throws Exception {
+        AsyncEventDispatcher dispatcher = fullDispatcher(OverflowPolicy.DROP_LOWEST_SEVERITY);
+        dispatcher.dispatch(trigger(Severity.ERROR));
+        dispatcher.dispatch(trigger(Severity.WARNING));
+        ChangeEvent changeEvent = ChangeEventHelper.prepareSampleChangeEvent(ROUTING_KEY);
+
+        try {
+            dispatcher.enqueue(changeEvent);
+            fail("Change event should have been rejected as the queue is full of more important events");
+        } catch (NotifyEventException e) {
+            assertThat(dispatcher.queueSize()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void queueDepthIsReportedToTheMetrics() throws Exception {
+        AtomicInteger reportedQueueDepth = new AtomicInteger(-1);
+        ClientMetrics metrics = new ClientMetrics() {
+            @Override
+            public void queueDepth(int queueDepth) {
+                reportedQueueDepth.set(queueDepth);
+            }
+        };
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(blockingApiService, 10, 1, OverflowPolicy.BLOCK, metrics);
+        dispatcher.dispatch(IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "IN_FLIGHT"));
+        senderBlocked.await(5, TimeUnit.SECONDS);
+
+        dispatcher.dispatch(trigger(Severity.INFO));
+        dispatcher.dispatch(trigger(Severity.ERROR));
+
+        assertThat(reportedQueueDepth.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void criticalTriggersOvertakeTheLessImportantQueuedEvents() throws Exception {
+        List<PagerDutyEvent> sentEvents = new CopyOnWriteArrayList<>();
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(event -> {
+            sentEvents.add(event);
+            return blockingApiService.notifyEvent(event);
+        }, 10, 1, OverflowPolicy.BLOCK);
+        dispatcher.dispatch(IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "IN_FLIGHT"));
+        senderBlocked.await(5, TimeUnit.SECONDS);
+        ChangeEvent changeEvent = ChangeEventHelper.prepareSampleChangeEvent(ROUTING_KEY);
+        TriggerIncident info = trigger(Severity.INFO);
+        TriggerIncident critical = trigger(Severity.CRITICAL);
+
+        CompletableFuture<EventResult> sentLast = dispatcher.dispatch(changeEvent);
+        dispatcher.dispatch(info);
+        dispatcher.dispatch(critical);
+        releaseSender.countDown();
+        sentLast.get(5, TimeUnit.SECONDS);
+
+        assertThat(sentEvents.subList(1, sentEvents.size())).containsExactly(critical, info, changeEvent);
+    }
+
+    @Test
+    public void eventsOfAnIncidentWaitForTheEarlierOnesWhileOtherIncidentsAreSent() throws Exception {
+        CompletableFuture<EventResult> triggerSent = new CompletableFuture<>();
+        CountDownLatch triggerHandedOver = new CountDownLatch(1);
+        List<PagerDutyEvent> sentEvents = new CopyOnWriteArrayList<>();
+        ApiService apiService = new ApiService() {
+            @Override
+            public EventResult notifyEvent(PagerDutyEvent event) {
+                throw new UnsupportedOperationException("The dispatcher is expected to use the async API");
+            }
+
+            @Override
+            public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+                sentEvents.add(event);
+                if (event instanceof TriggerIncident) {
+                    triggerHandedOver.countDown();
+                    return triggerSent;
+                }
+                return CompletableFuture.completedFuture(EventHelper.successEvent());
+            }
+        };
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(apiService, 10, 2, OverflowPolicy.BLOCK);
+        TriggerIncident trigger = IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, "DEDUP_KEY");
+        ResolveIncident resolve = IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "DEDUP_KEY");
+        ResolveIncident otherIncident = IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "OTHER_DEDUP_KEY");
+
+        dispatcher.dispatch(trigger);
+        CompletableFuture<EventResult> resolveResult = dispatcher.dispatch(resolve);
+        dispatcher.dispatch(otherIncident).get(5, TimeUnit.SECONDS);
+        triggerHandedOver.await(5, TimeUnit.SECONDS);
+
+        assertThat(sentEvents).containsOnly(trigger, otherIncident);
+        assertThat(resolveResult.isDone()).isFalse();
+
+        triggerSent.complete(EventHelper.successEvent());
+        resolveResult.get(5, TimeUnit.SECONDS);
+        assertThat(sentEvents.get(2)).isEqualTo(resolve);
+    }
+
+    @Test
+    public void eventsOfAnIncidentFailingStraightAwayAreAllCompleted() throws Exception {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(new ApiService() {
+            @Override
+            public EventResult notifyEvent(PagerDutyEvent event) {
+                throw new UnsupportedOperationException("The dispatcher is expected to use the async API");
+            }
+
+            @Override
+            public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+                CompletableFuture<EventResult> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(new NotifyEventException("Circuit is open"));
+                return rejected;
+            }
+        }, 1000, 1, OverflowPolicy.BLOCK);
+
+        CompletableFuture<EventResult> last = null;
+        for (int i = 0; i < 1000; i++) {
+            last = dispatcher.dispatch(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, "DEDUP_KEY"));
+        }
+
+        assertDropped(last);
+    }
+
+    @Test
+    public void queuedTriggersOfAnIncidentAreCollapsedIntoTheLatest() throws Exception {
+        List<PagerDutyEvent> sentEvents = new CopyOnWriteArrayList<>();
+        AsyncEventDispatcher dispatcher = coalescingDispatcher(CoalescingPolicy.COLLAPSE_TRIGGERS, sentEvents);
+        TriggerIncident first = IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, "DEDUP_KEY");
+        TriggerIncident latest = IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, "DEDUP_KEY");
+        ResolveIncident resolve = IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "DEDUP_KEY");
+
+        CompletableFuture<EventResult> firstResult = dispatcher.dispatch(first);
+        dispatcher.dispatch(latest);
+        CompletableFuture<EventResult> resolveResult = dispatcher.dispatch(resolve);
+        assertThat(dispatcher.queueSize()).isEqualTo(2);
+        releaseSender.countDown();
+
+        assertThat(firstResult.get(5, TimeUnit.SECONDS)).isEqualTo(EventHelper.successEvent());
+        resolveResult.get(5, TimeUnit.SECONDS);
+        assertThat(sentEvents.subList(1, sentEvents.size())).containsExactly(latest, resolve);
+    }
+
+    @Test
+    public void resolveSupersedesTheQueuedEventsOfItsIncident() throws Exception {
+        List<PagerDutyEvent> sentEvents = new CopyOnWriteArrayList<>();
+        AsyncEventDispatcher dispatcher = coalescingDispatcher(CoalescingPolicy.COLLAPSE_RESOLVED, sentEvents);
+        TriggerIncident trigger = IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, "DEDUP_KEY");
+        TriggerIncident otherIncident = IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, "OTHER_DEDUP_KEY");
+        ResolveIncident resolve = IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "DEDUP_KEY");
+
+        CompletableFuture<EventResult> triggerResult = dispatcher.dispatch(trigger);
+        dispatcher.dispatch(IncidentHelper.prepareSampleAcknowledgementIncident(ROUTING_KEY, "DEDUP_KEY"));
+        CompletableFuture<EventResult> otherResult = dispatcher.dispatch(otherIncident);
+        dispatcher.dispatch(resolve);
+        assertThat(dispatcher.queueSize()).isEqualTo(2);
+        releaseSender.countDown();
+
+        triggerResult.get(5, TimeUnit.SECONDS);
+        otherResult.get(5, TimeUnit.SECONDS);
+        assertThat(sentEvents.subList(1, sentEvents.size())).containsOnly(resolve, otherIncident);
+    }
+
+    @Test
+    public void closeFailsTheQueuedEventsAndRejectsNewOnes() throws Exception {
+        AsyncEventDispatcher dispatcher = fullDispatcher(OverflowPolicy.BLOCK);
+        CompletableFuture<EventResult> queued = dispatcher.dispatch(trigger(Severity.CRITICAL));
+
+        dispatcher.close();
+
+        assertDropped(queued);
+        assertDropped(dispatcher.dispatch(trigger(Severity.CRITICAL)));
+        assertThat(dispatcher.queueSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void closeReleasesTheProducersWaitingForRoom() throws Exception {
+        AsyncEventDispatcher dispatcher = fullDispatcher(OverflowPolicy.BLOCK);
+        dispatcher.dispatch(trigger(Severity.CRITICAL));
+        dispatcher.dispatch(trigger(Severity.CRITICAL));
+        CompletableFuture<CompletableFuture<EventResult>> blocked = CompletableFuture.supplyAsync(() -> dispatcher.dispatch(trigger(Severity.CRITICAL)));
+
+        dispatcher.close();
+
+        assertDropped(blocked.get(5, TimeUnit.SECONDS));
+    }
+
+    private AsyncEventDispatcher coalescingDispatcher(CoalescingPolicy coalescingPolicy, List<PagerDutyEvent> sentEvents)
+            throws InterruptedException {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(event -> {
+            sentEvents.add(event);
+            return blockingApiService.notifyEvent(event);
+        }, 10, 1, OverflowPolicy.BLOCK, ClientMetrics.noop(), coalescingPolicy);
+        dispatcher.dispatch(IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "IN_FLIGHT"));
+        senderBlocked.await(5, TimeUnit.SECONDS);
+        return dispatcher;
+    }
+
+    private AsyncEventDispatcher fullDispatcher(OverflowPolicy overflowPolicy) throws InterruptedException {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(blockingApiService, 2, 1, overflowPolicy);
+        ResolveIncident inFlight = IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, "IN_FLIGHT");
+        dispatcher.dispatch(inFlight);
+        senderBlocked.await(5, TimeUnit.SECONDS);
+        return dispatcher;
+    }
+
+    private TriggerIncident trigger(Severity severity) {
+        Payload payload = Payload.Builder.newBuilder()
+                .setSummary("summary")
+                .setSource("source")
+                .setSeverity(severity)
+                .build();
+        return TriggerIncident.TriggerIncidentBuilder.newBuilder(ROUTING_KEY, payload).build();
+    }
+
+    private void assertDropped(CompletableFuture<EventResult> eventResult) throws InterruptedException {
+        try {
+            eventResult.get(5, TimeUnit.SECONDS);
+            fail("Event should have been dropped");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(NotifyEventException.class);
+        } catch (TimeoutException e) {
+            fail("Event should have been dropped straight away");
+        }
+    }
+}
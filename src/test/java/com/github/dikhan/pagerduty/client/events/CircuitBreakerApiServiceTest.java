@@ -0,0 +1,224 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.Incident;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.exceptions.EventRejectedException;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import com.github.dikhan.pagerduty.client.events.utils.EventHelper;
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class CircuitBreakerApiServiceTest {
+
+    private final Incident incident = IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY");
+
+    private final AtomicBoolean pagerDutyDown = new AtomicBoolean(true);
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ApiService flakyApiService = event -> {
+        calls.incrementAndGet();
+        return pagerDutyDown.get() ? EventHelper.internalServerErrorEvent() : EventHelper.successEvent();
+    };
+
+    private final CircuitBreakerConfig config = CircuitBreakerConfig.Builder.newBuilder()
+            .setSlidingWindowSize(4)
+            .setMinimumNumberOfCalls(4)
+            .setFailureRateThreshold(50)
+            .setWaitDurationInOpenState(Duration.ofMillis(200))
+            .setPermittedCallsInHalfOpenState(2)
+            .build();
+
+    @Test
+    public void circuitOpensOnceTheFailureRateIsReached() throws Exception {
+        CircuitBreakerApiService circuitBreaker = new CircuitBreakerApiService(flakyApiService, config);
+
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.notifyEvent(incident);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerApiService.State.OPEN);
+        assertRejected(circuitBreaker);
+        assertThat(calls.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void circuitStaysClosedWhileTheFailureRateIsBelowTheThreshold() throws Exception {
+        CircuitBreakerApiService circuitBreaker = new CircuitBreakerApiService(flakyApiService, config);
+
+        circuitBreaker.notifyEvent(incident);
+        pagerDutyDown.set(false);
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.notifyEvent(incident);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerApiService.State.CLOSED);
+        assertThat(calls.get()).isEqualTo(11);
+    }
+
+    @Test
+    public void slowCallsOpenTheCircuit() throws Exception {
+        CircuitBreakerConfig slowCallConfig = CircuitBreakerConfig.Builder.newBuilder()
+                .setSlidingWindowSize(2)
+                .setMinimumNumberOfCalls(2)
+                .setSlowCallDuration(Duration.ofMillis(10))
+                .build();
+        ApiService slowApiService = event -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return EventHelper.successEvent();
+        };
+        CircuitBreakerApiService circuitBreaker = new CircuitBreakerApiService(slowApiService, slowCallConfig);
+
+        circuitBreaker.notifyEvent(incident);
+        circuitBreaker.notifyEvent(incident);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerApiService.State.OPEN);
+    }
+
+    @Test
+    public void waitsBeforeRetriesDoNotMakeCallsSlow() throws Exception {
+        CircuitBreakerConfig slowCallConfig = CircuitBreakerConfig.Builder.newBuilder()
+                .setSlidingWindowSize(2)
+                .setMinimumNumberOfCalls(2)
+                .setSlowCallDuration(Duration.ofMillis(100))
+                .build();
+        // Rate limited once, then sent after the requested wait
+        RetryingApiService rateLimitedApiService = new RetryingApiService() {
+            @Override
+            public EventResult notifyEvent(PagerDutyEvent event, AtomicLong backoffNanos) {
+                backoffNanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return EventHelper.successEvent();
+            }
+
+            @Override
+            public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event, AtomicLong backoffNanos) {
+                return CompletableFuture.completedFuture(notifyEvent(event, backoffNanos));
+            }
+
+            @Override
+            public EventResult notifyEvent(PagerDutyEvent event) {
+                return notifyEvent(event, new AtomicLong());
+            }
+        };
+        CircuitBreakerApiService circuitBreaker = new CircuitBreakerApiService(rateLimitedApiService, slowCallConfig);
+
+        circuitBreaker.notifyEvent(incident);
+        circuitBreaker.notifyEventAsync(incident).get();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerApiService.State.CLOSED);
+    }
+
+    @Test
+    public void circuitClosesOnceTheTrialCallsSucceed() throws Exception {
+        CircuitBreakerApiService circuitBreaker = openCircuitBreaker();
+        pagerDutyDown.set(false);
+        Thread.sleep(250);
+
+        circuitBreaker.notifyEvent(incident);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerApiService.State.HALF_OPEN);
+        circuitBreaker.notifyEvent(incident);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerApiService.State.CLOSED);
+    }
+
+    @Test
+    public void circuitOpensAgainIfTheTrialCallsFail() throws Exception {
+        CircuitBreakerApiService circuitBreaker = openCircuitBreaker();
+        Thread.sleep(250);
+
+        circuitBreaker.notifyEvent(incident);
+        circuitBreaker.notifyEvent(incident);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerApiService.State.OPEN);
+        assertRejected(circuitBreaker);
+    }
+
+    @Test
+    public void eventsAreHandedOverToTheFallbackWhileOpen() throws Exception {
+        AtomicInteger fallbackCalls = new AtomicInteger();
+        ApiService fallback = event -> {
+            fallbackCalls.incrementAndGet();
+            return EventHelper.successEvent("SPOOLED");
+        };
+        CircuitBreakerApiService circuitBreaker = new CircuitBreakerApiService(flakyApiService, config, fallback);
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.notifyEvent(incident);
+        }
+
+        EventResult eventResult = circuitBreaker.notifyEventAsync(incident).get();
+
+        assertThat(eventResult).isEqualTo(EventHelper.successEvent("SPOOLED"));
+        assertThat(fallbackCalls.get()).isEqualTo(1);
+        assertThat(calls.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void eventsRejectedByTheClientDoNotOpenTheCircuit() throws Exception {
+        ApiService rejectingApiService = new ApiService() {
+            @Override
+            public EventResult notifyEvent(PagerDutyEvent event) throws NotifyEventException {
+                calls.incrementAndGet();
+                throw new EventRejectedException("Event is too large to be sent");
+            }
+
+            @Override
+            public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+                calls.incrementAndGet();
+                CompletableFuture<EventResult> eventResult = new CompletableFuture<>();
+                eventResult.completeExceptionally(new EventRejectedException("Event is too large to be sent"));
+                return eventResult;
+            }
+        };
+        CircuitBreakerApiService circuitBreaker = new CircuitBreakerApiService(rejectingApiService, config);
+
+        for (int i = 0; i < 4; i++) {
+            try {
+                circuitBreaker.notifyEvent(incident);
+                fail("Event should have been rejected by the client");
+            } catch (EventRejectedException e) {
+                // Expected
+            }
+            circuitBreaker.notifyEventAsync(incident).handle((eventResult, throwable) -> throwable).get();
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerApiService.State.CLOSED);
+        assertThat(calls.get()).isEqualTo(8);
+    }
+
+    private CircuitBreakerApiService openCircuitBreaker() throws NotifyEventException {
+        CircuitBreakerApiService circuitBreaker = new CircuitBreakerApiService(flakyApiService, config);
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.notifyEvent(incident);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreakerApiService.State.OPEN);
+        return circuitBreaker;
+    }
+
+    private void assertRejected(CircuitBreakerApiService circuitBreaker) throws InterruptedException {
+        try {
+            circuitBreaker.notifyEventAsync(incident).get();
+            fail("Event should have been rejected while the circuit is open");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(NotifyEventException.class);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.utils.EventHelper;
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeduplicatingApiServiceTest {
+
+    private static final String ROUTING_KEY = "ROUTING_KEY";
+    private static final String DEDUP_KEY = "DEDUP_KEY";
+
+    private final List<PagerDutyEvent> sentEvents = new CopyOnWriteArrayList<>();
+    private final ApiService recordingApiService = event -> {
+        sentEvents.add(event);
+        return EventHelper.successEvent(DEDUP_KEY);
+    };
+
+    @Test
+    public void repeatedTriggersWithinTheWindowAreSuppressed() throws Exception {
+        DeduplicatingApiService deduplicatingApiService = new DeduplicatingApiService(recordingApiService, Duration.ofMinutes(1), 100);
+
+        EventResult first = deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+        EventResult repeated = deduplicatingApiService.notifyEventAsync(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY)).get();
+
+        assertThat(sentEvents).hasSize(1);
+        assertThat(repeated).isEqualTo(first);
+    }
+
+    @Test
+    public void repeatedTriggersAreSentOnceTheWindowElapsed() throws Exception {
+        DeduplicatingApiService deduplicatingApiService = new DeduplicatingApiService(recordingApiService, Duration.ofMillis(50), 100);
+
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+        Thread.sleep(100);
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+
+        assertThat(sentEvents).hasSize(2);
+    }
+
+    @Test
+    public void eventsChangingTheIncidentStateAreNeverSuppressed() throws Exception {
+        DeduplicatingApiService deduplicatingApiService = new DeduplicatingApiService(recordingApiService, Duration.ofMinutes(1), 100);
+
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, DEDUP_KEY));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, DEDUP_KEY));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+
+        assertThat(sentEvents).hasSize(3);
+    }
+
+    @Test
+    public void triggersChangingTheSeverityAreNotSuppressed() throws Exception {
+        DeduplicatingApiService deduplicatingApiService = new DeduplicatingApiService(recordingApiService, Duration.ofMinutes(1), 100);
+
+        deduplicatingApiService.notifyEvent(prepareTriggerIncident(Severity.WARNING));
+        deduplicatingApiService.notifyEvent(prepareTriggerIncident(Severity.CRITICAL));
+        deduplicatingApiService.notifyEvent(prepareTriggerIncident(Severity.CRITICAL));
+        deduplicatingApiService.notifyEventAsync(prepareTriggerIncident(Severity.WARNING)).get();
+
+        assertThat(sentEvents).hasSize(3);
+    }
+
+    @Test
+    public void eventsOfOtherIncidentsAreNotSuppressed() throws Exception {
+        DeduplicatingApiService deduplicatingApiService = new DeduplicatingApiService(recordingApiService, Duration.ofMinutes(1), 100);
+
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, "ANOTHER_DEDUP_KEY"));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident("ANOTHER_ROUTING_KEY", DEDUP_KEY));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY));
+
+        assertThat(sentEvents).hasSize(5);
+    }
+
+    @Test
+    public void undeliveredEventsAreNotSuppressed() throws Exception {
+        ApiService failingApiService = event -> {
+            sentEvents.add(event);
+            return EventHelper.internalServerErrorEvent();
+        };
+        DeduplicatingApiService deduplicatingApiService = new DeduplicatingApiService(failingApiService, Duration.ofMinutes(1), 100);
+
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+
+        assertThat(sentEvents).hasSize(2);
+    }
+
+    @Test
+    public void eventsNotSentYetAreNotSuppressed() throws Exception {
+        ApiService queuingApiService = event -> {
+            sentEvents.add(event);
+            return EventResult.pendingEvent("queued", "Event queued for delivery", DEDUP_KEY);
+        };
+        DeduplicatingApiService deduplicatingApiService = new DeduplicatingApiService(queuingApiService, Duration.ofMinutes(1), 100);
+
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+
+        assertThat(sentEvents).hasSize(2);
+    }
+
+    @Test
+    public void leastRecentlySentIncidentsAreForgottenFirst() throws Exception {
+        DeduplicatingApiService deduplicatingApiService = new DeduplicatingApiService(recordingApiService, Duration.ofMinutes(1), 1);
+
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, "ANOTHER_DEDUP_KEY"));
+        deduplicatingApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY, DEDUP_KEY));
+
+        assertThat(sentEvents).hasSize(3);
+    }
+
+    private static TriggerIncident prepareTriggerIncident(Severity severity) {
+        return TriggerIncident.TriggerIncidentBuilder
+                .newBuilder(ROUTING_KEY, Payload.Builder.newBuilder()
+                        .setSeverity(severity)
+                        .setSummary("HealthCheck failed")
+                        .setSource("testing source")
+                        .build())
+                .setDedupKey(DEDUP_KEY)
+                .build();
+    }
+}
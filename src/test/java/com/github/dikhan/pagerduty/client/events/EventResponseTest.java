@@ -0,0 +1,49 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import org.junit.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventResponseTest {
+
+    @Test
+    public void knownFieldsAreReadAndTheRestSkipped() {
+        EventResponse response = parse("{\"status\":\"success\",\"extra\":{\"nested\":[1,{\"status\":\"ignored\"}]},"
+                + "\"message\":\"Event processed\",\"dedup_key\":\"DEDUP_KEY\"}");
+
+        assertThat(response.getStatus()).isEqualTo("success");
+        assertThat(response.getMessage()).isEqualTo("Event processed");
+        assertThat(response.getDedupKey()).isEqualTo("DEDUP_KEY");
+        assertThat(response.getErrors()).isNull();
+    }
+
+    @Test
+    public void errorsAreKeptAsCompactJson() {
+        EventResponse response = parse("{\"status\":\"invalid event\",\"message\":\"Event object is invalid\","
+                + "\"errors\": [ \"Length of 'routing_key' is incorrect\", \"'payload' is missing\" ]}");
+
+        assertThat(response.getStatus()).isEqualTo("invalid event");
+        assertThat(response.getErrors()).isEqualTo("[\"Length of 'routing_key' is incorrect\",\"'payload' is missing\"]");
+        assertThat(response.getDedupKey()).isNull();
+    }
+
+    @Test
+    public void emptyBodyHasNoFields() {
+        EventResponse response = EventResponse.parse(new byte[0]);
+
+        assertThat(response.getStatus()).isNull();
+        assertThat(response.getMessage()).isNull();
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void malformedBodyIsReported() {
+        parse("{\"status\":");
+    }
+
+    private EventResponse parse(String body) {
+        return EventResponse.parse(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEventPayload;
+import com.github.dikhan.pagerduty.client.events.domain.EncodedCustomDetails;
+import com.github.dikhan.pagerduty.client.events.domain.ImageContext;
+import com.github.dikhan.pagerduty.client.events.domain.LinkContext;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import org.apache.commons.lang3.StringUtils;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class EventSizeLimiterTest {
+
+    private static final int MAX_EVENT_SIZE = 2048;
+
+    private final JacksonObjectMapper objectMapper = new JacksonObjectMapper();
+
+    @Test
+    public void eventsWithinTheLimitAreLeftAlone() {
+        EventSizeLimiter eventSizeLimiter = limiter(OversizedEventPolicy.TRUNCATE);
+
+        assertThat(eventSizeLimiter.exceeds(MAX_EVENT_SIZE)).isFalse();
+        assertThat(eventSizeLimiter.exceeds(MAX_EVENT_SIZE + 1)).isTrue();
+        assertThat(limiter(OversizedEventPolicy.SEND).exceeds(MAX_EVENT_SIZE + 1)).isFalse();
+    }
+
+    @Test
+    public void customDetailsAreShrunkFirst() {
+        JSONObject customDetails = new JSONObject();
+        customDetails.put("host", "db-1");
+        customDetails.put("stacktrace", StringUtils.repeat("at com.example.Service.call(Service.java:42)\n", 100));
+        TriggerIncident trigger = trigger("Connection refused", customDetails, links(2));
+
+        TriggerIncident fitted = (TriggerIncident) fit(limiter(OversizedEventPolicy.TRUNCATE), trigger);
+
+        JSONObject fittedDetails = (JSONObject) fitted.getPayload().getCustomDetails();
+        assertThat(fittedDetails.getString("host")).isEqualTo("db-1");
+        assertThat(fittedDetails.getString("stacktrace")).startsWith("at com.example.Service.call").endsWith("...");
+        assertThat(fitted.getPayload().getSummary()).isEqualTo("Connection refused");
+        assertThat(fitted.getLinks()).hasSize(2);
+        assertThat(fitted.getDedupKey()).isEqualTo(trigger.getDedupKey());
+    }
+
+    @Test
+    public void membersWhichDoNotFitAreOmitted() {
+        JSONObject customDetails = new JSONObject();
+        JSONObject nested = new JSONObject();
+        nested.put("dump", StringUtils.repeat("x", 4096));
+        customDetails.put("nested", nested);
+        TriggerIncident trigger = trigger("Connection refused", customDetails, null);
+
+        TriggerIncident fitted = (TriggerIncident) fit(limiter(OversizedEventPolicy.TRUNCATE), trigger);
+
+        JSONObject fittedDetails = (JSONObject) fitted.getPayload().getCustomDetails();
+        assertThat(fittedDetails.has("nested")).isFalse();
+        assertThat(fittedDetails.getInt(EventSizeLimiter.OMITTED_DETAILS)).isEqualTo(1);
+    }
+
+    @Test
+    public void spooledEventsAreTruncatedFromTheEventTheyWereSerializedFrom() {
+        JSONObject customDetails = new JSONObject();
+        customDetails.put("stacktrace", StringUtils.repeat("at com.example.Service.call(Service.java:42)\n", 100));
+        TriggerIncident trigger = trigger("Connection refused", customDetails, null);
+        SpooledEvent spooledEvent = new SpooledEvent(1, trigger.getRoutingKey(), false, objectMapper.writeValue(trigger), trigger);
+
+        TriggerIncident fitted = (TriggerIncident) fit(limiter(OversizedEventPolicy.TRUNCATE), spooledEvent);
+
+        assertThat(((JSONObject) fitted.getPayload().getCustomDetails()).getString("stacktrace")).endsWith("...");
+    }
+
+    @Test
+    public void linksThenSummaryAreShortenedOnceCustomDetailsAreGone() {
+        TriggerIncident trigger = trigger(StringUtils.repeat("Connection refused ", 150), null, links(20));
+
+        TriggerIncident fitted = (TriggerIncident) fit(limiter(OversizedEventPolicy.TRUNCATE), trigger);
+
+        assertThat(fitted.getLinks()).isEmpty();
+        assertThat(fitted.getPayload().getSummary()).startsWith("Connection refused").endsWith("...");
+    }
+
+    @Test
+    public void changeEventsAreTruncatedToo() {
+        JSONObject customDetails = new JSONObject();
+        customDetails.put("diff", StringUtils.repeat("+ line\n", 1000));
+        ChangeEvent changeEvent = ChangeEvent.ChangeEventBuilder.newBuilder("ROUTING_KEY", ChangeEventPayload.Builder.newBuilder()
+                .setSummary("Deployed")
+                .setCustomDetails(customDetails)
+                .build()).build();
+
+        ChangeEvent fitted = (ChangeEvent) fit(limiter(OversizedEventPolicy.TRUNCATE), changeEvent);
+
+        assertThat(fitted.getPayload().getSummary()).isEqualTo("Deployed");
+    }
+
+    @Test
+    public void encodedCustomDetailsAreShrunkToo() {
+        JSONObject customDetails = new JSONObject();
+        customDetails.put("host", "db-1");
+        customDetails.put("dump", StringUtils.repeat("x", 4096));
+        Payload payload = Payload.Builder.newBuilder()
+                .setSummary("Connection refused")
+                .setSource("db-1")
+                .setSeverity(Severity.ERROR)
+                .setEncodedCustomDetails(EncodedCustomDetails.of(customDetails.toString()))
+                .build();
+        TriggerIncident trigger = TriggerIncident.TriggerIncidentBuilder.newBuilder("ROUTING_KEY", payload).build();
+
+        TriggerIncident fitted = (TriggerIncident) fit(limiter(OversizedEventPolicy.TRUNCATE), trigger);
+
+        JSONObject fittedDetails = (JSONObject) fitted.getPayload().getCustomDetails();
+        assertThat(fittedDetails.getString("host")).isEqualTo("db-1");
+        assertThat(fittedDetails.getString("dump")).endsWith("...");
+    }
+
+    @Test
+    public void oversizedEventsAreRejectedAsPerPolicy() {
+        TriggerIncident trigger = trigger(StringUtils.repeat("Connection refused ", 200), null, null);
+
+        try {
+            fit(limiter(OversizedEventPolicy.REJECT), trigger);
+            fail("Oversized events should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).contains("exceeds the maximum event size of " + MAX_EVENT_SIZE + " bytes");
+        }
+    }
+
+    @Test
+    public void eventsWhichCannotBeShrunkAreRejected() {
+        PagerDutyEvent resolve = IncidentHelper.prepareSampleResolveIncident("ROUTING_KEY", StringUtils.repeat("k", 4096));
+
+        try {
+            fit(limiter(OversizedEventPolicy.TRUNCATE), resolve);
+            fail("Oversized events which cannot be shrunk should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).contains("exceeds the maximum event size");
+        }
+    }
+
+    private PagerDutyEvent fit(EventSizeLimiter eventSizeLimiter, PagerDutyEvent event) {
+        long encodedSize = objectMapper.writeValueAsBytes(event).length;
+        assertThat(eventSizeLimiter.exceeds(encodedSize)).isTrue();
+        PagerDutyEvent fitted = eventSizeLimiter.fit(event, encodedSize);
+        assertThat(objectMapper.writeValueAsBytes(fitted).length).isLessThanOrEqualTo(MAX_EVENT_SIZE);
+        return fitted;
+    }
+
+    private EventSizeLimiter limiter(OversizedEventPolicy oversizedEventPolicy) {
+        return new EventSizeLimiter(HttpClientConfig.Builder.newBuilder()
+                .setMaxEventSize(MAX_EVENT_SIZE)
+                .setOversizedEventPolicy(oversizedEventPolicy)
+                .build(), objectMapper);
+    }
+
+    private TriggerIncident trigger(String summary, JSONObject customDetails, List<LinkContext> links) {
+        Payload payload = Payload.Builder.newBuilder()
+                .setSummary(summary)
+                .setSource("db-1")
+                .setSeverity(Severity.ERROR)
+                .setCustomDetails(customDetails)
+                .build();
+        List<ImageContext> images = new ArrayList<>();
+        images.add(new ImageContext("https://example.com/graph.png"));
+        return TriggerIncident.TriggerIncidentBuilder.newBuilder("ROUTING_KEY", payload)
+                .setDedupKey("DEDUP_KEY")
+                .setImages(images)
+                .setLinks(links)
+                .build();
+    }
+
+    private static List<LinkContext> links(int count) {
+        List<LinkContext> links = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            links.add(new LinkContext("https://example.com/runbooks/" + i, "Runbook " + i));
+        }
+        return links;
+    }
+}
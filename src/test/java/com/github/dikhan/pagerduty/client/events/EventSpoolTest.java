@@ -0,0 +1,139 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.EventAction;
+import com.github.dikhan.pagerduty.client.events.domain.ResolveIncident;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.utils.ChangeEventHelper;
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class EventSpoolTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final JacksonObjectMapper objectMapper = new JacksonObjectMapper();
+
+    @Test
+    public void pendingEventsSurviveReopeningTheSpool() throws Exception {
+        SpoolConfig config = SpoolConfig.Builder.newBuilder(temporaryFolder.getRoot().toPath()).build();
+        TriggerIncident delivered = IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY");
+        ChangeEvent pending = ChangeEventHelper.prepareSampleChangeEvent("ROUTING_KEY");
+        try (EventSpool spool = new EventSpool(config)) {
+            spool.acknowledge(spool.append(delivered));
+            spool.append(pending);
+        }
+
+        try (EventSpool spool = new EventSpool(config)) {
+            assertThat(spool.pendingEvents()).isEqualTo(1);
+            SpooledEvent spooledEvent = spool.claimNext(0);
+            assertThat(spooledEvent.getJson()).isEqualTo(objectMapper.writeValue(pending));
+            assertThat(spooledEvent.getRoutingKey()).isEqualTo("ROUTING_KEY");
+            assertThat(spooledEvent.isChangeEvent()).isTrue();
+            assertThat(spool.claimNext(spooledEvent.getSequence())).isNull();
+        }
+    }
+
+    @Test
+    public void spooledIncidentEventsKeepTheirIncidentAndRank() throws Exception {
+        SpoolConfig config = SpoolConfig.Builder.newBuilder(temporaryFolder.getRoot().toPath()).build();
+        TriggerIncident trigger = IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY", "DEDUP_KEY");
+        ResolveIncident resolve = IncidentHelper.prepareSampleResolveIncident("ROUTING_KEY", "DEDUP_KEY");
+        try (EventSpool spool = new EventSpool(config)) {
+            spool.release(spool.append(trigger));
+            spool.release(spool.append(resolve));
+
+            SpooledEvent spooledTrigger = spool.claimNext(0);
+            SpooledEvent spooledResolve = spool.claimNext(spooledTrigger.getSequence());
+
+            assertThat(IncidentKey.of(spooledTrigger)).isEqualTo(IncidentKey.of(trigger));
+            assertThat(IncidentKey.action(spooledTrigger)).isEqualTo(EventAction.TRIGGER);
+            assertThat(AsyncEventDispatcher.rank(spooledTrigger)).isEqualTo(AsyncEventDispatcher.rank(trigger));
+            assertThat(IncidentKey.of(spooledResolve)).isEqualTo(IncidentKey.of(resolve));
+            assertThat(IncidentKey.action(spooledResolve)).isEqualTo(EventAction.RESOLVE);
+            assertThat(AsyncEventDispatcher.rank(spooledResolve)).isEqualTo(AsyncEventDispatcher.rank(resolve));
+        }
+    }
+
+    @Test
+    public void claimedEventsAreNotClaimedAgainUntilReleased() throws Exception {
+        SpoolConfig config = SpoolConfig.Builder.newBuilder(temporaryFolder.getRoot().toPath()).build();
+        try (EventSpool spool = new EventSpool(config)) {
+            long sequence = spool.append(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+
+            assertThat(spool.claimNext(0)).isNull();
+            spool.release(sequence);
+            assertThat(spool.claimNext(0).getSequence()).isEqualTo(sequence);
+        }
+    }
+
+    @Test
+    public void corruptedRecordsAreDiscarded() throws Exception {
+        SpoolConfig config = SpoolConfig.Builder.newBuilder(temporaryFolder.getRoot().toPath()).build();
+        try (EventSpool spool = new EventSpool(config)) {
+            spool.append(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+        }
+        File[] segmentFiles = temporaryFolder.getRoot().listFiles();
+        assertThat(segmentFiles).hasSize(1);
+        try (RandomAccessFile segmentFile = new RandomAccessFile(segmentFiles[0], "rw")) {
+            segmentFile.seek(30);
+            segmentFile.write(segmentFile.read() ^ 0xFF);
+        }
+
+        try (EventSpool spool = new EventSpool(config)) {
+            assertThat(spool.pendingEvents()).isEqualTo(0);
+            spool.append(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+        }
+        try (EventSpool spool = new EventSpool(config)) {
+            assertThat(spool.pendingEvents()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void deliveredSegmentsAreDeletedAndStuckEventsCompacted() throws Exception {
+        SpoolConfig config = SpoolConfig.Builder.newBuilder(temporaryFolder.getRoot().toPath())
+                .setSegmentSize(4096)
+                .setMaxSegments(4)
+                .build();
+        TriggerIncident stuck = IncidentHelper.prepareSampleTriggerIncident("STUCK_ROUTING_KEY");
+        try (EventSpool spool = new EventSpool(config)) {
+            spool.append(stuck);
+            // Many times the capacity of the spool, which only works if delivered events are reclaimed
+            for (int i = 0; i < 1_000; i++) {
+                spool.acknowledge(spool.append(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY")));
+            }
+            assertThat(temporaryFolder.getRoot().listFiles().length).isLessThanOrEqualTo(4);
+        }
+
+        try (EventSpool spool = new EventSpool(config)) {
+            assertThat(spool.pendingEvents()).isEqualTo(1);
+            assertThat(spool.claimNext(0).getJson()).isEqualTo(objectMapper.writeValue(stuck));
+        }
+    }
+
+    @Test
+    public void appendFailsOnceTheSpoolIsFull() throws Exception {
+        SpoolConfig config = SpoolConfig.Builder.newBuilder(temporaryFolder.getRoot().toPath())
+                .setSegmentSize(4096)
+                .setMaxSegments(2)
+                .build();
+        try (EventSpool spool = new EventSpool(config)) {
+            for (int i = 0; i < 1_000; i++) {
+                spool.append(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+            }
+            fail("The spool should have been full");
+        } catch (IOException e) {
+            assertThat(e).hasMessageContaining("full");
+        }
+    }
+}
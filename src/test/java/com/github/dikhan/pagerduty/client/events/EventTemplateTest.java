@@ -0,0 +1,137 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEventPayload;
+import com.github.dikhan.pagerduty.client.events.domain.EventAction;
+import com.github.dikhan.pagerduty.client.events.domain.LinkContext;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class EventTemplateTest {
+
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.of(2021, 3, 4, 5, 6, 7, 8_000_000, ZoneOffset.UTC);
+
+    private final JacksonObjectMapper objectMapper = new JacksonObjectMapper();
+    private final ObjectMapper reader = new ObjectMapper();
+
+    @Test
+    public void templatedTriggersAreWrittenAsTheEquivalentTriggerIncidents() throws Exception {
+        EventTemplate template = EventTemplate.of(trigger("PROTOTYPE", null, new JSONObject().put("region", "eu-west-1")),
+                "latency", "host");
+
+        TemplatedEvent event = template.newEvent("DEDUP_KEY", TIMESTAMP, 1.5, "db-1");
+
+        TriggerIncident expected = trigger("DEDUP_KEY", TIMESTAMP, new JSONObject()
+                .put("region", "eu-west-1")
+                .put("latency", 1.5)
+                .put("host", "db-1"));
+        assertThat(reader.readTree(objectMapper.writeValueAsBytes(event)))
+                .isEqualTo(reader.readTree(objectMapper.writeValueAsBytes(expected)));
+        assertThat(event.getRoutingKey()).isEqualTo("ROUTING_KEY");
+        assertThat(event.getEventAction()).isEqualTo(EventAction.TRIGGER);
+        assertThat(event.getSeverity()).isEqualTo(Severity.ERROR);
+    }
+
+    @Test
+    public void templatedChangeEventsAreWrittenAsTheEquivalentChangeEvents() throws Exception {
+        EventTemplate template = EventTemplate.of(changeEvent(null, null), "version");
+
+        TemplatedEvent event = template.newEvent(null, TIMESTAMP, "1.2.3");
+
+        ChangeEvent expected = changeEvent(TIMESTAMP, new JSONObject().put("version", "1.2.3"));
+        assertThat(reader.readTree(objectMapper.writeValue(event))).isEqualTo(reader.readTree(objectMapper.writeValue(expected)));
+        assertThat(event.isChangeEvent()).isTrue();
+        assertThat(event.getEventAction()).isNull();
+        assertThat(HttpApiServiceImpl.isChangeEvent(event)).isTrue();
+    }
+
+    @Test
+    public void valuesAreEscapedAndWrittenAsTheJsonOrgWouldRenderThem() throws Exception {
+        EventTemplate template = EventTemplate.of(trigger("PROTOTYPE", null, null),
+                "text", "int", "long", "double", "flag", "nothing", "nested");
+        JSONObject nested = new JSONObject().put("list", Collections.singletonList("two"));
+
+        TemplatedEvent event = template.newEvent("quote \" and \\ and \n", null,
+                "é and </script> and \t", 42, 9_000_000_000L, 2.0, true, JSONObject.NULL, nested);
+
+        JSONObject customDetails = new JSONObject()
+                .put("text", "é and </script> and \t")
+                .put("int", 42)
+                .put("long", 9_000_000_000L)
+                .put("double", 2.0)
+                .put("flag", true)
+                .put("nothing", JSONObject.NULL)
+                .put("nested", nested);
+        TriggerIncident expected = trigger("quote \" and \\ and \n", null, customDetails);
+        assertThat(reader.readTree(objectMapper.writeValueAsBytes(event)))
+                .isEqualTo(reader.readTree(objectMapper.writeValueAsBytes(expected)));
+    }
+
+    @Test
+    public void eventsNotMatchingTheTemplateAreRejected() {
+        EventTemplate triggers = EventTemplate.of(trigger("PROTOTYPE", null, null), "host");
+        EventTemplate changes = EventTemplate.of(changeEvent(null, null));
+
+        assertRejected(() -> triggers.newEvent(null, TIMESTAMP, "db-1"));
+        assertRejected(() -> triggers.newEvent("DEDUP_KEY", TIMESTAMP));
+        assertRejected(() -> triggers.newEvent("DEDUP_KEY", TIMESTAMP, "db-1", "db-2"));
+        assertRejected(() -> changes.newEvent("DEDUP_KEY", TIMESTAMP));
+        assertRejected(() -> EventTemplate.of(trigger("PROTOTYPE", null, null), "host", "host"));
+    }
+
+    @Test
+    public void templatedEventsAreRankedAsTheEquivalentEvents() {
+        TemplatedEvent trigger = EventTemplate.of(trigger("PROTOTYPE", null, null)).newEvent("DEDUP_KEY", null);
+        TemplatedEvent change = EventTemplate.of(changeEvent(null, null)).newEvent(null, null);
+
+        assertThat(AsyncEventDispatcher.rank(trigger)).isEqualTo(AsyncEventDispatcher.rank(trigger("DEDUP_KEY", null, null)));
+        assertThat(AsyncEventDispatcher.rank(change)).isEqualTo(AsyncEventDispatcher.rank(changeEvent(null, null)));
+        assertThat(IncidentKey.of(trigger)).isEqualTo(IncidentKey.of(trigger("DEDUP_KEY", null, null)));
+        assertThat(IncidentKey.of(change)).isNull();
+    }
+
+    private static void assertRejected(Runnable action) {
+        try {
+            action.run();
+            fail("Events not matching the template should be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static TriggerIncident trigger(String dedupKey, OffsetDateTime timestamp, JSONObject customDetails) {
+        Payload payload = Payload.Builder.newBuilder()
+                .setSummary("Latency over threshold")
+                .setSource("monitor")
+                .setSeverity(Severity.ERROR)
+                .setTimestamp(timestamp)
+                .setComponent("database")
+                .setCustomDetails(customDetails)
+                .build();
+        return TriggerIncident.TriggerIncidentBuilder.newBuilder("ROUTING_KEY", payload)
+                .setDedupKey(dedupKey)
+                .setClient("monitor")
+                .setLinks(Collections.singletonList(new LinkContext("https://example.com/runbook", "Runbook")))
+                .build();
+    }
+
+    private static ChangeEvent changeEvent(OffsetDateTime timestamp, JSONObject customDetails) {
+        return ChangeEvent.ChangeEventBuilder.newBuilder("ROUTING_KEY", ChangeEventPayload.Builder.newBuilder()
+                .setSummary("Deployed")
+                .setSource("ci")
+                .setTimestamp(timestamp)
+                .setCustomDetails(customDetails)
+                .build()).build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExponentialBackoffRetryPolicyTest {
+
+    private final ExponentialBackoffRetryPolicy withoutJitter = ExponentialBackoffRetryPolicy.Builder.newBuilder()
+            .setJitter(false)
+            .build();
+
+    @Test
+    public void delaysGrowExponentiallyUpToTheMaxDelay() {
+        ExponentialBackoffRetryPolicy retryPolicy = ExponentialBackoffRetryPolicy.Builder.newBuilder()
+                .setJitter(false)
+                .setMaxRetries(10)
+                .setMaxDelay(Duration.ofSeconds(3))
+                .setMaxElapsed(Duration.ofHours(1))
+                .build();
+
+        assertThat(retryPolicy.nextRetryDelay(failedWith(500, 0))).isEqualTo(Duration.ofMillis(500));
+        assertThat(retryPolicy.nextRetryDelay(failedWith(500, 1))).isEqualTo(Duration.ofMillis(1_000));
+        assertThat(retryPolicy.nextRetryDelay(failedWith(500, 2))).isEqualTo(Duration.ofMillis(2_000));
+        assertThat(retryPolicy.nextRetryDelay(failedWith(500, 3))).isEqualTo(Duration.ofSeconds(3));
+        assertThat(retryPolicy.nextRetryDelay(failedWith(500, 9))).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    public void rateLimitedResponsesBackOffLonger() {
+        assertThat(withoutJitter.nextRetryDelay(failedWith(429, 0))).isEqualTo(Duration.ofSeconds(10));
+        assertThat(withoutJitter.nextRetryDelay(failedWith(429, 1))).isEqualTo(Duration.ofSeconds(20));
+    }
+
+    @Test
+    public void jitterPicksADelayUpToTheExponentialCeiling() {
+        RetryPolicy retryPolicy = RetryPolicy.defaultPolicy();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.nextRetryDelay(failedWith(503, 2))).isBetween(Duration.ZERO, Duration.ofSeconds(2));
+            assertThat(retryPolicy.nextRetryDelay(failedWith(503, 2))).isBetween(Duration.ofSeconds(1), Duration.ofSeconds(2));
+        }
+    }
+
+    @Test
+    public void jitterNeverRetriesRateLimitedResponsesBeforeTheRateLimitBaseDelay() {
+        RetryPolicy retryPolicy = RetryPolicy.defaultPolicy();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.nextRetryDelay(failedWith(429, 0))).isEqualTo(Duration.ofSeconds(10));
+            assertThat(retryPolicy.nextRetryDelay(failedWith(429, 1))).isBetween(Duration.ofSeconds(10), Duration.ofSeconds(20));
+        }
+    }
+
+    @Test
+    public void retryAfterIsHonouredAsTheMinimumDelay() {
+        RetryContext context = new RetryContext(0, 503, null, Duration.ofSeconds(30), Duration.ZERO);
+
+        assertThat(withoutJitter.nextRetryDelay(context)).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    public void serverAndConnectionErrorsAreRetried() {
+        assertThat(withoutJitter.nextRetryDelay(failedWith(502, 0))).isNotNull();
+        assertThat(withoutJitter.nextRetryDelay(failedWith(504, 0))).isNotNull();
+        assertThat(withoutJitter.nextRetryDelay(new RetryContext(0, 0, new IOException("Connection refused"), null, Duration.ZERO)))
+                .isNotNull();
+    }
+
+    @Test
+    public void clientErrorsAreNotRetried() {
+        assertThat(withoutJitter.nextRetryDelay(failedWith(400, 0))).isNull();
+        assertThat(withoutJitter.nextRetryDelay(failedWith(403, 0))).isNull();
+    }
+
+    @Test
+    public void noRetryOnceTheMaxRetriesAreReached() {
+        assertThat(withoutJitter.nextRetryDelay(failedWith(500, 2))).isNotNull();
+        assertThat(withoutJitter.nextRetryDelay(failedWith(500, 3))).isNull();
+    }
+
+    @Test
+    public void noRetryIfTheDelayExceedsTheMaxElapsedTime() {
+        RetryContext context = new RetryContext(0, 503, null, Duration.ofMinutes(5), Duration.ZERO);
+        RetryContext lateContext = new RetryContext(2, 500, null, null, Duration.ofSeconds(119));
+
+        assertThat(withoutJitter.nextRetryDelay(context)).isNull();
+        assertThat(withoutJitter.nextRetryDelay(lateContext)).isNull();
+    }
+
+    @Test
+    public void doRetriesPolicyOnlyRetriesRateLimitedAndInternalServerErrorResponses() {
+        RetryPolicy retryPolicy = RetryPolicy.doRetriesPolicy();
+
+        assertThat(retryPolicy.nextRetryDelay(failedWith(429, 0))).isNotNull();
+        assertThat(retryPolicy.nextRetryDelay(failedWith(500, 0))).isNotNull();
+        assertThat(retryPolicy.nextRetryDelay(failedWith(503, 0))).isNull();
+        assertThat(retryPolicy.nextRetryDelay(new RetryContext(0, 0, new IOException("Connection refused"), null, Duration.ZERO)))
+                .isNull();
+    }
+
+    @Test
+    public void noRetryPolicyNeverRetries() {
+        assertThat(RetryPolicy.none().nextRetryDelay(failedWith(500, 0))).isNull();
+    }
+
+    private static RetryContext failedWith(int statusCode, int retryCount) {
+        return new RetryContext(retryCount, statusCode, null, null, Duration.ZERO);
+    }
+}
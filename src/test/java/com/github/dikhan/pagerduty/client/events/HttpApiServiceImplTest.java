@@ -3,9 +3,16 @@ package com.github.dikhan.pagerduty.client.events;
 import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
 import com.github.dikhan.pagerduty.client.events.domain.EventResult;
 import com.github.dikhan.pagerduty.client.events.domain.Incident;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.exceptions.EventRejectedException;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
 import com.github.dikhan.pagerduty.client.events.utils.EventHelper;
 import com.github.dikhan.pagerduty.client.events.utils.MockServerUtils;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -13,11 +20,17 @@ import org.junit.Test;
 import org.mockserver.client.server.MockServerClient;
 import org.mockserver.junit.MockServerRule;
 
+import java.io.IOException;
 import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.github.dikhan.pagerduty.client.events.utils.IncidentHelper.prepareSampleTriggerIncident;
 import static com.github.dikhan.pagerduty.client.events.utils.ChangeEventHelper.prepareSampleChangeEvent;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 
 public class HttpApiServiceImplTest {
 
@@ -44,8 +57,10 @@ public class HttpApiServiceImplTest {
     }
 
     @After
-    public void afterEach() {
+    public void afterEach() throws IOException {
         mockServerClient.reset();
+        httpApiServiceImpl.close();
+        httpApiServiceImplWithRetriesEnabled.close();
     }
 
     @Test
@@ -319,4 +334,260 @@ public class HttpApiServiceImplTest {
 
         assertThat(eventResult).isEqualTo(expectedResult);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void notifyIncidentEventAsyncAndSuccessfulResponseFromUpstreamServer() throws Exception {
+        String dedupKey = "DEDUP_KEY";
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, incident,
+                        EventHelper.successEvent(dedupKey));
+
+        EventResult eventResult = httpApiServiceImpl.notifyEventAsync(incident).get();
+        EventResult expectedResult = EventHelper.successEvent(dedupKey);
+
+        assertThat(eventResult).isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void notifyIncidentEventAsyncAndErrorResponseFromUpstreamServer() throws Exception {
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        MockServerUtils.prepareMockServerToReceiveEventAndReplyWithWithErrorResponse(mockServerClient, incident,
+                EventHelper.errorEvent());
+
+        EventResult eventResult = httpApiServiceImpl.notifyEventAsync(incident).get();
+        EventResult expectedResult = EventHelper.errorEvent();
+
+        assertThat(eventResult).isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void notifyIncidentEventAsyncAnServerInternalErrorResponseFromUpstreamServerWithRetriesAndRecovery() throws Exception {
+        String dedupKey = "DEDUP_KEY";
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+
+        // 1 initial request + 1 retry + 1 success
+        MockServerUtils.prepareMockServerWithInternalServerErrorResponse(mockServerClient, incident);
+        MockServerUtils.prepareMockServerWithInternalServerErrorResponse(mockServerClient, incident);
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, incident,
+                        EventHelper.successEvent(dedupKey));
+
+        EventResult eventResult = httpApiServiceImplWithRetriesEnabled.notifyEventAsync(incident).get();
+        EventResult expectedResult = EventHelper.successEvent(dedupKey);
+
+        assertThat(eventResult).isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void notifyChangeEventAsyncAndAcceptedResponseFromUpstreamServer() throws Exception {
+        ChangeEvent changeEvent = prepareSampleChangeEvent("SERVICE_KEY");
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithAcceptedResponse(mockServerClient, changeEvent,
+                        EventHelper.successEvent());
+
+        EventResult eventResult = httpApiServiceImpl.notifyEventAsync(changeEvent).get();
+        EventResult expectedResult = EventHelper.successEvent();
+
+        assertThat(eventResult).isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void notifyIncidentEventIsNotAffectedByProxyOfAnotherApiService() throws Exception {
+        String dedupKey = "DEDUP_KEY";
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, incident,
+                        EventHelper.successEvent(dedupKey));
+
+        // Each ApiService owns its HTTP client, so configuring a proxy for one must not leak into the others
+        try (HttpApiServiceImpl proxiedApiService = new HttpApiServiceImpl(EVENT_API, CHANGE_EVENT_API, "unreachable.proxy.invalid", 3128, false)) {
+            EventResult eventResult = httpApiServiceImpl.notifyEvent(incident);
+            EventResult expectedResult = EventHelper.successEvent(dedupKey);
+
+            assertThat(eventResult).isEqualTo(expectedResult);
+        }
+    }
+
+    @Test
+    public void notifyIncidentEventServiceUnavailableResponseHonoursRetryAfter() throws Exception {
+        String dedupKey = "DEDUP_KEY";
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        RetryPolicy retryPolicy = ExponentialBackoffRetryPolicy.Builder.newBuilder()
+                .setBaseDelay(Duration.ofMillis(1))
+                .build();
+        try (HttpApiServiceImpl httpApiServiceImplWithRetryPolicy = new HttpApiServiceImpl(EVENT_API, CHANGE_EVENT_API, null, null,
+                retryPolicy, HttpClientConfig.defaultConfig())) {
+            // 1 initial request asking to come back in 2 seconds + 1 success
+            MockServerUtils.prepareMockServerWithServiceUnavailableResponse(mockServerClient, incident, 2);
+            MockServerUtils
+                    .prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, incident,
+                            EventHelper.successEvent(dedupKey));
+
+            long start = System.nanoTime();
+            AtomicLong backoffNanos = new AtomicLong();
+            EventResult eventResult = httpApiServiceImplWithRetryPolicy.notifyEvent(incident, backoffNanos);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(eventResult).isEqualTo(EventHelper.successEvent(dedupKey));
+            // Each mocked response takes 1 second on top of the requested wait
+            assertThat(elapsedMillis).isGreaterThanOrEqualTo(4_000);
+            assertThat(backoffNanos.get()).isEqualTo(TimeUnit.SECONDS.toNanos(2));
+        }
+    }
+
+    @Test
+    public void notifyIncidentEventConnectionErrorsAreRetriedAsPerPolicy() throws Exception {
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        AtomicInteger connectionErrors = new AtomicInteger();
+        RetryPolicy retryPolicy = context -> {
+            if (context.isConnectionError()) {
+                connectionErrors.incrementAndGet();
+            }
+            return context.getRetryCount() < 2 ? Duration.ofMillis(1) : null;
+        };
+        String unreachableEventApi = "http://" + MOCK_PAGER_DUTY_HOSTNAME + ":1/" + EVENT_END_POINT;
+        try (HttpApiServiceImpl httpApiServiceImplWithRetryPolicy = new HttpApiServiceImpl(unreachableEventApi, CHANGE_EVENT_API, null, null,
+                retryPolicy, HttpClientConfig.defaultConfig())) {
+            httpApiServiceImplWithRetryPolicy.notifyEvent(incident);
+            fail("Connection errors should be reported once the retry policy gives up");
+        } catch (NotifyEventException e) {
+            // 1 initial request + 2 retries
+            assertThat(connectionErrors.get()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void notifySpooledChangeEventIsSentAsSpooledToTheChangeEventApi() throws Exception {
+        ChangeEvent changeEvent = prepareSampleChangeEvent("SERVICE_KEY");
+        SpooledEvent spooledEvent = new SpooledEvent(1, "SERVICE_KEY", true, new JacksonObjectMapper().writeValue(changeEvent));
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithAcceptedResponse(mockServerClient, changeEvent,
+                        EventHelper.successEvent());
+
+        EventResult eventResult = httpApiServiceImpl.notifyEvent(spooledEvent);
+        EventResult expectedResult = EventHelper.successEvent();
+
+        assertThat(eventResult).isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void notifyIncidentEventReportsTheRequestToTheMetrics() throws Exception {
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithAcceptedResponse(mockServerClient, incident,
+                        EventHelper.successEvent());
+        RecordingMetrics metrics = new RecordingMetrics();
+        try (HttpApiServiceImpl httpApiServiceImplWithMetrics = new HttpApiServiceImpl(EVENT_API, CHANGE_EVENT_API, null, null,
+                RetryPolicy.none(), HttpClientConfig.defaultConfig(), metrics)) {
+            httpApiServiceImplWithMetrics.notifyEvent(incident);
+
+            assertThat(metrics.endpoint).isEqualTo(EVENT_API);
+            assertThat(metrics.statusCode).isEqualTo(202);
+            assertThat(metrics.latencyNanos).isGreaterThan(0);
+            assertThat(metrics.bytesSent).isEqualTo(new JacksonObjectMapper().writeValueAsBytes(incident).length);
+        }
+    }
+
+    @Test
+    public void notifyIncidentEventReportsConnectionErrorsAndRetriesToTheMetrics() throws Exception {
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        RetryPolicy retryPolicy = context -> context.getRetryCount() < 2 ? Duration.ofMillis(1) : null;
+        String unreachableEventApi = "http://" + MOCK_PAGER_DUTY_HOSTNAME + ":1/" + EVENT_END_POINT;
+        RecordingMetrics metrics = new RecordingMetrics();
+        try (HttpApiServiceImpl httpApiServiceImplWithMetrics = new HttpApiServiceImpl(unreachableEventApi, CHANGE_EVENT_API, null, null,
+                retryPolicy, HttpClientConfig.defaultConfig(), metrics)) {
+            httpApiServiceImplWithMetrics.notifyEvent(incident);
+            fail("Connection errors should be reported once the retry policy gives up");
+        } catch (NotifyEventException e) {
+            assertThat(metrics.failedRequests.get()).isEqualTo(3);
+            assertThat(metrics.retries.get()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void notifyIncidentEventReportsClientFailuresToTheMetrics() throws Exception {
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        RecordingMetrics metrics = new RecordingMetrics();
+        HttpApiServiceImpl httpApiServiceImplWithMetrics = new HttpApiServiceImpl(EVENT_API, CHANGE_EVENT_API, null, null,
+                RetryPolicy.none(), HttpClientConfig.defaultConfig(), metrics);
+        httpApiServiceImplWithMetrics.close();
+        try {
+            httpApiServiceImplWithMetrics.notifyEvent(incident);
+            fail("Events cannot be sent once the connection pool is shut down");
+        } catch (NotifyEventException e) {
+            assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+            assertThat(metrics.failedRequests.get()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void notifyOversizedIncidentEventIsTruncatedToFit() throws Exception {
+        HttpClientConfig httpClientConfig = HttpClientConfig.Builder.newBuilder().setMaxEventSize(1024).build();
+        Incident incident = prepareOversizedTriggerIncident();
+        long encodedSize = new JacksonObjectMapper().writeValueAsBytes(incident).length;
+        PagerDutyEvent truncated = new EventSizeLimiter(httpClientConfig, new JacksonObjectMapper()).fit(incident, encodedSize);
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithAcceptedResponse(mockServerClient, truncated,
+                        EventHelper.successEvent());
+        try (HttpApiServiceImpl httpApiServiceImplWithMaxEventSize = new HttpApiServiceImpl(EVENT_API, CHANGE_EVENT_API, null, null,
+                RetryPolicy.none(), httpClientConfig)) {
+            EventResult eventResult = httpApiServiceImplWithMaxEventSize.notifyEvent(incident);
+
+            assertThat(eventResult).isEqualTo(EventHelper.successEvent());
+        }
+    }
+
+    @Test
+    public void notifyOversizedIncidentEventIsRejectedWithoutBeingSent() throws Exception {
+        HttpClientConfig httpClientConfig = HttpClientConfig.Builder.newBuilder()
+                .setMaxEventSize(1024)
+                .setOversizedEventPolicy(OversizedEventPolicy.REJECT)
+                .build();
+        String unreachableEventApi = "http://" + MOCK_PAGER_DUTY_HOSTNAME + ":1/" + EVENT_END_POINT;
+        try (HttpApiServiceImpl httpApiServiceImplWithMaxEventSize = new HttpApiServiceImpl(unreachableEventApi, CHANGE_EVENT_API, null, null,
+                RetryPolicy.none(), httpClientConfig)) {
+            httpApiServiceImplWithMaxEventSize.notifyEvent(prepareOversizedTriggerIncident());
+            fail("Oversized events should be rejected before being sent");
+        } catch (NotifyEventException e) {
+            assertThat(e).isInstanceOf(EventRejectedException.class);
+            assertThat(e.getCause()).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static Incident prepareOversizedTriggerIncident() {
+        Payload payload = Payload.Builder.newBuilder()
+                .setSummary(StringUtils.repeat("Connection refused ", 100))
+                .setSource("db-1")
+                .setSeverity(Severity.ERROR)
+                .build();
+        return TriggerIncident.TriggerIncidentBuilder.newBuilder("SERVICE_KEY", payload).build();
+    }
+
+    private static class RecordingMetrics implements ClientMetrics {
+        private final AtomicInteger failedRequests = new AtomicInteger();
+        private final AtomicInteger retries = new AtomicInteger();
+        private volatile String endpoint;
+        private volatile int statusCode;
+        private volatile long latencyNanos;
+        private volatile long bytesSent;
+
+        @Override
+        public void requestCompleted(String endpoint, int statusCode, long latencyNanos, long bytesSent) {
+            this.endpoint = endpoint;
+            this.statusCode = statusCode;
+            this.latencyNanos = latencyNanos;
+            this.bytesSent = bytesSent;
+        }
+
+        @Override
+        public void requestFailed(String endpoint, Throwable error, long latencyNanos) {
+            failedRequests.incrementAndGet();
+        }
+
+        @Override
+        public void retryScheduled(String endpoint, int retryCount, Duration delay) {
+            retries.incrementAndGet();
+        }
+    }
+}
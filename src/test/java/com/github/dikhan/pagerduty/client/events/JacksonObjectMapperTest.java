@@ -0,0 +1,123 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dikhan.pagerduty.client.events.domain.EncodedCustomDetails;
+import com.github.dikhan.pagerduty.client.events.domain.Payload;
+import com.github.dikhan.pagerduty.client.events.domain.Severity;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import org.apache.commons.io.IOUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JacksonObjectMapperTest {
+
+    private final JacksonObjectMapper objectMapper = new JacksonObjectMapper();
+    private final ObjectMapper reader = new ObjectMapper();
+
+    @Test
+    public void customDetailsAreWrittenAsTheJsonOrgWouldRenderThem() throws Exception {
+        JSONObject customDetails = new JSONObject()
+                .put("text", "quote \" and </script>")
+                .put("int", 42)
+                .put("long", 9_000_000_000L)
+                .put("double", 1.5)
+                .put("wholeDouble", 2.0)
+                .put("flag", true)
+                .put("nothing", JSONObject.NULL)
+                .put("nested", new JSONObject().put("list", new JSONArray().put(1).put("two").put(new JSONObject())));
+
+        byte[] json = objectMapper.writeValueAsBytes(customDetails);
+
+        assertThat(reader.readTree(json)).isEqualTo(reader.readTree(customDetails.toString()));
+    }
+
+    @Test
+    public void typedCustomDetailsAreWrittenAsTheEquivalentJsonObject() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("text", "quote \" and é");
+        map.put("int", 42);
+        map.put("nested", Collections.singletonMap("list", Arrays.asList(1, "two")));
+        String expected = reader.writeValueAsString(map);
+
+        String fromMap = objectMapper.writeValue(trigger(Payload.Builder.newBuilder().setCustomDetailsMap(map)));
+        String fromJsonNode = objectMapper.writeValue(trigger(Payload.Builder.newBuilder().setCustomDetailsNode(reader.readTree(expected))));
+        String fromEncoded = objectMapper.writeValue(trigger(Payload.Builder.newBuilder()
+                .setEncodedCustomDetails(EncodedCustomDetails.of(expected.getBytes(StandardCharsets.UTF_8)))));
+        byte[] encodedAsBytes = objectMapper.writeValueAsBytes(trigger(Payload.Builder.newBuilder()
+                .setEncodedCustomDetails(EncodedCustomDetails.of(expected))));
+
+        assertThat(reader.readTree(fromMap).get("payload").get("custom_details")).isEqualTo(reader.readTree(expected));
+        assertThat(fromJsonNode).isEqualTo(fromMap);
+        assertThat(fromEncoded).isEqualTo(fromMap);
+        assertThat(new String(encodedAsBytes, StandardCharsets.UTF_8)).isEqualTo(fromMap);
+    }
+
+    @Test
+    public void streamedEventIsTheSameAsTheStringOne() {
+        TriggerIncident incident = triggerWithCustomDetails(10);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        objectMapper.writeValue(incident, outputStream);
+
+        assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValue(incident));
+    }
+
+    @Test
+    public void pooledEntityGrowsForLargeEventsAndCanBeReadRepeatedly() throws Exception {
+        TriggerIncident incident = triggerWithCustomDetails(2_000);
+        byte[] expected = objectMapper.writeValueAsBytes(incident);
+
+        PooledJsonEntity entity = PooledJsonEntity.of(incident, objectMapper);
+        try {
+            assertThat(entity.getContentLength()).isEqualTo(expected.length);
+            assertThat(entity.getContentType().getValue()).isEqualTo("application/json; charset=UTF-8");
+            assertThat(IOUtils.toByteArray(entity.getContent())).isEqualTo(expected);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            entity.writeTo(outputStream);
+            assertThat(outputStream.toByteArray()).isEqualTo(expected);
+        } finally {
+            entity.release();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void releasedEntityCannotBeRead() {
+        PooledJsonEntity entity = PooledJsonEntity.of(triggerWithCustomDetails(1), objectMapper);
+        entity.release();
+
+        entity.getContent();
+    }
+
+    private TriggerIncident trigger(Payload.Builder payloadBuilder) {
+        Payload payload = payloadBuilder
+                .setSummary("summary")
+                .setSource("source")
+                .setSeverity(Severity.INFO)
+                .build();
+        return TriggerIncident.TriggerIncidentBuilder.newBuilder("ROUTING_KEY", payload).build();
+    }
+
+    private TriggerIncident triggerWithCustomDetails(int entries) {
+        JSONObject customDetails = new JSONObject();
+        for (int i = 0; i < entries; i++) {
+            customDetails.put("key" + i, "value" + i);
+        }
+        Payload payload = Payload.Builder.newBuilder()
+                .setSummary("summary")
+                .setSource("source")
+                .setSeverity(Severity.INFO)
+                .setCustomDetails(customDetails)
+                .build();
+        return TriggerIncident.TriggerIncidentBuilder.newBuilder("ROUTING_KEY", payload).build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.Incident;
+import com.github.dikhan.pagerduty.client.events.utils.EventHelper;
+import com.github.dikhan.pagerduty.client.events.utils.MockServerUtils;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.junit.MockServerRule;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dikhan.pagerduty.client.events.utils.ChangeEventHelper.prepareSampleChangeEvent;
+import static com.github.dikhan.pagerduty.client.events.utils.IncidentHelper.prepareSampleTriggerIncident;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JdkHttpApiServiceTest {
+
+    @Rule
+    public MockServerRule mockServerRule = new MockServerRule(this);
+    private MockServerClient mockServerClient;
+
+    private final String EVENT_API = "http://localhost:" + mockServerRule.getPort() + "/v2/enqueue";
+    private final String CHANGE_EVENT_API = "http://localhost:" + mockServerRule.getPort() + "/v2/change/enqueue";
+
+    private final JdkHttpApiService jdkHttpApiService = new JdkHttpApiService(EVENT_API, CHANGE_EVENT_API, null, null,
+            RetryPolicy.none(), HttpClientConfig.defaultConfig(), ClientMetrics.noop());
+
+    @After
+    public void afterEach() {
+        mockServerClient.reset();
+    }
+
+    @Test
+    public void notifyIncidentEventAndAcceptedResponseFromUpstreamServer() throws Exception {
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        MockServerUtils.prepareMockServerToReceiveGivenEventAndReplyWithAcceptedResponse(mockServerClient, incident,
+                EventHelper.successEvent("DEDUP_KEY"));
+
+        EventResult eventResult = jdkHttpApiService.notifyEvent(incident);
+
+        assertThat(eventResult).isEqualTo(EventHelper.successEvent("DEDUP_KEY"));
+    }
+
+    @Test
+    public void notifyIncidentEventAndErrorResponseFromUpstreamServer() throws Exception {
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        MockServerUtils.prepareMockServerToReceiveEventAndReplyWithWithErrorResponse(mockServerClient, incident,
+                EventHelper.errorEvent());
+
+        EventResult eventResult = jdkHttpApiService.notifyEvent(incident);
+
+        assertThat(eventResult).isEqualTo(EventHelper.errorEvent());
+    }
+
+    @Test
+    public void notifyChangeEventAsyncAndAcceptedResponseFromUpstreamServer() throws Exception {
+        ChangeEvent changeEvent = prepareSampleChangeEvent("SERVICE_KEY");
+        MockServerUtils.prepareMockServerToReceiveGivenEventAndReplyWithAcceptedResponse(mockServerClient, changeEvent,
+                EventHelper.successEvent());
+
+        EventResult eventResult = jdkHttpApiService.notifyEventAsync(changeEvent).get(10, TimeUnit.SECONDS);
+
+        assertThat(eventResult).isEqualTo(EventHelper.successEvent());
+    }
+
+    @Test
+    public void notifyIncidentEventAnServerInternalErrorResponseFromUpstreamServerWithRetriesAndRecovery() throws Exception {
+        Incident incident = prepareSampleTriggerIncident("SERVICE_KEY");
+        MockServerUtils.prepareMockServerWithInternalServerErrorResponse(mockServerClient, incident);
+        MockServerUtils.prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, incident,
+                EventHelper.successEvent("DEDUP_KEY"));
+        RetryPolicy retryPolicy = context -> context.getRetryCount() < 3 ? Duration.ofMillis(10) : null;
+        JdkHttpApiService jdkHttpApiServiceWithRetries = new JdkHttpApiService(EVENT_API, CHANGE_EVENT_API, null, null,
+                retryPolicy, HttpClientConfig.defaultConfig(), ClientMetrics.noop());
+
+        EventResult eventResult = jdkHttpApiServiceWithRetries.notifyEvent(incident);
+
+        assertThat(eventResult).isEqualTo(EventHelper.successEvent("DEDUP_KEY"));
+    }
+
+    @Test
+    public void apiServiceFactoryProducesJdkHttpApiServiceWhenAsked() {
+        ApiService apiService = new ApiServiceFactory("eventApi", "changeEventApi")
+                .withJdkHttpClient(true)
+                .getDefault();
+
+        assertThat(apiService).isExactlyInstanceOf(JdkHttpApiService.class);
+    }
+}
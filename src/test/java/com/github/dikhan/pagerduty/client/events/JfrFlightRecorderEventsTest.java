@@ -0,0 +1,70 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.Incident;
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.ConnectException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JfrFlightRecorderEventsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Incident incident = IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY");
+
+    @Test
+    public void flightRecorderEventsAreAvailable() {
+        assertThat(FlightRecorderEvents.INSTANCE).isInstanceOf(JfrFlightRecorderEvents.class);
+    }
+
+    @Test
+    public void attemptsAndBackoffsAreRecorded() throws Exception {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("com.github.dikhan.pagerduty.SendAttempt");
+            recording.enable("com.github.dikhan.pagerduty.RetryBackoff");
+            recording.start();
+
+            FlightRecorderEvents.INSTANCE.beginAttempt().commit(incident, 1, 0, 512, new ConnectException("refused"));
+            FlightRecorderEvents.INSTANCE.beginBackoff().commit(incident, 1, Duration.ofMillis(250));
+            FlightRecorderEvents.INSTANCE.beginAttempt().commit(incident, 2, 202, 512, null);
+
+            recording.stop();
+            Path dump = temporaryFolder.newFile("recording.jfr").toPath();
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+        }
+
+        assertThat(events).hasSize(3);
+        RecordedEvent failedAttempt = events.get(0);
+        assertThat(failedAttempt.getEventType().getName()).isEqualTo("com.github.dikhan.pagerduty.SendAttempt");
+        assertThat(failedAttempt.getInt("routingKeyHash")).isEqualTo("ROUTING_KEY".hashCode());
+        assertThat(failedAttempt.getString("action")).isEqualTo("trigger");
+        assertThat(failedAttempt.getInt("attempt")).isEqualTo(1);
+        assertThat(failedAttempt.getLong("bytesSent")).isEqualTo(512);
+        assertThat(failedAttempt.getString("error")).contains("refused");
+        RecordedEvent backoff = events.get(1);
+        assertThat(backoff.getEventType().getName()).isEqualTo("com.github.dikhan.pagerduty.RetryBackoff");
+        assertThat(backoff.getDuration("delayNanos")).isEqualTo(Duration.ofMillis(250));
+        RecordedEvent successfulAttempt = events.get(2);
+        assertThat(successfulAttempt.getInt("statusCode")).isEqualTo(202);
+        assertThat(successfulAttempt.getInt("attempt")).isEqualTo(2);
+    }
+
+    @Test
+    public void nothingIsAllocatedWhileNotRecording() {
+        assertThat(FlightRecorderEvents.INSTANCE.beginAttempt()).isSameAs(FlightRecorderEvents.NO_ATTEMPT_EVENT);
+        assertThat(FlightRecorderEvents.INSTANCE.beginBackoff()).isSameAs(FlightRecorderEvents.NO_BACKOFF_EVENT);
+    }
+}
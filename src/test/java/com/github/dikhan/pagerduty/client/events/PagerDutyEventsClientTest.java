@@ -5,6 +5,7 @@ import com.github.dikhan.pagerduty.client.events.domain.ChangeEvent;
 import com.github.dikhan.pagerduty.client.events.domain.EventResult;
 import com.github.dikhan.pagerduty.client.events.domain.ResolveIncident;
 import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
 import com.github.dikhan.pagerduty.client.events.utils.ChangeEventHelper;
 import com.github.dikhan.pagerduty.client.events.utils.EventHelper;
 import com.github.dikhan.pagerduty.client.events.utils.MockServerUtils;
@@ -17,6 +18,9 @@ import org.junit.Test;
 import org.mockserver.client.server.MockServerClient;
 import org.mockserver.junit.MockServerRule;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class PagerDutyEventsClientTest {
@@ -47,6 +51,7 @@ public class PagerDutyEventsClientTest {
     @After
     public void afterEach() {
         mockServerClient.reset();
+        pagerDutyEventsClient.close();
     }
 
     @Test
@@ -96,4 +101,96 @@ public class PagerDutyEventsClientTest {
         EventResult expectedEventResult = EventHelper.successEvent();
         assertThat(eventResult).isEqualTo(expectedEventResult);
     }
+
+    @Test
+    public void triggerAlertAsync() throws Exception {
+        TriggerIncident incident = IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY);
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, incident,
+                        EventHelper.successEvent(DEDUP_KEY));
+
+        EventResult eventResult = pagerDutyEventsClient.triggerAsync(incident).get();
+        EventResult expectedEventResult = EventHelper.successEvent(DEDUP_KEY);
+        assertThat(eventResult).isEqualTo(expectedEventResult);
+    }
+
+    @Test
+    public void resolveAlertAsync() throws Exception {
+        ResolveIncident resolveIncident = IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, DEDUP_KEY);
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, resolveIncident,
+                        EventHelper.successEvent(DEDUP_KEY));
+
+        EventResult eventResult = pagerDutyEventsClient.resolveAsync(resolveIncident).get();
+        EventResult expectedEventResult = EventHelper.successEvent(DEDUP_KEY);
+        assertThat(eventResult).isEqualTo(expectedEventResult);
+    }
+
+    @Test
+    public void trackChangeAsync() throws Exception {
+        ChangeEvent changeEvent = ChangeEventHelper.prepareSampleChangeEvent(ROUTING_KEY);
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, changeEvent,
+                        EventHelper.successEvent());
+
+        EventResult eventResult = pagerDutyEventsClient.trackChangeAsync(changeEvent).get();
+        EventResult expectedEventResult = EventHelper.successEvent();
+        assertThat(eventResult).isEqualTo(expectedEventResult);
+    }
+
+    @Test
+    public void triggerAlertThroughAsyncDispatcher() throws Exception {
+        PagerDutyEventsClient dispatchingClient = new PagerDutyEventsClient.PagerDutyClientBuilder()
+                .withEventApi(EVENT_API)
+                .withChangeEventApi(CHANGE_EVENT_API)
+                .withAsyncDispatcher(100, 2, OverflowPolicy.BLOCK)
+                .build();
+        TriggerIncident incident = IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY);
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, incident,
+                        EventHelper.successEvent(DEDUP_KEY));
+
+        EventResult eventResult = dispatchingClient.triggerAsync(incident).get();
+        EventResult expectedEventResult = EventHelper.successEvent(DEDUP_KEY);
+        assertThat(eventResult).isEqualTo(expectedEventResult);
+    }
+
+    @Test
+    public void queuedEventsAreDeliveredBeforeShutdownReturns() throws Exception {
+        PagerDutyEventsClient dispatchingClient = new PagerDutyEventsClient.PagerDutyClientBuilder()
+                .withEventApi(EVENT_API)
+                .withChangeEventApi(CHANGE_EVENT_API)
+                .withAsyncDispatcher(100, 1, OverflowPolicy.BLOCK)
+                .build();
+        ResolveIncident resolve = IncidentHelper.prepareSampleResolveIncident(ROUTING_KEY, DEDUP_KEY);
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, resolve,
+                        EventHelper.successEvent(DEDUP_KEY));
+
+        CompletableFuture<EventResult> eventResult = dispatchingClient.resolveAsync(resolve);
+
+        assertThat(dispatchingClient.shutdown(Duration.ofSeconds(5))).isEmpty();
+        assertThat(eventResult.isDone()).isTrue();
+        assertThat(eventResult.get()).isEqualTo(EventHelper.successEvent(DEDUP_KEY));
+    }
+
+    @Test
+    public void flushWaitsForTheEventsSentSoFar() throws Exception {
+        TriggerIncident incident = IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY);
+        MockServerUtils
+                .prepareMockServerToReceiveGivenEventAndReplyWithSuccessfulResponse(mockServerClient, incident,
+                        EventHelper.successEvent(DEDUP_KEY));
+
+        CompletableFuture<EventResult> eventResult = pagerDutyEventsClient.triggerAsync(incident);
+
+        assertThat(pagerDutyEventsClient.flush(Duration.ofSeconds(5))).isTrue();
+        assertThat(eventResult.isDone()).isTrue();
+    }
+
+    @Test(expected = NotifyEventException.class)
+    public void eventsAreRejectedOnceShutDown() throws Exception {
+        pagerDutyEventsClient.shutdown(Duration.ofSeconds(5));
+
+        pagerDutyEventsClient.trigger(IncidentHelper.prepareSampleTriggerIncident(ROUTING_KEY));
+    }
 }
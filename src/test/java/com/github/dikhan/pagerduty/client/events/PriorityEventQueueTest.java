@@ -0,0 +1,89 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PriorityEventQueueTest {
+
+    private static final IncidentKey INCIDENT = IncidentKey.of(IncidentHelper.prepareSampleResolveIncident("ROUTING_KEY", "DEDUP_KEY"));
+
+    private final PriorityEventQueue<String> queue = new PriorityEventQueue<>(6, 100);
+
+    @Test
+    public void higherPrioritiesAreTakenFirst() {
+        queue.add("change", 0, null);
+        queue.add("info", 1, null);
+        queue.add("critical", 4, null);
+        queue.add("resolve", 5, null);
+        queue.add("other critical", 4, null);
+
+        assertThat(pollAll()).containsExactly("resolve", "critical", "other critical", "info", "change");
+    }
+
+    @Test
+    public void eventsDoNotOvertakeEarlierEventsOfTheSameIncident() {
+        queue.add("info trigger", 1, INCIDENT);
+        queue.add("critical", 4, null);
+        queue.add("resolve", 5, INCIDENT);
+        queue.add("warning", 2, null);
+
+        assertThat(pollAll()).containsExactly("critical", "warning", "info trigger", "resolve");
+    }
+
+    @Test
+    public void incidentOrderIsKeptWhenAnEarlierEventIsRemoved() {
+        queue.add("critical trigger", 4, INCIDENT);
+        queue.add("info trigger", 1, INCIDENT);
+        queue.remove("info trigger");
+        queue.add("resolve", 5, INCIDENT);
+
+        assertThat(pollAll()).containsExactly("critical trigger", "resolve");
+    }
+
+    @Test
+    public void lowerPrioritiesAreNotStarved() {
+        PriorityEventQueue<String> queue = new PriorityEventQueue<>(6, 2);
+        queue.add("info", 1, null);
+        for (int i = 0; i < 4; i++) {
+            queue.add("critical" + i, 4, null);
+        }
+
+        assertThat(queue.poll()).isEqualTo("critical0");
+        assertThat(queue.poll()).isEqualTo("critical1");
+        assertThat(queue.poll()).isEqualTo("info");
+        assertThat(queue.poll()).isEqualTo("critical2");
+    }
+
+    @Test
+    public void lowestIsTheOldestOfTheLeastImportant() {
+        queue.add("first info", 1, null);
+        queue.add("critical", 4, null);
+        queue.add("second info", 1, null);
+
+        assertThat(queue.lowest(element -> element.contains("info") ? 1 : 4)).isEqualTo("first info");
+    }
+
+    @Test
+    public void clearReturnsTheEventsOldestFirst() {
+        queue.add("info", 1, null);
+        queue.add("critical", 4, null);
+        queue.add("change", 0, null);
+
+        assertThat(queue.clear()).containsExactly("info", "critical", "change");
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(queue.poll()).isNull();
+    }
+
+    private List<String> pollAll() {
+        List<String> elements = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            elements.add(queue.poll());
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import com.github.dikhan.pagerduty.client.events.utils.EventHelper;
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class RateLimitedApiServiceTest {
+
+    private final AtomicInteger sentEvents = new AtomicInteger();
+    private final ApiService countingApiService = event -> {
+        sentEvents.incrementAndGet();
+        return EventHelper.successEvent();
+    };
+
+    @Test
+    public void eventsWithinTheBurstAreSentStraightAway() throws Exception {
+        RateLimitedApiService rateLimitedApiService = new RateLimitedApiService(countingApiService, 1, 3, Duration.ZERO);
+
+        for (int i = 0; i < 3; i++) {
+            rateLimitedApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+        }
+
+        assertThat(sentEvents.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void eventsBeyondTheBurstWaitForTheirToken() throws Exception {
+        RateLimitedApiService rateLimitedApiService = new RateLimitedApiService(countingApiService, 5, 1, null);
+        rateLimitedApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+
+        long start = System.nanoTime();
+        rateLimitedApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(150);
+        assertThat(sentEvents.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void eventsWaitingLongerThanTheMaxWaitAreRejected() throws Exception {
+        RateLimitedApiService rateLimitedApiService = new RateLimitedApiService(countingApiService, 1, 1, Duration.ofMillis(100));
+        rateLimitedApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+
+        try {
+            rateLimitedApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+            fail("Event should have been rejected as it would have to wait about a second");
+        } catch (NotifyEventException e) {
+            assertThat(sentEvents.get()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void eachRoutingKeyHasItsOwnBucket() throws Exception {
+        RateLimitedApiService rateLimitedApiService = new RateLimitedApiService(countingApiService, 1, 1, Duration.ZERO);
+
+        rateLimitedApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+        rateLimitedApiService.notifyEvent(IncidentHelper.prepareSampleTriggerIncident("ANOTHER_ROUTING_KEY"));
+
+        assertThat(sentEvents.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void asyncEventsBeyondTheBurstAreDelayedWithoutBlockingTheCaller() throws Exception {
+        RateLimitedApiService rateLimitedApiService = new RateLimitedApiService(countingApiService, 2, 1, null);
+        rateLimitedApiService.notifyEventAsync(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY")).get();
+
+        CompletableFuture<EventResult> delayed = rateLimitedApiService.notifyEventAsync(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+
+        assertThat(delayed.isDone()).isFalse();
+        assertThat(delayed.get(5, TimeUnit.SECONDS)).isEqualTo(EventHelper.successEvent());
+        assertThat(sentEvents.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void delayedEventsFailWhenTheSendThrows() throws Exception {
+        ApiService throwingApiService = new ApiService() {
+            @Override
+            public EventResult notifyEvent(PagerDutyEvent event) {
+                return EventHelper.successEvent();
+            }
+
+            @Override
+            public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+                if (sentEvents.incrementAndGet() > 1) {
+                    throw new IllegalStateException("HTTP client is closed");
+                }
+                return CompletableFuture.completedFuture(EventHelper.successEvent());
+            }
+        };
+        RateLimitedApiService rateLimitedApiService = new RateLimitedApiService(throwingApiService, 2, 1, null);
+        rateLimitedApiService.notifyEventAsync(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY")).get();
+
+        CompletableFuture<EventResult> delayed = rateLimitedApiService.notifyEventAsync(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"));
+
+        Throwable throwable = delayed.handle((eventResult, t) -> t).get(5, TimeUnit.SECONDS);
+        assertThat(throwable).isInstanceOf(NotifyEventException.class);
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventAction;
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.domain.PagerDutyEvent;
+import com.github.dikhan.pagerduty.client.events.domain.ResolveIncident;
+import com.github.dikhan.pagerduty.client.events.domain.TriggerIncident;
+import com.github.dikhan.pagerduty.client.events.exceptions.EventRejectedException;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import com.github.dikhan.pagerduty.client.events.utils.EventHelper;
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class SpoolingApiServiceTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final TriggerIncident incident = IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY");
+
+    @Test
+    public void deliveredEventsAreAcknowledged() throws Exception {
+        SpoolConfig config = spoolConfig();
+        try (EventSpool spool = new EventSpool(config);
+             SpoolingApiService spoolingApiService = new SpoolingApiService(event -> EventHelper.successEvent(), spool, config.getRedeliveryInterval())) {
+
+            spoolingApiService.notifyEvent(incident);
+
+            assertThat(spool.pendingEvents()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void eventsAreHandedOverAsSpooled() throws Exception {
+        SpoolConfig config = spoolConfig();
+        List<PagerDutyEvent> receivedEvents = new CopyOnWriteArrayList<>();
+        ApiService recordingApiService = event -> {
+            receivedEvents.add(event);
+            return EventHelper.successEvent();
+        };
+        try (EventSpool spool = new EventSpool(config);
+             SpoolingApiService spoolingApiService = new SpoolingApiService(recordingApiService, spool, config.getRedeliveryInterval())) {
+
+            spoolingApiService.notifyEvent(incident);
+
+            // Sent with the JSON written to the spool, rather than serialized once more
+            SpooledEvent spooledEvent = (SpooledEvent) receivedEvents.get(0);
+            assertThat(spooledEvent.getJson()).isEqualTo(new JacksonObjectMapper().writeValue(incident));
+            assertThat(spooledEvent.getOriginal()).isSameAs(incident);
+            assertThat(spooledEvent.getEventAction()).isEqualTo(EventAction.TRIGGER);
+        }
+    }
+
+    @Test
+    public void rejectedEventsAreNotKeptForRedelivery() throws Exception {
+        SpoolConfig config = spoolConfig();
+        try (EventSpool spool = new EventSpool(config);
+             SpoolingApiService spoolingApiService = new SpoolingApiService(event -> EventHelper.errorEvent(), spool, config.getRedeliveryInterval())) {
+
+            spoolingApiService.notifyEventAsync(incident).get();
+
+            assertThat(spool.pendingEvents()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void eventsTheClientGaveUpOnAreNotKeptForRedelivery() throws Exception {
+        SpoolConfig config = spoolConfig();
+        try (EventSpool spool = new EventSpool(config);
+             SpoolingApiService spoolingApiService = new SpoolingApiService(event -> {
+                 throw new EventRejectedException("Event is too large to be sent");
+             }, spool, config.getRedeliveryInterval())) {
+            try {
+                spoolingApiService.notifyEvent(incident);
+                fail("The event should have been rejected");
+            } catch (EventRejectedException e) {
+                assertThat(spool.pendingEvents()).isEqualTo(0);
+            }
+        }
+    }
+
+    @Test
+    public void undeliveredEventsAreRedeliveredOnStartup() throws Exception {
+        SpoolConfig config = spoolConfig();
+        try (EventSpool spool = new EventSpool(config);
+             SpoolingApiService spoolingApiService = new SpoolingApiService(event -> {
+                 throw new NotifyEventException("PagerDuty is unreachable");
+             }, spool, config.getRedeliveryInterval())) {
+            try {
+                spoolingApiService.notifyEvent(incident);
+                fail("The event should have failed to be sent");
+            } catch (NotifyEventException e) {
+                assertThat(spool.pendingEvents()).isEqualTo(1);
+            }
+        }
+
+        List<PagerDutyEvent> receivedEvents = new CopyOnWriteArrayList<>();
+        ApiService recoveredApiService = event -> {
+            receivedEvents.add(event);
+            return EventHelper.successEvent();
+        };
+        try (EventSpool spool = new EventSpool(config);
+             SpoolingApiService ignored = new SpoolingApiService(recoveredApiService, spool, config.getRedeliveryInterval())) {
+            waitUntilNoPendingEvents(spool);
+
+            assertThat(receivedEvents).hasSize(1);
+            assertThat(((SpooledEvent) receivedEvents.get(0)).getJson()).isEqualTo(new JacksonObjectMapper().writeValue(incident));
+        }
+    }
+
+    @Test
+    public void eventsRateLimitedByPagerDutyArePeriodicallyRedelivered() throws Exception {
+        SpoolConfig config = SpoolConfig.Builder.newBuilder(temporaryFolder.getRoot().toPath())
+                .setRedeliveryInterval(Duration.ofMillis(100))
+                .build();
+        List<EventResult> results = new CopyOnWriteArrayList<>();
+        ApiService apiService = event -> {
+            EventResult eventResult = results.isEmpty() ? EventHelper.rateLimitErrorEvent() : EventHelper.successEvent();
+            results.add(eventResult);
+            return eventResult;
+        };
+        try (EventSpool spool = new EventSpool(config);
+             SpoolingApiService spoolingApiService = new SpoolingApiService(apiService, spool, config.getRedeliveryInterval())) {
+
+            EventResult eventResult = spoolingApiService.notifyEvent(incident);
+            assertThat(eventResult).isEqualTo(EventHelper.rateLimitErrorEvent());
+
+            waitUntilNoPendingEvents(spool);
+            assertThat(results).containsExactly(EventHelper.rateLimitErrorEvent(), EventHelper.successEvent());
+        }
+    }
+
+    @Test
+    public void pendingEventsAreNotRedeliveredOnceALaterEventOfTheirIncidentWasAccepted() throws Exception {
+        SpoolConfig config = SpoolConfig.Builder.newBuilder(temporaryFolder.getRoot().toPath())
+                .setRedeliveryInterval(Duration.ofHours(1))
+                .build();
+        TriggerIncident trigger = IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY", "DEDUP_KEY");
+        ResolveIncident resolve = IncidentHelper.prepareSampleResolveIncident("ROUTING_KEY", "DEDUP_KEY");
+        ApiService apiService = event -> IncidentKey.action(event) == EventAction.TRIGGER
+                ? EventHelper.internalServerErrorEvent() : EventHelper.successEvent();
+        try (EventSpool spool = new EventSpool(config);
+             SpoolingApiService spoolingApiService = new SpoolingApiService(apiService, spool, config.getRedeliveryInterval())) {
+
+            spoolingApiService.notifyEvent(trigger);
+            assertThat(spool.pendingEvents()).isEqualTo(1);
+            spoolingApiService.notifyEvent(resolve);
+
+            // Redelivering the trigger would reopen the resolved incident
+            assertThat(spool.pendingEvents()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void eventsPendingFromAPreviousRunAreNotRedeliveredOnceALaterEventOfTheirIncidentWasAccepted() throws Exception {
+        SpoolConfig config = SpoolConfig.Builder.newBuilder(temporaryFolder.getRoot().toPath())
+                .setRedeliveryInterval(Duration.ofHours(1))
+                .build();
+        TriggerIncident trigger = IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY", "DEDUP_KEY");
+        ResolveIncident resolve = IncidentHelper.prepareSampleResolveIncident("ROUTING_KEY", "DEDUP_KEY");
+        try (EventSpool spool = new EventSpool(config);
+             SpoolingApiService spoolingApiService = new SpoolingApiService(event -> EventHelper.internalServerErrorEvent(),
+                     spool, config.getRedeliveryInterval())) {
+            spoolingApiService.notifyEvent(trigger);
+            assertThat(spool.pendingEvents()).isEqualTo(1);
+        }
+
+        // Redelivery of the recovered trigger is still in flight when the resolve is accepted
+        ApiService stalledRedeliveryService = new ApiService() {
+            @Override
+            public EventResult notifyEvent(PagerDutyEvent event) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<EventResult> notifyEventAsync(PagerDutyEvent event) {
+                return new CompletableFuture<>();
+            }
+        };
+        try (EventSpool spool = new EventSpool(config);
+             SpoolingApiService spoolingApiService = new SpoolingApiService(event -> EventHelper.successEvent(),
+                     stalledRedeliveryService, spool, config.getRedeliveryInterval())) {
+            spoolingApiService.notifyEvent(resolve);
+
+            // Redelivering the trigger would reopen the resolved incident
+            assertThat(spool.pendingEvents()).isEqualTo(0);
+        }
+    }
+
+    private SpoolConfig spoolConfig() {
+        return SpoolConfig.Builder.newBuilder(temporaryFolder.getRoot().toPath()).build();
+    }
+
+    private static void waitUntilNoPendingEvents(EventSpool spool) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (spool.pendingEvents() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(spool.pendingEvents()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.dikhan.pagerduty.client.events;
+
+import com.github.dikhan.pagerduty.client.events.domain.EventResult;
+import com.github.dikhan.pagerduty.client.events.exceptions.NotifyEventException;
+import com.github.dikhan.pagerduty.client.events.utils.EventHelper;
+import com.github.dikhan.pagerduty.client.events.utils.IncidentHelper;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadApiServiceTest {
+
+    @Test
+    public void asyncSendsRunAsBlockingSendsOnVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreadApiService.isSupported());
+        AtomicReference<Thread> sender = new AtomicReference<>();
+        VirtualThreadApiService apiService = new VirtualThreadApiService(event -> {
+            sender.set(Thread.currentThread());
+            return EventHelper.successEvent();
+        });
+
+        EventResult eventResult = apiService.notifyEventAsync(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(eventResult).isEqualTo(EventHelper.successEvent());
+        assertThat(Thread.class.getMethod("isVirtual").invoke(sender.get())).isEqualTo(true);
+    }
+
+    @Test
+    public void failedBlockingSendsCompleteTheFutureExceptionally() throws Exception {
+        assumeTrue(VirtualThreadApiService.isSupported());
+        VirtualThreadApiService apiService = new VirtualThreadApiService(event -> {
+            throw new NotifyEventException("unreachable");
+        });
+
+        try {
+            apiService.notifyEventAsync(IncidentHelper.prepareSampleTriggerIncident("ROUTING_KEY")).get(5, TimeUnit.SECONDS);
+            fail("The failure of the blocking send should have been reported");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(NotifyEventException.class).hasMessage("unreachable");
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void virtualThreadsAreRejectedOnOlderJvms() {
+        assumeFalse(VirtualThreadApiService.isSupported());
+
+        new VirtualThreadApiService(event -> EventHelper.successEvent());
+    }
+}
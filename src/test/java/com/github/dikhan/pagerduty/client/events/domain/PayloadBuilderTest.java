@@ -3,6 +3,8 @@ package com.github.dikhan.pagerduty.client.events.domain;
 import org.json.JSONObject;
 import org.junit.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 public class PayloadBuilderTest {
 
     @Test(expected = IllegalArgumentException.class)
@@ -33,4 +35,12 @@ public class PayloadBuilderTest {
         Payload.Builder.newBuilder().setSummary("summary").setSource("source")
                 .setSeverity(Severity.INFO).setCustomDetails(details).build();
     }
+
+    @Test
+    public void customDetailsCanBeCleared() {
+        Payload payload = Payload.Builder.newBuilder().setSummary("summary").setSource("source")
+                .setSeverity(Severity.INFO).setCustomDetails(null).build();
+
+        assertThat(payload.getCustomDetails()).isNull();
+    }
 }
@@ -66,4 +66,16 @@ public class FakePagerDutyEventsClientTest {
         Assertions.assertThat(fakePagerDutyEventsClient.openIncidents()).isEmpty();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void triggerAndResolveIncidentAsync() throws Exception {
+        TriggerIncident incident = TriggerIncident.TriggerIncidentBuilder.newBuilder(ROUTING_KEY, payload)
+                .build();
+        EventResult eventResult = fakePagerDutyEventsClient.triggerAsync(incident).get();
+
+        ResolveIncident resolve = ResolveIncident.ResolveIncidentBuilder.newBuilder(ROUTING_KEY, eventResult.getDedupKey()).build();
+        fakePagerDutyEventsClient.resolveAsync(resolve).get();
+        Assertions.assertThat(fakePagerDutyEventsClient.resolvedIncidents()).containsExactly(resolve);
+        Assertions.assertThat(fakePagerDutyEventsClient.openIncidents()).isEmpty();
+    }
+
+}
@@ -14,6 +14,17 @@ public class IncidentHelper {
                 .build();
     }
 
+    public static TriggerIncident prepareSampleTriggerIncident(String routingKey, String dedupKey) {
+        return TriggerIncident.TriggerIncidentBuilder
+                .newBuilder(routingKey, Payload.Builder.newBuilder()
+                        .setSeverity(Severity.INFO)
+                        .setSummary("HealthCheck failed")
+                        .setSource("testing source")
+                        .build())
+                .setDedupKey(dedupKey)
+                .build();
+    }
+
     public static AcknowledgeIncident prepareSampleAcknowledgementIncident(String routingKey, String dedupKey) {
         return AcknowledgeIncident.AcknowledgeIncidentBuilder.newBuilder(routingKey, dedupKey).build();
     }
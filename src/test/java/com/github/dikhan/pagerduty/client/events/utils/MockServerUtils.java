@@ -93,7 +93,21 @@ public class MockServerUtils {
         prepareMockServer(mockServerClient, event, SC_RATE_LIMIT, noContentResponseBody);
     }
 
-    private static void prepareMockServer(MockServerClient mockServerClient, PagerDutyEvent event, int statusCode, String responseBody) throws JsonProcessingException {
+    /**
+     * Prepare the mock server to receive the given event and reply with a service unavailable (503) response with no
+     * content, asking the client to retry after the given number of seconds
+     * @param mockServerClient mock client to configure the incident/event upon
+     * @param event expected to be received in the mock server from the client
+     * @param retryAfterSeconds value of the Retry-After header
+     * @throws JsonProcessingException
+     */
+    public static void prepareMockServerWithServiceUnavailableResponse(MockServerClient mockServerClient, PagerDutyEvent event, int retryAfterSeconds) throws JsonProcessingException {
+        String noContentResponseBody = "{}";
+        prepareMockServer(mockServerClient, event, HttpStatus.SC_SERVICE_UNAVAILABLE, noContentResponseBody,
+                new Header("Retry-After", String.valueOf(retryAfterSeconds)));
+    }
+
+    private static void prepareMockServer(MockServerClient mockServerClient, PagerDutyEvent event, int statusCode, String responseBody, Header... extraHeaders) throws JsonProcessingException {
         ObjectMapper mapper = new ObjectMapper();
         String endpoint = event instanceof ChangeEvent ? CHANGE_EVENT_END_POINT : EVENT_END_POINT;
         mockServerClient
@@ -109,6 +123,7 @@ public class MockServerUtils {
                                         new Header("Date", new Date().toString()),
                                         new Header("Content-Type", "application/json; charset=utf-8")
                                 )
+                                .withHeaders(extraHeaders)
                                 .withBody(responseBody)
                                 .withDelay(new Delay(TimeUnit.SECONDS, 1))
                 );
@@ -0,0 +1,43 @@
+package com.github.dikhan.utils;
+
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimestampFormatterTest {
+
+    @Test
+    public void timestampsAreFormattedAsOffsetDateTimeDoes() {
+        OffsetDateTime[] timestamps = {
+                OffsetDateTime.of(2021, 3, 4, 5, 6, 0, 0, ZoneOffset.UTC),
+                OffsetDateTime.of(2021, 3, 4, 5, 6, 7, 0, ZoneOffset.UTC),
+                OffsetDateTime.of(2021, 3, 4, 5, 6, 0, 1, ZoneOffset.UTC),
+                OffsetDateTime.of(2021, 3, 4, 5, 6, 7, 8_000_000, ZoneOffset.ofHours(2)),
+                OffsetDateTime.of(2021, 3, 4, 5, 6, 7, 8_000, ZoneOffset.ofHoursMinutes(-5, -30)),
+                OffsetDateTime.of(2021, 3, 4, 5, 6, 7, 120_000_009, ZoneOffset.ofHoursMinutesSeconds(1, 2, 3)),
+                OffsetDateTime.of(10000, 1, 1, 0, 0, 59, 999_999_999, ZoneOffset.UTC),
+                OffsetDateTime.of(-1, 12, 31, 23, 59, 1, 0, ZoneOffset.UTC),
+        };
+        for (OffsetDateTime timestamp : timestamps) {
+            assertThat(TimestampFormatter.format(timestamp)).isEqualTo(timestamp.toString());
+        }
+        assertThat(TimestampFormatter.format(null)).isNull();
+    }
+
+    @Test
+    public void timestampsWithinTheSameMinuteReuseTheFormattedMinute() {
+        Random random = new Random(42);
+        OffsetDateTime minute = OffsetDateTime.of(2021, 3, 4, 5, 6, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < 10_000; i++) {
+            OffsetDateTime timestamp = minute
+                    .plusSeconds(random.nextInt(120))
+                    .plusNanos(random.nextInt(1_000_000_000) / (long) Math.pow(10, random.nextInt(10)))
+                    .withOffsetSameLocal(random.nextBoolean() ? ZoneOffset.UTC : ZoneOffset.ofHours(1));
+            assertThat(TimestampFormatter.format(timestamp)).isEqualTo(timestamp.toString());
+        }
+    }
+}